@@ -0,0 +1,209 @@
+package evaluation;
+
+import helperClasses.Functions;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Calculates the functions of functionSet 6 with the Vector API (jdk.incubator.vector)
+ * several values of a column are calculated with one SIMD instruction
+ *
+ * The results are exactly the same as the results of Functions:
+ * only functions that are rounded the same way in every lane are vectorized,
+ * COS, SIN, LOG2, ROUND and FRAC and all other functionSets use the scalar functions.
+ *
+ * This class is only loaded by the BatchEvaluator
+ * if the module jdk.incubator.vector is available (--add-modules jdk.incubator.vector)
+ * It is in its own source folder (src-vector), so that src can be compiled without the module
+ * (see README.md)
+ */
+final class VectorColumnKernels implements ColumnKernels {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	@Override
+	public void getResultsForFunction(int functionSet, double[] in1, double[] in2, double[] out, int length,
+			int functionNr) {
+		if (functionSet != 6 || !isVectorized(functionNr)) {
+			Functions.getResultsForFunction(functionSet, in1, in2, out, length, functionNr);
+			return;
+		}
+		int upperBound = SPECIES.loopBound(length);
+		calculate(functionNr, in1, in2, out, upperBound);
+		// the values after the last full vector
+		for (int i = upperBound; i < length; i++) {
+			out[i] = Functions.getResultForFunction(6, in1[i], in2[i], functionNr);
+		}
+	}
+
+	/**
+	 * @return if the function of functionSet 6 is calculated with vectors
+	 */
+	static boolean isVectorized(int functionNr) {
+		switch (functionNr) {
+		case 10:// COS
+		case 11:// SIN
+		case 17:// LOG2
+		case 18:// ROUND
+		case 19:// FRAC
+			return false;
+		default:
+			return functionNr >= 1 && functionNr <= 21;
+		}
+	}
+
+	/**
+	 * calculates one function of functionSet 6 for the first upperBound values
+	 * (upperBound is a multiple of the vector length)
+	 * every function has its own small method, so that the vector operations are inlined
+	 */
+	private static void calculate(int functionNr, double[] in1, double[] in2, double[] out, int upperBound) {
+		switch (functionNr) {
+		case 1:// ADD
+			add(in1, in2, out, upperBound);
+			return;
+		case 2:// SUB
+			sub(in1, in2, out, upperBound);
+			return;
+		case 3:// MULT
+			mult(in1, in2, out, upperBound);
+			return;
+		case 4:// DIVIDE
+			divide(in1, in2, out, upperBound);
+			return;
+		case 5:// ADD CONST
+			addConst(in1, out, upperBound);
+			return;
+		case 6:// SUB CONST
+			subConst(in1, out, upperBound);
+			return;
+		case 7:// DIV CONST
+			divConst(in1, out, upperBound);
+			return;
+		case 8:// SQRT
+			sqrt(in1, out, upperBound);
+			return;
+		case 9:// SQUARE
+			square(in1, out, upperBound);
+			return;
+		case 12:// NOP
+			System.arraycopy(in1, 0, out, 0, upperBound);
+			return;
+		case 13:// CONST
+			constant(out, upperBound);
+			return;
+		case 14:// ABS
+			abs(in1, out, upperBound);
+			return;
+		case 15:// MIN
+			min(in1, in2, out, upperBound);
+			return;
+		case 16:// MAX
+			max(in1, in2, out, upperBound);
+			return;
+		case 20:// RECIPRICAL
+			reciprocal(in1, out, upperBound);
+			return;
+		case 21:// RSQRT
+			rsqrt(in1, out, upperBound);
+			return;
+		default:
+			throw new IllegalArgumentException("Function " + functionNr + " is not known");
+		}
+	}
+
+	private static void add(double[] in1, double[] in2, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			load(in1, i).add(load(in2, i)).intoArray(out, i);
+	}
+
+	private static void sub(double[] in1, double[] in2, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			load(in1, i).sub(load(in2, i)).intoArray(out, i);
+	}
+
+	private static void mult(double[] in1, double[] in2, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			load(in1, i).mul(load(in2, i)).intoArray(out, i);
+	}
+
+	private static void divide(double[] in1, double[] in2, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length()) {
+			DoubleVector b = load(in2, i);
+			// 0 if in2 == 0 (also -0.0, but not NaN)
+			load(in1, i).div(b).blend(0.0, b.eq(0.0)).intoArray(out, i);
+		}
+	}
+
+	private static void addConst(double[] in1, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			load(in1, i).add(1.0).intoArray(out, i);
+	}
+
+	private static void subConst(double[] in1, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			load(in1, i).sub(1.0).intoArray(out, i);
+	}
+
+	/**
+	 * in1 / 2 is exactly in1 * 0.5 (power of two)
+	 */
+	private static void divConst(double[] in1, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			load(in1, i).mul(0.5).intoArray(out, i);
+	}
+
+	private static void sqrt(double[] in1, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			load(in1, i).lanewise(VectorOperators.SQRT).intoArray(out, i);
+	}
+
+	/**
+	 * Math.pow(in1, 2) is in1 * in1, NaN is replaced by 1
+	 */
+	private static void square(double[] in1, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length()) {
+			DoubleVector a = load(in1, i);
+			DoubleVector square = a.mul(a);
+			square.blend(1.0, square.test(VectorOperators.IS_NAN)).intoArray(out, i);
+		}
+	}
+
+	private static void constant(double[] out, int upperBound) {
+		DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			one.intoArray(out, i);
+	}
+
+	private static void abs(double[] in1, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			load(in1, i).lanewise(VectorOperators.ABS).intoArray(out, i);
+	}
+
+	private static void min(double[] in1, double[] in2, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			load(in1, i).lanewise(VectorOperators.MIN, load(in2, i)).intoArray(out, i);
+	}
+
+	private static void max(double[] in1, double[] in2, double[] out, int upperBound) {
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			load(in1, i).lanewise(VectorOperators.MAX, load(in2, i)).intoArray(out, i);
+	}
+
+	private static void reciprocal(double[] in1, double[] out, int upperBound) {
+		DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			one.div(load(in1, i)).intoArray(out, i);
+	}
+
+	private static void rsqrt(double[] in1, double[] out, int upperBound) {
+		DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+		for (int i = 0; i < upperBound; i += SPECIES.length())
+			one.div(load(in1, i).lanewise(VectorOperators.SQRT)).intoArray(out, i);
+	}
+
+	private static DoubleVector load(double[] values, int offset) {
+		return DoubleVector.fromArray(SPECIES, values, offset);
+	}
+}
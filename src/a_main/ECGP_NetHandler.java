@@ -3,7 +3,8 @@ package a_main;
 import java.util.ArrayList;
 import cartesianNetwork.Evolution;
 import cartesianNetwork.Individual;
-import helperClasses.InputWithClassification;
+import cartesianNetwork.NodeSet;
+import helperClasses.DataSet;
 import savingAndInformation.SaveAndLoadIndividuals;
 import savingAndInformation.StatisticsCalculator;
 
@@ -36,7 +37,7 @@ public class ECGP_NetHandler {
 	int maxAllowedSecondsForMutation;
 	boolean solutionFound;
 
-	ArrayList<InputWithClassification> inputs;
+	DataSet inputs;
 
 	/**
 	 * The Constructor with all needed Attributes
@@ -45,7 +46,7 @@ public class ECGP_NetHandler {
 	 * @param maxAllowedSecondsForMutation The maximum Time a Mutation is allowed to last (unrelevant if Mutation doesn't use Threading) - 
 	 * 			Mutation-Threading is turned off by default and can be turned on in the Evolution-Class
 	 * @param diffCalc If the Nodes of the Individual should be compared during Fitness-Evaluation (recommended to be turned off)
-	 * @param inputs The List of Inputs with which the Fitness can be calculated
+	 * @param inputs The data set with which the Fitness can be calculated
 	 * @param nodeAmount The Amount of Nodes an Individual is initialized with
 	 * @param outputAmount The Number of Outputs an Individual possesses
 	 * @param functionSet The function-Set that should be used
@@ -61,7 +62,7 @@ public class ECGP_NetHandler {
 	 * @param addInput_probability The Probability to add an Input
 	 * @param addOutput_probability The Probability to add an Output
 	 */
-	public ECGP_NetHandler(String path, boolean print,int maxAllowedSecondsForMutation,boolean diffCalc, ArrayList<InputWithClassification> inputs, int nodeAmount,
+	public ECGP_NetHandler(String path, boolean print,int maxAllowedSecondsForMutation,boolean diffCalc, DataSet inputs, int nodeAmount,
 			int outputAmount, int functionSet, int maxModuleSize,int maxAllowedModules, int generationLimit, double mutation_rate,int levelsBack, int mu,
 			int lambda, double compress_probability, double modulePointMutation_probability,
 			double addInput_probability, double addOutput_probability) {
@@ -72,7 +73,7 @@ public class ECGP_NetHandler {
 		this.inputs = inputs;
 
 		this.nodeAmount = nodeAmount;
-		this.inputAmount = inputs.get(0).getInput().length;
+		this.inputAmount = inputs.getInputAmount();
 		this.outputAmount = outputAmount;
 		this.functionSet = functionSet;
 		this.maxModuleSize = maxModuleSize;
@@ -134,13 +135,7 @@ public class ECGP_NetHandler {
 				fitness.add(ind.getFitness());
 
 				// sum over used Nodes
-				boolean[] uN = ind.getUsedNodes();
-				int sum = 0;
-				for (int i = 0; i < uN.length; i++) {
-					if (uN[i]) {
-						sum++;
-					}
-				}
+				int sum = NodeSet.size(ind.getUsedNodes());
 				toPrint += ind.getFitness() + "     UsedNodes:" + sum + "\n";
 			}
 
@@ -1,10 +1,7 @@
 package a_main;
 
-import java.util.ArrayList;
-
-import helperClasses.Digit;
-import helperClasses.InputWithClassification;
-import savingAndInformation.CSVReader;
+import helperClasses.DataSet;
+import savingAndInformation.DataSetCache;
 
 public class MainECGP {
 
@@ -49,14 +46,10 @@ public class MainECGP {
 	
 	public static void runECGP() throws Exception{
 		System.out.println("Reading from" + pathMNIST);
-		ArrayList<InputWithClassification> inputs = CSVReader.getLearnSet(pathMNIST);
-		
 		int treshold = 50;
 		
-		for(InputWithClassification input : inputs){
-			((Digit)input).makeSmaller();
-			((Digit)input).makeBinary(treshold);
-		}
+		// the preprocessed pictures are cached in a binary file after the first run
+		DataSet inputs = DataSetCache.getLearnSet(pathMNIST, 1, treshold);
 		
 		double time = System.currentTimeMillis();
 
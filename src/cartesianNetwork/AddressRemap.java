@@ -0,0 +1,16 @@
+package cartesianNetwork;
+
+/**
+ * Tells where an input gene (or output gene) takes its data from
+ * after the Nodes it referenced have been replaced (see Individual.replaceNodes)
+ */
+public interface AddressRemap {
+
+	/**
+	 * is called once for every gene that referenced a replaced Node (in the order of the genotype)
+	 * @param address The old node address the gene referenced
+	 * @param output The old node output the gene referenced
+	 * @return {new node address, new node output} the gene should reference
+	 */
+	int[] remap(int address, int output);
+}
@@ -1,13 +1,19 @@
 package cartesianNetwork;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import evaluation.Evaluation;
-import helperClasses.InputWithClassification;
+import evaluation.FitnessCache;
+import evaluation.InputColumns;
+import evaluation.SampleSchedule;
+import helperClasses.DataSet;
 import mutators.CallableMutator;
 
 /**
@@ -19,6 +25,12 @@ public class Evolution {
 
 	static boolean useMutationThreading = false;
 
+	// if the Individuals that are not selected should be reused for the next offspring
+	static boolean useIndividualPool = true;
+
+	// maximal estimated memory of the FitnessCache (in bytes)
+	static long fitnessCacheMemory = 64L * 1024 * 1024;
+
 	boolean print;
 	boolean differentCalc;
 	int nodeAmount;
@@ -39,7 +51,24 @@ public class Evolution {
 	int maxAllowedSecondsForMutation;
 	boolean solutionFound;
 
-	ArrayList<InputWithClassification> inputs;
+	DataSet inputs;
+	// the inputs stored in columns (created when first needed)
+	InputColumns inputColumns;
+	// the Fitness of already evaluated phenotypes (created when first needed)
+	FitnessCache fitnessCache;
+	// the order in which the inputs are calculated (created when first needed)
+	SampleSchedule sampleSchedule;
+
+	// the Individuals that have not been selected, the next offspring are copied into them (emptied for every run)
+	ArrayList<Individual> pool = new ArrayList<>();
+	// false if Individuals could still be changed by a mutation Thread, so that they must not be reused
+	boolean recycleIndividuals;
+	// number of offspring that have been copied into an Individual of the pool
+	long poolHits;
+	// number of offspring that have been created because the pool was empty
+	long poolMisses;
+	// the maximal number of Individuals that have been in the pool at the same time
+	int maxPoolSize;
 	
 	/**
 	 * The Constructor with all needed Attributes
@@ -47,7 +76,7 @@ public class Evolution {
 	 * @param maxAllowedSecondsForMutation The maximum Time a Mutation is allowed to last (unrelevant if Mutation doesn't use Threading) - 
 	 * 			Mutation-Threading is turned off by default and can be turned on in the Evolution-Class
 	 * @param differentCalc If the Nodes of the Individual should be compared during Fitness-Evaluation (recommended to be turned off)
-	 * @param inputs The List of Inputs with which the Fitness can be calculated
+	 * @param inputs The data set with which the Fitness can be calculated
 	 * @param nodeAmount The Amount of Nodes an Individual is initialized with
 	 * @param outputAmount The Number of Outputs an Individual possesses
 	 * @param functionSet The function-Set that should be used
@@ -62,7 +91,7 @@ public class Evolution {
 	 * @param addOutput_probability The Probability to add an Output
 	 */
 	public Evolution(boolean print, int maxAllowedSecondsForMutation, boolean differentCalc,
-			ArrayList<InputWithClassification> inputs, int nodeAmount, int outputAmount, int functionSet,
+			DataSet inputs, int nodeAmount, int outputAmount, int functionSet,
 			int maxModuleSize, int maxAllowedModules, int generationLimit, double mutation_rate, int levelsBack,
 			double compress_probability, double modulePointMutation_probability, double addInput_probability,
 			double addOutput_probability) {
@@ -72,7 +101,7 @@ public class Evolution {
 		this.inputs = inputs;
 
 		this.nodeAmount = nodeAmount;
-		this.inputAmount = inputs.get(0).getInput().length;
+		this.inputAmount = inputs.getInputAmount();
 		this.outputAmount = outputAmount;
 		this.functionSet = functionSet;
 		this.maxModuleSize = maxModuleSize;
@@ -97,10 +126,18 @@ public class Evolution {
 	 * @throws Exception if something unexpected happens
 	 */
 	public ArrayList<Individual> EvolutionAlgorithm(int mu, int lambda) throws Exception {
+		pool.clear();
+		recycleIndividuals = useIndividualPool;
+		poolHits = 0;
+		poolMisses = 0;
+		maxPoolSize = 0;
 		if (print)
 			System.out.println("GENERATION: 0");
 		ArrayList<Individual> individuals = getXRandomIndiv(mu + lambda);
+		// the selection removes Individuals from the list
+		ArrayList<Individual> population = new ArrayList<>(individuals);
 		ArrayList<Individual> parents = getXFittestIndivs(mu, individuals, null);
+		recycle(population, parents);
 		int gens = 1;
 		while (!solutionFound && gens <= generationLimit) {
 			if (print)
@@ -109,11 +146,17 @@ public class Evolution {
 			individuals = new ArrayList<>();
 			// Generate Lambda offsprings
 			individuals = mutation(lambda, parents);
+			population = new ArrayList<>(individuals);
 			// Population now contains parents + offsprings
 			parents = getXFittestIndivs(mu, individuals, parents);
 			// Only the fittest survive
+			recycle(population, parents);
 			gens++;
 		}
+		if (print)
+			System.out.println("Individual pool: " + poolHits + " hits, " + poolMisses + " misses, max size "
+					+ maxPoolSize);
+		pool.clear();
 		return parents;
 	}
 
@@ -132,6 +175,60 @@ public class Evolution {
 		return individuals;
 	}
 
+	/**
+	 * puts the Individuals of the Population that have not been selected into the pool
+	 * (they are not used anymore, since the Fitness of their offspring has already been calculated)
+	 * @param population The Population the Parents have been selected from
+	 * @param selected The selected Parents
+	 */
+	private void recycle(ArrayList<Individual> population, ArrayList<Individual> selected) {
+		if (!recycleIndividuals) {
+			return;
+		}
+		// the same Individual can be selected more than once, so it can also be in the Population more than once
+		Set<Individual> notRecycled = Collections.newSetFromMap(new IdentityHashMap<Individual, Boolean>());
+		notRecycled.addAll(selected);
+		for (Individual indiv : population) {
+			if (notRecycled.add(indiv)) {
+				pool.add(indiv);
+			}
+		}
+		maxPoolSize = Math.max(maxPoolSize, pool.size());
+	}
+
+	/**
+	 * @return An Individual of the pool that can be overwritten (null if the pool is empty)
+	 */
+	private Individual takeFromPool() {
+		if (pool.isEmpty()) {
+			poolMisses++;
+			return null;
+		}
+		poolHits++;
+		return pool.remove(pool.size() - 1);
+	}
+
+	/**
+	 * @return The number of offspring of the last run that have been copied into a recycled Individual
+	 */
+	public long getPoolHits() {
+		return poolHits;
+	}
+
+	/**
+	 * @return The number of offspring of the last run that have been created because the pool was empty
+	 */
+	public long getPoolMisses() {
+		return poolMisses;
+	}
+
+	/**
+	 * @return The maximal number of Individuals that have been in the pool at the same time during the last run
+	 */
+	public int getMaxPoolSize() {
+		return maxPoolSize;
+	}
+
 	/**
 	 * Calculates Fitness of the given Individuals
 	 * To determine the best Individuals
@@ -146,6 +243,36 @@ public class Evolution {
 		return Evaluation.getXFittestIndividuals(this, mu, print, indivs, inputs, parents, differentCalc);
 	}
 
+	/**
+	 * @return The Inputs of the Evolution stored in columns
+	 */
+	public InputColumns getInputColumns() {
+		if (inputColumns == null) {
+			inputColumns = new InputColumns(inputs);
+		}
+		return inputColumns;
+	}
+
+	/**
+	 * @return The order in which the Inputs of this Evolution are calculated
+	 */
+	public SampleSchedule getSampleSchedule() {
+		if (sampleSchedule == null) {
+			sampleSchedule = new SampleSchedule(getInputColumns());
+		}
+		return sampleSchedule;
+	}
+
+	/**
+	 * @return The cache for the Fitness of already evaluated phenotypes of this Evolution
+	 */
+	public FitnessCache getFitnessCache() {
+		if (fitnessCache == null) {
+			fitnessCache = new FitnessCache(fitnessCacheMemory);
+		}
+		return fitnessCache;
+	}
+
 	/**
 	 * Use this if a perfect Individual was found
 	 * so that the Evolution-Algorithm stops
@@ -175,7 +302,7 @@ public class Evolution {
 			// get random parent
 			int randomParent = ThreadLocalRandom.current().nextInt(0, parents.size());
 			Individual parent = parents.get(randomParent);
-			offsprings.add(parent.copy());
+			offsprings.add(parent.copy(takeFromPool()));
 		}	
 		
 		// mutate these offsprings
@@ -214,7 +341,11 @@ public class Evolution {
 
 		// close all threads (or else they dont stop)
 		executor.shutdown();
-		executor.awaitTermination(maxAllowedSecondsForMutation, TimeUnit.SECONDS);
+		if (!executor.awaitTermination(maxAllowedSecondsForMutation, TimeUnit.SECONDS)) {
+			// a Thread could still change the Individuals
+			recycleIndividuals = false;
+			pool.clear();
+		}
 		return toMutate;
 	}
 
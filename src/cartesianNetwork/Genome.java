@@ -0,0 +1,929 @@
+package cartesianNetwork;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The Nodes of an Individual or a Module stored in parallel primitive arrays
+ * (instead of one NodeECGP with an int[] and an ArrayList of int[] per Node)
+ *
+ * The Nodes are split into Chunks of CHUNK_SIZE Nodes, Node n is Node n % CHUNK_SIZE of Chunk n / CHUNK_SIZE.
+ * Node l of a Chunk consists of:
+ * the function gene: function[l] (function or module identifier) and nodeType[l] (see NodeECGP)
+ * the input genes: input j of node l is stored at position inputStart[l] + j
+ * of inputAddress (node address the input is taken from)
+ * and inputOutput (node output the input is taken from)
+ * the inputs of node l end at inputStart[l+1]
+ *
+ * The number of genes of every Chunk is indexed in a Fenwick tree, so that the Node of a gene
+ * can be found in logarithmic time (see getNodeOfGene).
+ *
+ * Every Node also has a reference count: the number of outputs and inputs of used Nodes that reference it.
+ * A Node is used if it is referenced. The Individual or Module the Genome belongs to gives the references
+ * of its outputs and of changed inputs to addReference and removeReference, so that the used Nodes
+ * are always known without walking through the whole Genome.
+ * Since a Chunk contains 64 Nodes, the used Nodes of a Chunk are stored as one long word as well
+ * (see getUsedNodes and NodeSet).
+ *
+ * copy() does not copy the Chunks, the copy and the original share them (copy-on-write):
+ * a shared Chunk is never changed again, the first change of a Genome to a shared Chunk
+ * replaces it with a copy that only belongs to this Genome.
+ * So copying an Individual and mutating some genes only copies the Chunks of the mutated Nodes.
+ * (copy() has to be called before the Genomes are given to different Threads)
+ */
+public class Genome implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	// Nodes per Chunk (has to be a power of 2)
+	static final int CHUNK_SHIFT = 6;
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	// number of Nodes
+	private int size;
+	// number of input genes of all Nodes
+	private int inputGenes;
+	// the Chunks (free space at the end, so that Nodes can be added without creating new arrays every time)
+	private Chunk[] chunks;
+
+	// Fenwick tree of the number of genes (function gene and input genes) of every Chunk
+	// (not saved, built again when the Genome is read)
+	private transient int[] geneTree;
+
+	// dirty-tracking for the incremental Fitness-Calculation (not saved, not shared):
+	// position of every Node in the Individual it was copied from (null if no Node has been copied)
+	private transient int[] originPosition;
+	// if a gene of the Node has been changed since it was copied (null if no Node has been changed)
+	private transient boolean[] changed;
+
+	/**
+	 * Creates a Genome without Nodes
+	 * @param nodeCapacity The number of Nodes that can be added without creating new arrays
+	 */
+	public Genome(int nodeCapacity) {
+		chunks = new Chunk[Math.max((nodeCapacity + CHUNK_MASK) >>> CHUNK_SHIFT, 1)];
+		geneTree = new int[chunks.length + 1];
+	}
+
+	/**
+	 * Creates a Genome with the given Nodes
+	 * @param nodes The Nodes (the Nodes are copied)
+	 * @return The Genome
+	 */
+	public static Genome fromNodes(List<NodeECGP> nodes) {
+		Genome genome = new Genome(nodes.size());
+		for (NodeECGP node : nodes) {
+			int n = genome.addNode(node.getFunctionNr(), node.getNodeType());
+			for (int[] input : node.getInput()) {
+				genome.addInput(n, input[0], input[1]);
+			}
+		}
+		return genome;
+	}
+
+	/**
+	 * Copies the Genome (without the dirty-tracking)
+	 * the Chunks are shared until one of the Genomes changes them
+	 * @return an identical Copy of the Genome
+	 */
+	public Genome copy() {
+		return copy(null);
+	}
+
+	/**
+	 * Copies the Genome into a Genome that is not used anymore (without the dirty-tracking)
+	 * the arrays of the recycled Genome are reused if they have the same length
+	 * @param recycled The Genome that is overwritten (null if a new Genome should be created)
+	 * @return an identical Copy of the Genome
+	 */
+	public Genome copy(Genome recycled) {
+		Genome genome = recycled;
+		if (genome == null || genome == this) {
+			genome = new Genome(0);
+		}
+		if (genome.chunks.length == chunks.length) {
+			System.arraycopy(chunks, 0, genome.chunks, 0, chunks.length);
+		} else {
+			genome.chunks = chunks.clone();
+		}
+		if (genome.geneTree.length == geneTree.length) {
+			System.arraycopy(geneTree, 0, genome.geneTree, 0, geneTree.length);
+		} else {
+			genome.geneTree = geneTree.clone();
+		}
+		genome.originPosition = null;
+		genome.changed = null;
+		for (Chunk chunk : chunks) {
+			if (chunk != null) {
+				chunk.shared = true;
+			}
+		}
+		genome.size = size;
+		genome.inputGenes = inputGenes;
+		return genome;
+	}
+
+	/**
+	 * Copies some Nodes of the Genome (without the dirty-tracking)
+	 * @param from The first Node that is copied
+	 * @param to The Node after the last Node that is copied
+	 * @return A Genome with a copy of the Nodes [from, to)
+	 */
+	public Genome copyNodes(int from, int to) {
+		Genome genome = new Genome(to - from);
+		genome.appendNodes(this, from, to);
+		return genome;
+	}
+
+	/**
+	 * @return The number of Nodes
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The number of input genes of all Nodes
+	 */
+	public int getNrOfInputGenes() {
+		return inputGenes;
+	}
+
+	/**
+	 * searches the Node a gene belongs to
+	 * (the genes are numbered like in the genotype: every Node has its function gene followed by its input genes)
+	 * finds the Chunk in the Fenwick tree, so only the Nodes of one Chunk have to be checked
+	 * @param gene The number of the gene (0 to size()+getNrOfInputGenes()-1)
+	 * @return The position of the Node that contains the gene
+	 */
+	public int getNodeOfGene(int gene) {
+		if (gene < 0 || gene >= size + inputGenes) {
+			throw new IllegalArgumentException("the gene does not belong to a Node");
+		}
+		// largest number of Chunks whose genes are all before the gene
+		int c = 0;
+		for (int step = Integer.highestOneBit(geneTree.length - 1); step > 0; step >>>= 1) {
+			if (c + step < geneTree.length && geneTree[c + step] <= gene) {
+				c += step;
+				gene -= geneTree[c];
+			}
+		}
+		Chunk chunk = chunks[c];
+		for (int l = 0; l < chunk.size; l++) {
+			gene -= 1 + chunk.getNrOfInputs(l);
+			if (gene < 0) {
+				return (c << CHUNK_SHIFT) + l;
+			}
+		}
+		throw new IllegalStateException("the gene index of the Genome is wrong");
+	}
+
+	/**
+	 * @return The number of the function gene of the Node (see getNodeOfGene)
+	 */
+	public int getFirstGeneOfNode(int node) {
+		int gene = 0;
+		for (int i = node >>> CHUNK_SHIFT; i > 0; i -= i & -i) {
+			gene += geneTree[i];
+		}
+		int local = node & CHUNK_MASK;
+		return gene + local + chunks[node >>> CHUNK_SHIFT].inputStart[local];
+	}
+
+	public int getFunctionNr(int node) {
+		return chunks[node >>> CHUNK_SHIFT].function[node & CHUNK_MASK];
+	}
+
+	public void setFunctionNr(int node, int functionNr) {
+		writableChunk(node).function[node & CHUNK_MASK] = functionNr;
+	}
+
+	public int getNodeType(int node) {
+		return chunks[node >>> CHUNK_SHIFT].nodeType[node & CHUNK_MASK];
+	}
+
+	public void setNodeType(int node, int type) {
+		writableChunk(node).nodeType[node & CHUNK_MASK] = type;
+	}
+
+	public int getNrOfInputs(int node) {
+		return chunks[node >>> CHUNK_SHIFT].getNrOfInputs(node & CHUNK_MASK);
+	}
+
+	/**
+	 * @return The node address input Nr input of the Node is taken from
+	 */
+	public int getInputAddress(int node, int input) {
+		Chunk chunk = chunks[node >>> CHUNK_SHIFT];
+		return chunk.inputAddress[chunk.inputStart[node & CHUNK_MASK] + input];
+	}
+
+	/**
+	 * @return The node output input Nr input of the Node is taken from
+	 */
+	public int getInputOutput(int node, int input) {
+		Chunk chunk = chunks[node >>> CHUNK_SHIFT];
+		return chunk.inputOutput[chunk.inputStart[node & CHUNK_MASK] + input];
+	}
+
+	public void setInputAddress(int node, int input, int address) {
+		Chunk chunk = writableChunk(node);
+		chunk.inputAddress[chunk.inputStart[node & CHUNK_MASK] + input] = address;
+	}
+
+	public void setInputOutput(int node, int input, int output) {
+		Chunk chunk = writableChunk(node);
+		chunk.inputOutput[chunk.inputStart[node & CHUNK_MASK] + input] = output;
+	}
+
+	/**
+	 * changes one input gene of the Node
+	 * @param node The position of the Node
+	 * @param input The number of the input of the Node
+	 * @param address The node address the input is taken from
+	 * @param output The node output the input is taken from
+	 */
+	public void setInput(int node, int input, int address, int output) {
+		Chunk chunk = writableChunk(node);
+		int position = chunk.inputStart[node & CHUNK_MASK] + input;
+		chunk.inputAddress[position] = address;
+		chunk.inputOutput[position] = output;
+	}
+
+	/**
+	 * adds a Node without inputs at the end
+	 * @param functionNr The function (or module identifier) of the Node
+	 * @param type The node type of the Node
+	 * @return The position of the new Node
+	 */
+	public int addNode(int functionNr, int type) {
+		int c = size >>> CHUNK_SHIFT;
+		Chunk chunk;
+		if ((size & CHUNK_MASK) == 0) {
+			ensureChunkCapacity(c + 1);
+			chunk = new Chunk();
+			chunks[c] = chunk;
+		} else {
+			chunk = writableChunk(size);
+		}
+		chunk.addNode(functionNr, type);
+		addGenes(c, 1);
+		if (originPosition != null) {
+			originPosition[size] = -1;
+		}
+		if (changed != null) {
+			changed[size] = false;
+		}
+		size++;
+		return size - 1;
+	}
+
+	/**
+	 * adds an input gene at the end of the inputs of the Node
+	 * @param node The position of the Node
+	 * @param address The node address the input is taken from
+	 * @param output The node output the input is taken from
+	 */
+	public void addInput(int node, int address, int output) {
+		Chunk chunk = writableChunk(node);
+		int local = node & CHUNK_MASK;
+		int position = chunk.inputStart[local + 1];
+		chunk.openInputs(local, position, 1);
+		chunk.inputAddress[position] = address;
+		chunk.inputOutput[position] = output;
+		inputGenes++;
+		addGenes(node >>> CHUNK_SHIFT, 1);
+	}
+
+	/**
+	 * removes an input gene of the Node (the later inputs are shifted to the left)
+	 * @param node The position of the Node
+	 * @param input The number of the input that is removed
+	 */
+	public void removeInput(int node, int input) {
+		Chunk chunk = writableChunk(node);
+		int local = node & CHUNK_MASK;
+		chunk.closeInputs(local, chunk.inputStart[local] + input, 1);
+		inputGenes--;
+		addGenes(node >>> CHUNK_SHIFT, -1);
+	}
+
+	/**
+	 * removes the last inputs of the Node or adds inputs (address 0, output 0) at the end
+	 * @param node The position of the Node
+	 * @param nrOfInputs The new number of inputs of the Node
+	 */
+	public void setNrOfInputs(int node, int nrOfInputs) {
+		int difference = nrOfInputs - getNrOfInputs(node);
+		if (difference == 0) {
+			return;
+		}
+		Chunk chunk = writableChunk(node);
+		int local = node & CHUNK_MASK;
+		int end = chunk.inputStart[local + 1];
+		if (difference > 0) {
+			chunk.openInputs(local, end, difference);
+			Arrays.fill(chunk.inputAddress, end, end + difference, 0);
+			Arrays.fill(chunk.inputOutput, end, end + difference, 0);
+		} else {
+			chunk.closeInputs(local, end + difference, -difference);
+		}
+		inputGenes += difference;
+		addGenes(node >>> CHUNK_SHIFT, difference);
+	}
+
+	/**
+	 * @return if the Node is used (if an output or an input of a used Node references it)
+	 */
+	public boolean isUsed(int node) {
+		return (chunks[node >>> CHUNK_SHIFT].usedBits & (1L << node)) != 0;
+	}
+
+	/**
+	 * @return The used Nodes as bits (see NodeSet), one word per Chunk
+	 */
+	public long[] getUsedNodes() {
+		long[] used = new long[(size + CHUNK_MASK) >>> CHUNK_SHIFT];
+		for (int c = 0; c < used.length; c++) {
+			used[c] = chunks[c].usedBits;
+		}
+		return used;
+	}
+
+	/**
+	 * adds a reference to the Node (of an output or of an input of a used Node)
+	 * if the Node has not been used before, its inputs reference the Nodes they are taken from as well
+	 * @param node The position of the referenced Node
+	 * @param firstAddress The node address of the first Node (lower addresses are inputs)
+	 */
+	public void addReference(int node, int firstAddress) {
+		changeReferences(node, firstAddress, 1);
+	}
+
+	/**
+	 * removes a reference to the Node (of an output or of an input of a used Node)
+	 * if the Node is not used anymore, its inputs don't reference the Nodes they are taken from anymore
+	 * @param node The position of the referenced Node
+	 * @param firstAddress The node address of the first Node (lower addresses are inputs)
+	 */
+	public void removeReference(int node, int firstAddress) {
+		changeReferences(node, firstAddress, -1);
+	}
+
+	/**
+	 * counts the references of all Nodes again (after Nodes have been moved or the Genome has been read)
+	 * walks through the Genome once from the last Node to the first one,
+	 * only the Chunks whose counts change are copied
+	 * @param rootAddresses The addresses the outputs are taken from
+	 * @param firstAddress The node address of the first Node (lower addresses are inputs)
+	 */
+	public void countReferences(int[] rootAddresses, int firstAddress) {
+		int[] references = new int[size];
+		for (int address : rootAddresses) {
+			if (address >= firstAddress) {
+				references[address - firstAddress]++;
+			}
+		}
+		for (int n = size - 1; n >= 0; n--) {
+			if (references[n] > 0) {
+				Chunk chunk = chunks[n >>> CHUNK_SHIFT];
+				int local = n & CHUNK_MASK;
+				for (int i = chunk.inputStart[local]; i < chunk.inputStart[local + 1]; i++) {
+					if (chunk.inputAddress[i] >= firstAddress) {
+						references[chunk.inputAddress[i] - firstAddress]++;
+					}
+				}
+			}
+		}
+		for (int n = 0; n < size; n++) {
+			int[] oldReferences = chunks[n >>> CHUNK_SHIFT].references;
+			int old = oldReferences == null ? 0 : oldReferences[n & CHUNK_MASK];
+			if (old != references[n]) {
+				Chunk chunk = writableChunk(n);
+				chunk.getReferences()[n & CHUNK_MASK] = references[n];
+				chunk.usedBits = references[n] > 0 ? chunk.usedBits | (1L << n) : chunk.usedBits & ~(1L << n);
+			}
+		}
+	}
+
+	/**
+	 * replaces Nodes with a copy of all Nodes of the other Genome (as new Nodes without origin and references)
+	 * and updates the addresses of the input genes of the later Nodes afterwards:
+	 * inputs that referenced a replaced Node are given to the remap (and the Node is marked as changed),
+	 * inputs that referenced a Node behind the replaced Nodes are shifted
+	 * (the Nodes behind are moved within the Chunks and keep their reference counts,
+	 * only the Chunks whose Nodes change are rebuilt, the Chunks before them stay shared)
+	 * the remapped inputs of used Nodes reference their new Nodes, the references of the output genes
+	 * and of the replaced Nodes are left to the caller (see Individual.replaceNodes)
+	 * @param position The position of the first replaced Node
+	 * @param count The number of replaced Nodes
+	 * @param nodes The Nodes that are inserted instead
+	 * @param firstAddress The node address of the first replaced Node
+	 * @param remap Gives the new address and output for inputs that referenced a replaced Node
+	 */
+	public void replaceNodes(int position, int count, Genome nodes, int firstAddress, AddressRemap remap) {
+		int oldSize = size;
+		int inserted = nodes.size;
+		int endAddress = firstAddress + count;
+		int shift = inserted - count;
+		int newSize = oldSize + shift;
+		if (count == 0 && inserted == 0) {
+			return;
+		}
+		for (int n = position; n < position + count; n++) {
+			inputGenes -= getNrOfInputs(n);
+		}
+		inputGenes += nodes.inputGenes;
+		int oldChunks = (oldSize + CHUNK_MASK) >>> CHUNK_SHIFT;
+		int newChunks = (newSize + CHUNK_MASK) >>> CHUNK_SHIFT;
+		ensureChunkCapacity(newChunks);
+		if (originPosition != null) {
+			System.arraycopy(originPosition, position + count, originPosition, position + inserted,
+					oldSize - position - count);
+			Arrays.fill(originPosition, position, position + inserted, -1);
+		}
+		if (changed != null) {
+			System.arraycopy(changed, position + count, changed, position + inserted, oldSize - position - count);
+			Arrays.fill(changed, position, position + inserted, false);
+		}
+
+		// rebuild the Chunks whose Nodes change in ascending order (all Chunks from the first replaced Node on
+		// if the Nodes behind are shifted, otherwise only the Chunks of the inserted Nodes),
+		// an old Chunk is reused for the next Chunk as soon as all its Nodes have been moved
+		// (Chunks that are shared with another Genome are left to it)
+		int lastChunk = shift != 0 ? newChunks : (position + inserted + CHUNK_MASK) >>> CHUNK_SHIFT;
+		// the old Chunks that have already been replaced, but whose Nodes are moved to later Chunks
+		// (only if the Nodes are shifted to the right)
+		Chunk[] replaced = new Chunk[(Math.max(shift, 0) >>> CHUNK_SHIFT) + 2];
+		Chunk spare = null;
+		for (int c = position >>> CHUNK_SHIFT; c < lastChunk; c++) {
+			Chunk chunk = spare != null ? spare : new Chunk();
+			spare = null;
+			chunk.clear();
+			int end = Math.min(newSize, (c + 1) << CHUNK_SHIFT);
+			for (int n = c << CHUNK_SHIFT; n < end; n++) {
+				if (n < position) {
+					chunk.appendNode(chunks[c], n & CHUNK_MASK, true);
+				} else if (n < position + inserted) {
+					// the inserted Nodes are new Nodes without references
+					chunk.appendNode(nodes.chunks[(n - position) >>> CHUNK_SHIFT], (n - position) & CHUNK_MASK,
+							false);
+				} else {
+					int old = n - shift;
+					int k = old >>> CHUNK_SHIFT;
+					chunk.appendNode(k >= c ? chunks[k] : replaced[k % replaced.length], old & CHUNK_MASK, true);
+				}
+			}
+			Chunk old = chunks[c];
+			addGenes(c, chunk.getNrOfGenes() - (old == null ? 0 : old.getNrOfGenes()));
+			chunks[c] = chunk;
+			if (old != null && shift > 0) {
+				// the Chunk that was replaced replaced.length Chunks ago is not needed anymore
+				Chunk free = replaced[c % replaced.length];
+				replaced[c % replaced.length] = old;
+				old = free;
+			}
+			if (old != null && !old.shared) {
+				spare = old;
+			}
+		}
+		for (int c = newChunks; c < oldChunks; c++) {
+			addGenes(c, -chunks[c].getNrOfGenes());
+			chunks[c] = null;
+		}
+		size = newSize;
+
+		// shift and remap the inputs of the Nodes behind the inserted Nodes (in the order of the genotype)
+		// (if the Nodes have been shifted, their Chunks have just been rebuilt, so they are not shared)
+		// the remapped inputs of used Nodes are referenced afterwards, so that no Chunk is copied during the pass
+		int nodeAddress = firstAddress - position;
+		int[] referenced = new int[4];
+		int nrOfReferenced = 0;
+		for (int n = position + inserted; n < size; n++) {
+			Chunk chunk = chunks[n >>> CHUNK_SHIFT];
+			int local = n & CHUNK_MASK;
+			for (int i = chunk.inputStart[local]; i < chunk.inputStart[local + 1]; i++) {
+				int address = chunk.inputAddress[i];
+				if (address >= endAddress) {
+					if (shift != 0) {
+						chunk.inputAddress[i] = address + shift;
+					}
+				} else if (address >= firstAddress) {
+					chunk = writableChunk(n);
+					int[] newInput = remap.remap(address, chunk.inputOutput[i]);
+					chunk.inputAddress[i] = newInput[0];
+					chunk.inputOutput[i] = newInput[1];
+					markChanged(n);
+					if ((chunk.usedBits & (1L << local)) != 0 && newInput[0] >= nodeAddress) {
+						if (nrOfReferenced == referenced.length) {
+							referenced = Arrays.copyOf(referenced, nrOfReferenced * 2);
+						}
+						referenced[nrOfReferenced++] = newInput[0] - nodeAddress;
+					}
+				}
+			}
+		}
+		for (int r = 0; r < nrOfReferenced; r++) {
+			changeReferences(referenced[r], nodeAddress, 1);
+		}
+	}
+
+	/**
+	 * compares a Node of this Genome with a Node of another Genome
+	 * @return true if the Nodes contain the same Genes
+	 */
+	public boolean sameNode(int node, Genome other, int otherNode) {
+		int local = node & CHUNK_MASK;
+		Chunk chunk = chunks[node >>> CHUNK_SHIFT];
+		Chunk otherChunk = other.chunks[otherNode >>> CHUNK_SHIFT];
+		int otherLocal = otherNode & CHUNK_MASK;
+		if (chunk == otherChunk && local == otherLocal) {
+			// shared Chunks are never changed
+			return true;
+		}
+		if (chunk.function[local] != otherChunk.function[otherLocal]
+				|| chunk.nodeType[local] != otherChunk.nodeType[otherLocal]
+				|| chunk.getNrOfInputs(local) != otherChunk.getNrOfInputs(otherLocal)) {
+			return false;
+		}
+		int start = chunk.inputStart[local];
+		int otherStart = otherChunk.inputStart[otherLocal];
+		for (int j = 0; j < chunk.getNrOfInputs(local); j++) {
+			if (chunk.inputAddress[start + j] != otherChunk.inputAddress[otherStart + j]
+					|| chunk.inputOutput[start + j] != otherChunk.inputOutput[otherStart + j]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return The position of the Node in the Individual it was copied from (-1 if the Node is new)
+	 */
+	public int getOriginPosition(int node) {
+		return originPosition == null ? -1 : originPosition[node];
+	}
+
+	public void setOriginPosition(int node, int position) {
+		if (originPosition == null) {
+			originPosition = new int[getNodeCapacity()];
+			Arrays.fill(originPosition, -1);
+		}
+		originPosition[node] = position;
+	}
+
+	/**
+	 * remembers that every Node has been copied from the Node on the same position
+	 */
+	public void setOriginPositions() {
+		originPosition = new int[getNodeCapacity()];
+		for (int n = 0; n < size; n++) {
+			originPosition[n] = n;
+		}
+		changed = null;
+	}
+
+	/**
+	 * @return if a gene of the Node (or the Module it calls) has been changed since it was copied
+	 */
+	public boolean isChanged(int node) {
+		return changed != null && changed[node];
+	}
+
+	/**
+	 * marks that the Node calculates something different than the Node it was copied from
+	 * (has to be called by every mutation that changes the function or the inputs of the Node,
+	 * moving the Node to another position does not change it)
+	 */
+	public void markChanged(int node) {
+		if (changed == null) {
+			changed = new boolean[getNodeCapacity()];
+		}
+		changed[node] = true;
+	}
+
+	/**
+	 * forgets the Nodes the Nodes were copied from
+	 */
+	public void resetOrigin() {
+		originPosition = null;
+		changed = null;
+	}
+
+	/**
+	 * @return The Chunk of the Node (copied first if it is shared with another Genome)
+	 */
+	private Chunk writableChunk(int node) {
+		int c = node >>> CHUNK_SHIFT;
+		Chunk chunk = chunks[c];
+		if (chunk.shared) {
+			chunk = chunk.copy();
+			chunks[c] = chunk;
+		}
+		return chunk;
+	}
+
+	/**
+	 * changes the reference count of the Node
+	 * and the counts of the Nodes its inputs are taken from, if the Node starts or stops being used
+	 * (with a stack instead of recursion, since the Nodes can reference each other in long chains)
+	 */
+	private void changeReferences(int node, int firstAddress, int difference) {
+		int[] stack = new int[16];
+		int top = 0;
+		stack[top++] = node;
+		while (top > 0) {
+			int n = stack[--top];
+			Chunk chunk = writableChunk(n);
+			int local = n & CHUNK_MASK;
+			int references = chunk.getReferences()[local] += difference;
+			if (references < 0) {
+				throw new IllegalStateException("Node " + n + " has no reference that can be removed");
+			}
+			if (references == (difference > 0 ? 1 : 0)) {
+				// the Node has started or stopped being used
+				chunk.usedBits ^= 1L << local;
+				for (int i = chunk.inputStart[local]; i < chunk.inputStart[local + 1]; i++) {
+					if (chunk.inputAddress[i] >= firstAddress) {
+						if (top == stack.length) {
+							stack = Arrays.copyOf(stack, top * 2);
+						}
+						stack[top++] = chunk.inputAddress[i] - firstAddress;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * appends a copy of the Nodes [from, to) of the other Genome
+	 */
+	private void appendNodes(Genome source, int from, int to) {
+		for (int n = from; n < to; n++) {
+			Chunk sourceChunk = source.chunks[n >>> CHUNK_SHIFT];
+			int sourceLocal = n & CHUNK_MASK;
+			int node = addNode(sourceChunk.function[sourceLocal], sourceChunk.nodeType[sourceLocal]);
+			int inputs = sourceChunk.getNrOfInputs(sourceLocal);
+			Chunk chunk = chunks[node >>> CHUNK_SHIFT];
+			int local = node & CHUNK_MASK;
+			int position = chunk.inputStart[local];
+			chunk.openInputs(local, position, inputs);
+			System.arraycopy(sourceChunk.inputAddress, sourceChunk.inputStart[sourceLocal], chunk.inputAddress,
+					position, inputs);
+			System.arraycopy(sourceChunk.inputOutput, sourceChunk.inputStart[sourceLocal], chunk.inputOutput,
+					position, inputs);
+			inputGenes += inputs;
+			addGenes(node >>> CHUNK_SHIFT, inputs);
+		}
+	}
+
+	/**
+	 * changes the number of genes of the Chunk in the Fenwick tree
+	 */
+	private void addGenes(int chunk, int genes) {
+		for (int i = chunk + 1; i < geneTree.length; i += i & -i) {
+			geneTree[i] += genes;
+		}
+	}
+
+	/**
+	 * builds the Fenwick tree for all Chunks (in linear time)
+	 */
+	private void buildGeneTree() {
+		geneTree = new int[chunks.length + 1];
+		for (int c = 0; c < chunks.length; c++) {
+			if (chunks[c] != null) {
+				geneTree[c + 1] += chunks[c].size + chunks[c].inputStart[chunks[c].size];
+			}
+			int parent = c + 1 + ((c + 1) & -(c + 1));
+			if (parent < geneTree.length) {
+				geneTree[parent] += geneTree[c + 1];
+			}
+		}
+	}
+
+	private int getNodeCapacity() {
+		return chunks.length << CHUNK_SHIFT;
+	}
+
+	private void ensureChunkCapacity(int capacity) {
+		if (capacity <= chunks.length) {
+			return;
+		}
+		chunks = Arrays.copyOf(chunks, Math.max(capacity, chunks.length * 2));
+		buildGeneTree();
+		if (originPosition != null) {
+			originPosition = Arrays.copyOf(originPosition, getNodeCapacity());
+		}
+		if (changed != null) {
+			changed = Arrays.copyOf(changed, getNodeCapacity());
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (chunks == null || size < 0 || size > getNodeCapacity()) {
+			throw new InvalidObjectException("the size of the Genome doesn't fit to its Chunks");
+		}
+		int inputs = 0;
+		for (int c = 0; c << CHUNK_SHIFT < size; c++) {
+			int chunkSize = Math.min(size - (c << CHUNK_SHIFT), CHUNK_SIZE);
+			if (chunks[c] == null || !chunks[c].isValid(chunkSize)) {
+				throw new InvalidObjectException("Chunk " + c + " of the Genome is invalid");
+			}
+			inputs += chunks[c].inputStart[chunkSize];
+		}
+		if (inputs != inputGenes) {
+			throw new InvalidObjectException("the number of input genes of the Genome is wrong");
+		}
+		for (int c = (size + CHUNK_MASK) >>> CHUNK_SHIFT; c < chunks.length; c++) {
+			chunks[c] = null;
+		}
+		buildGeneTree();
+	}
+
+	public String toString() {
+		StringBuilder toReturn = new StringBuilder();
+		for (int n = 0; n < size; n++) {
+			toReturn.append("Node").append(n).append(": function ").append(getFunctionNr(n)).append(" type ")
+					.append(getNodeType(n)).append(" inputs");
+			for (int j = 0; j < getNrOfInputs(n); j++) {
+				toReturn.append(" [").append(getInputAddress(n, j)).append(',').append(getInputOutput(n, j))
+						.append(']');
+			}
+			toReturn.append('\n');
+		}
+		return toReturn.toString();
+	}
+
+	/**
+	 * up to CHUNK_SIZE Nodes of a Genome
+	 * (the arrays grow when Nodes or inputs are added)
+	 */
+	private static class Chunk implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		// number of Nodes in the Chunk
+		int size;
+		int[] function;
+		int[] nodeType;
+		// position of the first input of every Node (size+1 values are used)
+		int[] inputStart;
+		int[] inputAddress;
+		int[] inputOutput;
+		// the Chunk is used by more than one Genome and must not be changed anymore
+		// (saved as well, so that Genomes that are read from the same stream don't change each other)
+		boolean shared;
+		// reference count of every Node (not saved, null as long as no Node is referenced)
+		transient int[] references;
+		// bit l is set if Node l is used (references[l] > 0)
+		transient long usedBits;
+
+		Chunk() {
+			function = new int[4];
+			nodeType = new int[4];
+			inputStart = new int[5];
+			inputAddress = new int[8];
+			inputOutput = new int[8];
+		}
+
+		private Chunk(Chunk original) {
+			int inputs = original.inputStart[original.size];
+			size = original.size;
+			function = Arrays.copyOf(original.function, original.function.length);
+			nodeType = Arrays.copyOf(original.nodeType, original.nodeType.length);
+			inputStart = Arrays.copyOf(original.inputStart, original.inputStart.length);
+			inputAddress = Arrays.copyOf(original.inputAddress, Math.max(inputs, 2));
+			inputOutput = Arrays.copyOf(original.inputOutput, Math.max(inputs, 2));
+			if (original.references != null) {
+				references = Arrays.copyOf(original.references, function.length);
+			}
+			usedBits = original.usedBits;
+		}
+
+		/**
+		 * @return A copy that is not shared
+		 */
+		Chunk copy() {
+			return new Chunk(this);
+		}
+
+		int getNrOfInputs(int local) {
+			return inputStart[local + 1] - inputStart[local];
+		}
+
+		/**
+		 * @return The number of genes of all Nodes of the Chunk (function genes and input genes)
+		 */
+		int getNrOfGenes() {
+			return size + inputStart[size];
+		}
+
+		/**
+		 * @return The reference counts (created if no Node has been referenced yet)
+		 */
+		int[] getReferences() {
+			if (references == null) {
+				references = new int[function.length];
+			}
+			return references;
+		}
+
+		void addNode(int functionNr, int type) {
+			if (size == function.length) {
+				int capacity = Math.min(size * 2, CHUNK_SIZE);
+				function = Arrays.copyOf(function, capacity);
+				nodeType = Arrays.copyOf(nodeType, capacity);
+				inputStart = Arrays.copyOf(inputStart, capacity + 1);
+				if (references != null) {
+					references = Arrays.copyOf(references, capacity);
+				}
+			}
+			if (references != null) {
+				references[size] = 0;
+			}
+			usedBits &= ~(1L << size);
+			function[size] = functionNr;
+			nodeType[size] = type;
+			inputStart[size + 1] = inputStart[size];
+			size++;
+		}
+
+		/**
+		 * adds a copy of a Node of another Chunk at the end
+		 * @param keepReferences if the reference count of the Node is copied as well
+		 * @return The position of the Node in this Chunk
+		 */
+		int appendNode(Chunk source, int sourceLocal, boolean keepReferences) {
+			int local = size;
+			addNode(source.function[sourceLocal], source.nodeType[sourceLocal]);
+			int inputs = source.getNrOfInputs(sourceLocal);
+			int position = inputStart[local];
+			openInputs(local, position, inputs);
+			System.arraycopy(source.inputAddress, source.inputStart[sourceLocal], inputAddress, position, inputs);
+			System.arraycopy(source.inputOutput, source.inputStart[sourceLocal], inputOutput, position, inputs);
+			if (keepReferences && source.references != null && source.references[sourceLocal] > 0) {
+				getReferences()[local] = source.references[sourceLocal];
+				usedBits |= 1L << local;
+			}
+			return local;
+		}
+
+		/**
+		 * removes all Nodes (the arrays are kept, so that the Chunk can be filled again)
+		 */
+		void clear() {
+			size = 0;
+			usedBits = 0;
+		}
+
+		/**
+		 * makes space for count input genes of the Node at the given position
+		 */
+		void openInputs(int local, int position, int count) {
+			int used = inputStart[size];
+			if (used + count > inputAddress.length) {
+				int capacity = Math.max(used + count, inputAddress.length * 2);
+				inputAddress = Arrays.copyOf(inputAddress, capacity);
+				inputOutput = Arrays.copyOf(inputOutput, capacity);
+			}
+			System.arraycopy(inputAddress, position, inputAddress, position + count, used - position);
+			System.arraycopy(inputOutput, position, inputOutput, position + count, used - position);
+			for (int l = local + 1; l <= size; l++) {
+				inputStart[l] += count;
+			}
+		}
+
+		/**
+		 * removes count input genes of the Node at the given position
+		 */
+		void closeInputs(int local, int position, int count) {
+			int used = inputStart[size];
+			System.arraycopy(inputAddress, position + count, inputAddress, position, used - position - count);
+			System.arraycopy(inputOutput, position + count, inputOutput, position, used - position - count);
+			for (int l = local + 1; l <= size; l++) {
+				inputStart[l] -= count;
+			}
+		}
+
+		boolean isValid(int expectedSize) {
+			if (size != expectedSize || function == null || nodeType == null || inputStart == null
+					|| inputAddress == null || inputOutput == null || function.length < size
+					|| nodeType.length < size || inputStart.length < size + 1 || inputStart[0] != 0) {
+				return false;
+			}
+			for (int l = 0; l < size; l++) {
+				if (inputStart[l + 1] < inputStart[l]) {
+					return false;
+				}
+			}
+			return inputStart[size] <= inputAddress.length && inputStart[size] <= inputOutput.length;
+		}
+	}
+}
@@ -1,8 +1,14 @@
 package cartesianNetwork;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
+import evaluation.CompiledProgram;
+import evaluation.NodeColumns;
+import evaluation.SampleMistakes;
 import helperClasses.Functions;
 
 /**
@@ -24,6 +30,9 @@ public class Individual implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	// size can vary!
+	private Genome genome;
+	// the Nodes of Individuals that have been saved before the Genome was introduced
+	// (only used while reading, see readObject)
 	private ArrayList<NodeECGP> nodes;
 
 	// number of Inputs
@@ -49,10 +58,27 @@ public class Individual implements Serializable {
 	private boolean hasFitness;
 	// the fitness of the Individual
 	private int fitness;
-	// states if the used Nodes of the Individual have already been assigned
-	private boolean usedNodesHasBeenCalculated;
-	// the used Nodes for Output Calculation of the Individual
-	private boolean[] usedNodes;
+	// if the fitness is only a lower bound, because the calculation has been stopped
+	// as soon as the Individual was worse than the Parents (not saved)
+	private transient boolean fitnessIsLowerBound;
+	// the used Nodes for Output Calculation of the Individual as bits (see NodeSet)
+	// (not saved, taken from the reference counts of the Genome when they are needed, null if the counts have changed since)
+	// volatile since the used Nodes of Parents are read by several Threads
+	private transient volatile long[] usedNodes;
+	// the used Nodes compiled into Bytecode (not saved, see BytecodeCompiler)
+	// the compiled class can be unloaded when the Individual is discarded
+	private transient CompiledProgram compiledProgram;
+	// the Individual this Individual was copied from (not saved)
+	// is kept until the Fitness has been calculated, so that unchanged Nodes can reuse its Outputs
+	private transient Individual origin;
+	// the Outputs of the used Nodes for every Input (not saved, see IncrementalEvaluator)
+	private transient NodeColumns nodeColumns;
+	// the samples the Individual classifies wrong (not saved, see SampleSchedule)
+	private transient SampleMistakes sampleMistakes;
+	// if a mutation changed a gene that the Individual it was copied from uses (not saved)
+	private transient boolean activeGeneChanged;
+	// if Nodes have been moved by Compressor or Expander since the Individual was copied (not saved)
+	private transient boolean structureChanged;
 
 	/**
 	 * This constructor creates a random Individual
@@ -75,24 +101,21 @@ public class Individual implements Serializable {
 		this.maxModuleSize = maxModuleSize;
 		this.levelsBack = levelsBack;
 
-		nodes = new ArrayList<>();
+		genome = new Genome(nodeAmount);
 
 		for (int i = 0; i < nodeAmount; i++) {
 			int randomFunction = ThreadLocalRandom.current().nextInt(1, Functions.getNrFunctions(functionSet) + 1);
 			// all Nodes are of type 0 since no Modules exist in the beginning
-			int[] function = { randomFunction, 0 };
+			genome.addNode(randomFunction, 0);
 			// all Nodes contain just 2 inputs in the beginning
-			ArrayList<int[]> input = new ArrayList<>();
 			
 			if (levelsBack <= 0) {
 				// i = current position of Node
 				// inputAmout + i = adress of current Node
 				// upper Bound of ThreadLocalRandom.current().nextInt is
 				// exclusive!
-				int[] input1 = { (ThreadLocalRandom.current().nextInt(0, inputAmount + i)), 0 };
-				int[] input2 = { (ThreadLocalRandom.current().nextInt(0, inputAmount + i)), 0 };
-				input.add(input1);
-				input.add(input2);
+				genome.addInput(i, ThreadLocalRandom.current().nextInt(0, inputAmount + i), 0);
+				genome.addInput(i, ThreadLocalRandom.current().nextInt(0, inputAmount + i), 0);
 			} else {
 				int currentlevelsBackMax = levelsBack;
 				if (currentlevelsBackMax >= i)
@@ -107,13 +130,9 @@ public class Individual implements Serializable {
 						// position of the current node = inputAmount + i
 						cInput = inputAmount + i - cInput - 1;
 					}
-					int[] actualInput = { cInput, 0};
-					input.add(actualInput);
+					genome.addInput(i, cInput, 0);
 				}
 			}
-			
-			
-			nodes.add(new NodeECGP(function, input));
 		}
 
 		output = new int[outputAmount][2];
@@ -151,7 +170,8 @@ public class Individual implements Serializable {
 		calculateGenotypeSize();
 
 		hasFitness = false;
-		usedNodesHasBeenCalculated = false;
+		moduleList.countUsers(genome);
+		countReferences();
 	}
 
 	/**
@@ -168,7 +188,25 @@ public class Individual implements Serializable {
 	 */
 	public Individual(ArrayList<NodeECGP> nodes, int inputAmount, int outputAmount, int[][] output, int funcionSet,
 			ModuleList moduleList, int genotypeSize, int maxModuleSize, int levelsBack) {
-		this.nodes = nodes;
+		this(Genome.fromNodes(nodes), inputAmount, outputAmount, output, funcionSet, moduleList, genotypeSize,
+				maxModuleSize, levelsBack);
+	}
+
+	/**
+	 * Creates an Individual with the given Values (not random)
+	 * @param genome The Nodes of the Individuall
+	 * @param inputAmount The Number of Inputs
+	 * @param outputAmount The Number of Outputs
+	 * @param output The Output-Adresses
+	 * @param funcionSet The function-set-identifier
+	 * @param moduleList The Module-List
+	 * @param genotypeSize The Size of the Genotype of the Individual
+	 * @param maxModuleSize The max Module Size
+	 * @param levelsBack The levels-back-Parameter
+	 */
+	public Individual(Genome genome, int inputAmount, int outputAmount, int[][] output, int funcionSet,
+			ModuleList moduleList, int genotypeSize, int maxModuleSize, int levelsBack) {
+		this.genome = genome;
 		this.inputAmount = inputAmount;
 		this.outputAmount = outputAmount;
 		this.moduleList = moduleList;
@@ -178,7 +216,43 @@ public class Individual implements Serializable {
 		this.maxModuleSize = maxModuleSize;
 		this.levelsBack = levelsBack;
 		hasFitness = false;
-		usedNodesHasBeenCalculated = false;
+		moduleList.countUsers(genome);
+		countReferences();
+	}
+
+	/**
+	 * Creates a Copy of the given Individual with the copied Nodes, Outputs and ModuleList
+	 * (the ModuleList already knows the users of its Modules and the Genome the references of its Nodes)
+	 */
+	private Individual(Individual original, Genome genome, int[][] output, ModuleList moduleList) {
+		setCopyOf(original, genome, output, moduleList);
+	}
+
+	/**
+	 * makes this Individual a Copy of the given Individual with the copied Nodes, Outputs and ModuleList
+	 * (everything this Individual knew before is forgotten)
+	 */
+	private void setCopyOf(Individual original, Genome genome, int[][] output, ModuleList moduleList) {
+		this.genome = genome;
+		this.nodes = null;
+		this.inputAmount = original.inputAmount;
+		this.outputAmount = original.outputAmount;
+		this.moduleList = moduleList;
+		this.output = output;
+		this.functionSet = original.functionSet;
+		this.genotypeSize = original.genotypeSize;
+		this.maxModuleSize = original.maxModuleSize;
+		this.levelsBack = original.levelsBack;
+		hasFitness = false;
+		fitness = 0;
+		fitnessIsLowerBound = false;
+		usedNodes = original.usedNodes;
+		compiledProgram = null;
+		origin = original;
+		nodeColumns = null;
+		sampleMistakes = null;
+		activeGeneChanged = false;
+		structureChanged = false;
 	}
 
 	/**
@@ -203,6 +277,26 @@ public class Individual implements Serializable {
 		}
 	}
 
+	/**
+	 * assigns a lower bound of the Fitness
+	 * (the Fitness-Calculation was stopped because the Individual is worse than the Parents)
+	 * @param lowerBound
+	 *            the lower bound of the Fitness of the Individual
+	 * @throws Exception
+	 *             if fitness has already been calculated
+	 */
+	public void setFitnessLowerBound(int lowerBound) throws Exception {
+		setFitness(lowerBound);
+		fitnessIsLowerBound = true;
+	}
+
+	/**
+	 * @return if the Fitness is only a lower bound of the real Fitness
+	 */
+	public boolean isFitnessLowerBound() {
+		return fitnessIsLowerBound;
+	}
+
 	/**
 	 * use HasFitness() to see if Individual already has assigned FitnessValue
 	 * 
@@ -218,39 +312,295 @@ public class Individual implements Serializable {
 	}
 
 	/**
-	 * @return if used Nodes have already been calculated
+	 * the used Nodes are the Nodes the Outputs depend on
+	 * (they are counted during the mutations, see Genome.addReference)
+	 * 
+	 * @return the UsedNodes of the Individual as bits, see NodeSet (must not be changed)
 	 */
-	public boolean usedNodesHasBeenCalculated() {
-		return usedNodesHasBeenCalculated;
+	public long[] getUsedNodes() {
+		long[] used = usedNodes;
+		if (used == null) {
+			used = genome.getUsedNodes();
+			usedNodes = used;
+		}
+		return used;
 	}
 
 	/**
-	 * use usedNodesHasBeenCalculated() to see if Individual has assignes
-	 * UsedNodes Value
-	 * 
-	 * @return the UsedNodes of the Individual
-	 * @throws Exception
-	 *             if usedNodes hasn't been calculated
+	 * @param node The position of the Node
+	 * @return if the Outputs of the Individual depend on the Node
 	 */
-	public boolean[] getUsedNodes() throws Exception {
-		if (usedNodesHasBeenCalculated)
-			return usedNodes;
-		else
-			throw new Exception("tried to access non-existing UsedNodes");
+	public boolean isNodeUsed(int node) {
+		return genome.isUsed(node);
 	}
 
 	/**
-	 * @param usedNodes
-	 *            the usedNodes of the Individual
-	 * @throws Exception
-	 *             if usedNodes has already been assigned
+	 * @return the compiled Individual (null if the Individual has not been compiled)
+	 */
+	public CompiledProgram getCompiledProgram() {
+		return compiledProgram;
+	}
+
+	/**
+	 * @param compiledProgram
+	 *            the Individual compiled into Bytecode
+	 */
+	public void setCompiledProgram(CompiledProgram compiledProgram) {
+		this.compiledProgram = compiledProgram;
+	}
+
+	/**
+	 * @return the Individual this Individual was copied from (null if it is not known anymore)
+	 */
+	public Individual getOrigin() {
+		return origin;
+	}
+
+	/**
+	 * forgets the Individual this Individual was copied from
+	 * (call this after the Fitness has been calculated,
+	 * so that the Parents of older Generations can be garbage collected)
+	 */
+	public void clearOrigin() {
+		origin = null;
+		activeGeneChanged = false;
+		structureChanged = false;
+		genome.resetOrigin();
+	}
+
+	/**
+	 * reports that a mutation changed the function or an input of the Node
+	 * (marks the Node as changed and remembers if the Node was used
+	 * by the Individual it was copied from)
+	 * @param node The position of the changed Node of this Individual
+	 */
+	public void markNodeChanged(int node) {
+		genome.markChanged(node);
+		if (wasUsedByOrigin(node)) {
+			activeGeneChanged = true;
+		}
+	}
+
+	/**
+	 * reports that a mutation changed an Output-Gene
+	 */
+	public void markOutputChanged() {
+		activeGeneChanged = true;
+	}
+
+	/**
+	 * reports that Nodes have been moved into or out of a Module
+	 * (does not change what the Individual calculates)
+	 */
+	public void markStructureChanged() {
+		structureChanged = true;
+	}
+
+	/**
+	 * changes the function gene of the Node
+	 * (use this instead of the Genome, so that the ModuleList knows which Nodes call a Module)
+	 * @param node The position of the Node
+	 * @param functionNr The number of the primitive function or the identifier of the Module
+	 * @param type The node type (0 for primitive functions, 1 or 2 for Modules)
+	 */
+	public void setFunctionOfNode(int node, int functionNr, int type) {
+		if (genome.getNodeType(node) != 0) {
+			moduleList.removeUser(genome.getFunctionNr(node), node);
+		}
+		genome.setFunctionNr(node, functionNr);
+		genome.setNodeType(node, type);
+		if (type != 0) {
+			moduleList.addUser(functionNr, node);
+		}
+	}
+
+	/**
+	 * changes one input gene of the Node
+	 * (use this and the following methods instead of the Genome, so that the used Nodes stay known)
+	 * @param node The position of the Node
+	 * @param input The number of the input of the Node
+	 * @param address The node address the input is taken from
+	 * @param output The node output the input is taken from
+	 */
+	public void setInput(int node, int input, int address, int output) {
+		if (genome.isUsed(node)) {
+			// add the new reference first, so that Nodes that are referenced by both stay used
+			addReference(address);
+			removeReference(genome.getInputAddress(node, input));
+		}
+		genome.setInput(node, input, address, output);
+	}
+
+	/**
+	 * adds an input gene at the end of the inputs of the Node
+	 * @param node The position of the Node
+	 * @param address The node address the input is taken from
+	 * @param output The node output the input is taken from
+	 */
+	public void addInput(int node, int address, int output) {
+		if (genome.isUsed(node)) {
+			addReference(address);
+		}
+		genome.addInput(node, address, output);
+	}
+
+	/**
+	 * removes an input gene of the Node
+	 * @param node The position of the Node
+	 * @param input The number of the input that is removed
+	 */
+	public void removeInput(int node, int input) {
+		if (genome.isUsed(node)) {
+			removeReference(genome.getInputAddress(node, input));
+		}
+		genome.removeInput(node, input);
+	}
+
+	/**
+	 * removes the last inputs of the Node or adds inputs (address 0, output 0) at the end
+	 * @param node The position of the Node
+	 * @param nrOfInputs The new number of inputs of the Node
+	 */
+	public void setNrOfInputs(int node, int nrOfInputs) {
+		int oldNrOfInputs = genome.getNrOfInputs(node);
+		boolean used = genome.isUsed(node);
+		for (int i = nrOfInputs; used && i < oldNrOfInputs; i++) {
+			removeReference(genome.getInputAddress(node, i));
+		}
+		genome.setNrOfInputs(node, nrOfInputs);
+		for (int i = oldNrOfInputs; used && i < nrOfInputs; i++) {
+			addReference(genome.getInputAddress(node, i));
+		}
+	}
+
+	/**
+	 * changes an Output-Gene
+	 * @param outputGene The number of the Output
+	 * @param address The node address the Output is taken from
+	 * @param nodeOutput The node output the Output is taken from
 	 */
-	public void setUsedNodes(boolean[] usedNodes) throws Exception {
-		if (!usedNodesHasBeenCalculated) {
-			this.usedNodes = usedNodes;
-			usedNodesHasBeenCalculated = true;
-		} else
-			throw new Exception("tried to change already calculated used Nodes of an Individual");
+	public void setOutputGene(int outputGene, int address, int nodeOutput) {
+		addReference(address);
+		removeReference(output[outputGene][0]);
+		output[outputGene][0] = address;
+		output[outputGene][1] = nodeOutput;
+	}
+
+	/**
+	 * replaces Nodes by other Nodes in one pass (used to move Nodes into or out of a Module)
+	 * the input genes of later Nodes and the output genes that referenced a replaced Node are given to the remap,
+	 * the ones that referenced a Node behind the replaced Nodes are shifted
+	 * (the inserted Nodes are new Nodes, the Nodes with remapped inputs are marked as changed,
+	 * only the references of the replaced Nodes and of the remapped genes are updated)
+	 * @param position The position of the first replaced Node
+	 * @param count The number of replaced Nodes
+	 * @param nodes The Nodes that are inserted instead
+	 * @param remap Gives the new address and output for genes that referenced a replaced Node
+	 */
+	public void replaceNodes(int position, int count, Genome nodes, AddressRemap remap) {
+		int firstAddress = position + inputAmount;
+		int endAddress = firstAddress + count;
+		int shift = nodes.size() - count;
+		// the Nodes before the replaced Nodes that were referenced by used replaced Nodes
+		int[] released = new int[4];
+		int nrOfReleased = 0;
+		for (int n = position; n < position + count; n++) {
+			if (genome.getNodeType(n) != 0) {
+				moduleList.removeUser(genome.getFunctionNr(n), n);
+			}
+			if (genome.isUsed(n)) {
+				for (int i = 0; i < genome.getNrOfInputs(n); i++) {
+					int address = genome.getInputAddress(n, i);
+					if (address < firstAddress) {
+						if (nrOfReleased == released.length) {
+							released = Arrays.copyOf(released, nrOfReleased * 2);
+						}
+						released[nrOfReleased++] = address;
+					}
+				}
+			}
+		}
+		moduleList.shiftUsers(position + count, shift);
+		for (int n = 0; n < nodes.size(); n++) {
+			if (nodes.getNodeType(n) != 0) {
+				moduleList.addUser(nodes.getFunctionNr(n), position + n);
+			}
+		}
+		genome.replaceNodes(position, count, nodes, firstAddress, remap);
+		for (int i = 0; i < outputAmount; i++) {
+			if (output[i][0] >= endAddress) {
+				output[i][0] += shift;
+			} else if (output[i][0] >= firstAddress) {
+				int[] newOutput = remap.remap(output[i][0], output[i][1]);
+				output[i][0] = newOutput[0];
+				output[i][1] = newOutput[1];
+				addReference(newOutput[0]);
+			}
+		}
+		// the new references are added first, so that Nodes that are still used don't lose their inputs in between
+		for (int r = 0; r < nrOfReleased; r++) {
+			removeReference(released[r]);
+		}
+		usedNodes = null;
+		markStructureChanged();
+	}
+
+	/**
+	 * @return if a gene that is used by the Individual it was copied from has been changed
+	 *         (if not, both Individuals calculate the same Outputs)
+	 */
+	public boolean isActiveGeneChanged() {
+		return activeGeneChanged;
+	}
+
+	/**
+	 * @return if Nodes have been moved since the Individual was copied
+	 *         (if not, every Node is still on the position of the Node it was copied from)
+	 */
+	public boolean isStructureChanged() {
+		return structureChanged;
+	}
+
+	/**
+	 * @return if the Individual this Node was copied from used the Node
+	 *         (true if this is not known)
+	 */
+	private boolean wasUsedByOrigin(int node) {
+		int originPosition = genome.getOriginPosition(node);
+		if (origin == null || originPosition < 0) {
+			return true;
+		}
+		return origin.isNodeUsed(originPosition);
+	}
+
+	/**
+	 * @return the Outputs of the used Nodes (null if they have not been stored)
+	 */
+	public NodeColumns getNodeColumns() {
+		return nodeColumns;
+	}
+
+	/**
+	 * @param nodeColumns
+	 *            the Outputs of the used Nodes for every Input
+	 */
+	public void setNodeColumns(NodeColumns nodeColumns) {
+		this.nodeColumns = nodeColumns;
+	}
+
+	/**
+	 * @return the samples the Individual classifies wrong (null if they have not been recorded)
+	 */
+	public SampleMistakes getSampleMistakes() {
+		return sampleMistakes;
+	}
+
+	/**
+	 * @param sampleMistakes
+	 *            the samples the Individual classifies wrong
+	 */
+	public void setSampleMistakes(SampleMistakes sampleMistakes) {
+		this.sampleMistakes = sampleMistakes;
 	}
 
 	/**
@@ -259,13 +609,8 @@ public class Individual implements Serializable {
 	 * (assigns the calculated value in the Individual)
 	 */
 	public void calculateGenotypeSize() {
-		int size = 0;
-		for (NodeECGP node : nodes) {
-			// for the function gene
-			size += 1;
-			// for input genes
-			size += node.getInput().size();
-		}
+		// one function gene per Node and the input genes
+		int size = genome.size() + genome.getNrOfInputGenes();
 		size += outputAmount;
 		this.genotypeSize = size;
 	}
@@ -275,33 +620,63 @@ public class Individual implements Serializable {
 	 * @return an identical Copy
 	 */
 	public Individual copy() {
-		// copy nodes
-		ArrayList<NodeECGP> nOdes = new ArrayList<>();
-		for (NodeECGP node : nodes) {
-			nOdes.add(node.copy());
+		return copy(null);
+	}
+
+	/**
+	 * Creates a identical Copy of the Individual in an Individual that is not used anymore
+	 * (its Genome, Outputs and ModuleList are overwritten, so that their arrays can be reused - see Evolution)
+	 * @param recycled The Individual that is overwritten (null if a new Individual should be created)
+	 * @return an identical Copy (the recycled Individual if there is one)
+	 */
+	public Individual copy(Individual recycled) {
+		if (recycled == this) {
+			recycled = null;
 		}
+		// copy nodes (and remember their position for the incremental Fitness-Calculation)
+		Genome genomeChild = genome.copy(recycled == null ? null : recycled.genome);
+		genomeChild.setOriginPositions();
 		// copy outputs
-		int[][] outputChild = new int[outputAmount][2];
+		int[][] outputChild = (recycled == null) ? null : recycled.output;
+		if (outputChild == null || outputChild.length != outputAmount) {
+			outputChild = new int[outputAmount][];
+		}
 		for (int i = 0; i < outputAmount; i++) {
-			for (int j = 0; j < output[0].length; j++) {
+			if (outputChild[i] == null || outputChild[i].length != output[i].length) {
+				outputChild[i] = new int[output[i].length];
+			}
+			for (int j = 0; j < output[i].length; j++) {
 				outputChild[i][j] = output[i][j];
 			}
 		}
-		ModuleList moduleListChild = moduleList.copy();
+		ModuleList moduleListChild = moduleList.copy(recycled == null ? null : recycled.moduleList);
 
 		// generate new offspring
-		Individual offspring = new Individual(nOdes, inputAmount, outputAmount, outputChild, functionSet, moduleListChild,
-				genotypeSize, maxModuleSize, levelsBack);
+		if (recycled == null) {
+			return new Individual(this, genomeChild, outputChild, moduleListChild);
+		}
+		recycled.setCopyOf(this, genomeChild, outputChild, moduleListChild);
+		return recycled;
+	}
 
-		return offspring;
+	/**
+	 * @return The Nodes of the Individual
+	 */
+	public Genome getGenome() {
+		return genome;
 	}
 
-	public ArrayList<NodeECGP> getNodes() {
-		return nodes;
+	public void setGenome(Genome genome) {
+		this.genome = genome;
+		moduleList.countUsers(genome);
+		countReferences();
 	}
 
-	public void setNodes(ArrayList<NodeECGP> nodes) {
-		this.nodes = nodes;
+	/**
+	 * @return The number of Nodes of the Individual
+	 */
+	public int getNrOfNodes() {
+		return genome.size();
 	}
 
 	public int getInputAmount() {
@@ -318,6 +693,7 @@ public class Individual implements Serializable {
 
 	public void setOutput(int[][] output) {
 		this.output = output;
+		countReferences();
 	}
 
 	public int getFunctionSet() {
@@ -344,12 +720,55 @@ public class Individual implements Serializable {
 		return levelsBack;
 	}
 
+	/**
+	 * converts the list of Nodes of Individuals that have been saved before the Genome was introduced
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (genome == null && nodes != null) {
+			genome = Genome.fromNodes(nodes);
+		}
+		nodes = null;
+		moduleList.countUsers(genome);
+		countReferences();
+	}
+
+	/**
+	 * adds a reference to the Node with the address (inputs are not counted)
+	 */
+	private void addReference(int address) {
+		if (address >= inputAmount) {
+			genome.addReference(address - inputAmount, inputAmount);
+			usedNodes = null;
+		}
+	}
+
+	/**
+	 * removes a reference to the Node with the address (inputs are not counted)
+	 */
+	private void removeReference(int address) {
+		if (address >= inputAmount) {
+			genome.removeReference(address - inputAmount, inputAmount);
+			usedNodes = null;
+		}
+	}
+
+	/**
+	 * counts the references of all Nodes of the Genome again
+	 */
+	private void countReferences() {
+		int[] outputAddresses = new int[outputAmount];
+		for (int i = 0; i < outputAmount; i++) {
+			outputAddresses[i] = output[i][0];
+		}
+		genome.countReferences(outputAddresses, inputAmount);
+		usedNodes = null;
+	}
+
 	public String toString() {
 		String toReturn = "";
 		toReturn += "InputAmount:" + inputAmount + "\n";
-		for (NodeECGP node : nodes) {
-			toReturn += node.toString();
-		}
+		toReturn += genome.toString();
 		for (int i = 0; i < outputAmount; i++) {
 			toReturn += "Output" + i + ":" + output[i] + "\n";
 		}
@@ -1,5 +1,7 @@
 package cartesianNetwork;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 
@@ -31,36 +33,44 @@ public class Module  implements Serializable {
 	//minimum of 2 nodes
 	//maximum set by User
 	//node can only contatin primitive functions (Node Type 0)
+	private Genome genome;
+	// the Nodes of Modules that have been saved before the Genome was introduced
+	// (only used while reading, see readObject)
 	private ArrayList<NodeECGP> nodes;
 	
-	private boolean[] usedNodes;
-	private boolean usedNodesCalculated;
+	// the used Nodes of the Module as bits (not saved, taken from the reference counts of the Genome when they are needed,
+	// null if the counts have changed since)
+	// volatile since shared Modules are used by several Threads
+	private transient volatile long[] usedNodes;
+	
+	// the Module is used by the ModuleLists of more than one Individual and must not be changed anymore
+	// (saved as well, so that Individuals that are read from the same stream don't change each other)
+	private boolean shared;
 	
 	/**
 	 * creates a Module with the given Values
 	 * for explicit Values see inside the Module-Class
 	 * @param header The Header consisting of Module Identifier and Number of Inputs
 	 * @param moduleOutputs The Output-Adresses consisting of Adress and Outputnumber
-	 * @param nodes The nodes of the Module (all should have type 0)
+	 * @param genome The nodes of the Module (all should have type 0)
 	 */
-	public Module(int[] header, ArrayList<int[]> moduleOutputs, ArrayList<NodeECGP> nodes){
+	public Module(int[] header, ArrayList<int[]> moduleOutputs, Genome genome){
 		this.header = header;
 		this.moduleOutputs = moduleOutputs;
 		if(moduleOutputs.size()==0){
 			throw new IllegalArgumentException("Outputs of Module cannot be 0");
 		}
-		this.nodes = nodes;
-		usedNodesCalculated=false;
+		this.genome = genome;
+		countReferences();
 	}
 
 	/**
-	 * copies the Module
+	 * copies the Module (the copy is not shared, the Nodes are shared until one of the Modules changes them)
 	 * @return an identical Copy of the Module
 	 */
 	public Module copy(){
 		int[] newHeader = new int[header.length];
 		ArrayList<int[]> newOutputs = new ArrayList<>();
-		ArrayList<NodeECGP> newNodes = new ArrayList<>();
 		for(int i=0;i<header.length;i++){
 			newHeader[i] = header[i];
 		}
@@ -70,10 +80,22 @@ public class Module  implements Serializable {
 			outNew[1] = out[1];
 			newOutputs.add(outNew);
 		}
-		for(NodeECGP node : nodes){
-			newNodes.add(node.copy());
-		}
-		return new Module(newHeader,newOutputs,newNodes);
+		Module module = new Module(newHeader,newOutputs,genome.copy());
+		//the copy uses the same Nodes
+		module.usedNodes = usedNodes;
+		return module;
+	}
+	
+	/**
+	 * marks that the Module is used by more than one ModuleList
+	 * (it is not changed anymore, see ModuleList.getWritableModuleWithIdentifier)
+	 */
+	public void markShared(){
+		shared=true;
+	}
+	
+	public boolean isShared(){
+		return shared;
 	}
 	
 	public int[] getHeader() {
@@ -81,7 +103,7 @@ public class Module  implements Serializable {
 	}
 	
 	public int getNrOfNodes(){
-		return nodes.size();
+		return genome.size();
 	}
 	
 	public int getNrOfInputs(){
@@ -98,6 +120,7 @@ public class Module  implements Serializable {
 
 	public void setHeader(int[] header) {
 		this.header = header;
+		countReferences();
 	}
 
 	public ArrayList<int[]> getModuleOutputs() {
@@ -106,38 +129,116 @@ public class Module  implements Serializable {
 
 	public void setModuleOutputs(ArrayList<int[]> moduleOutputs) {
 		this.moduleOutputs = moduleOutputs;
+		countReferences();
 	}
 
-	public ArrayList<NodeECGP> getNodes() {
-		return nodes;
+	public Genome getGenome() {
+		return genome;
 	}
 
-	public void setNodes(ArrayList<NodeECGP> nodes) {
-		this.nodes = nodes;
+	public void setGenome(Genome genome) {
+		this.genome = genome;
+		countReferences();
 	}
 
-	public boolean[] getUsedNodes() {
-		if(usedNodesCalculated){
-			return usedNodes;
+	/**
+	 * the used Nodes are the Nodes the Outputs of the Module depend on
+	 * (they are counted during the mutations, see Genome.addReference)
+	 * @return the used Nodes of the Module as bits, see NodeSet (must not be changed)
+	 */
+	public long[] getUsedNodes() {
+		long[] used = usedNodes;
+		if(used==null){
+			used = genome.getUsedNodes();
+			usedNodes = used;
 		}
-		throw new IllegalStateException("usedNodes of the module have not been calculated");
+		return used;
+	}
+
+	/**
+	 * changes one input gene of a Node of the Module
+	 * (use this and the following methods instead of the Genome and the Output-List, so that the used Nodes stay known)
+	 * @param node The position of the Node in the Module
+	 * @param input The number of the input of the Node
+	 * @param address The address the input is taken from (the first addresses are the inputs of the Module)
+	 * @param output The node output the input is taken from
+	 */
+	public void setInput(int node, int input, int address, int output){
+		if(genome.isUsed(node)){
+			//add the new reference first, so that Nodes that are referenced by both stay used
+			addReference(address);
+			removeReference(genome.getInputAddress(node, input));
+		}
+		genome.setInput(node, input, address, output);
+	}
+
+	/**
+	 * changes the address an Output of the Module is taken from
+	 * @param output The number of the Output
+	 * @param address The new address of the Output
+	 */
+	public void setOutputAddress(int output, int address){
+		addReference(address);
+		removeReference(moduleOutputs.get(output)[0]);
+		moduleOutputs.get(output)[0] = address;
 	}
 
-	public void setUsedNodes(boolean[] usedNodes) {
-		if(!usedNodesCalculated){
-			this.usedNodes=usedNodes;
-			this.usedNodesCalculated=true;
+	/**
+	 * adds an Output at the end
+	 * @param output The Output (address and node output)
+	 */
+	public void addOutput(int[] output){
+		addReference(output[0]);
+		moduleOutputs.add(output);
+	}
+
+	/**
+	 * removes an Output (the later Outputs are shifted to the left)
+	 * @param output The number of the Output
+	 */
+	public void removeOutput(int output){
+		removeReference(moduleOutputs.get(output)[0]);
+		moduleOutputs.remove(output);
+	}
+
+	private void addReference(int address){
+		if(address>=getNrOfInputs()){
+			genome.addReference(address-getNrOfInputs(), getNrOfInputs());
+			usedNodes = null;
 		}
-		else{
-			throw new IllegalStateException("usedNodes of the module have already been calculated");
+	}
+
+	private void removeReference(int address){
+		if(address>=getNrOfInputs()){
+			genome.removeReference(address-getNrOfInputs(), getNrOfInputs());
+			usedNodes = null;
 		}
 	}
 
-	public boolean usedNodesHasBeenCalculated() {
-		return usedNodesCalculated;
+	/**
+	 * counts the references of all Nodes of the Module again
+	 */
+	private void countReferences(){
+		if(genome==null || header==null || moduleOutputs==null){
+			return;
+		}
+		int[] outputAddresses = new int[moduleOutputs.size()];
+		for(int i=0;i<outputAddresses.length;i++){
+			outputAddresses[i] = moduleOutputs.get(i)[0];
+		}
+		genome.countReferences(outputAddresses, getNrOfInputs());
+		usedNodes = null;
 	}
-	
-	public void resetUsedNodesHasBeenCalculated() {
-		this.usedNodesCalculated=false;
+
+	/**
+	 * converts the list of Nodes of Modules that have been saved before the Genome was introduced
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (genome == null && nodes != null) {
+			genome = Genome.fromNodes(nodes);
+		}
+		nodes = null;
+		countReferences();
 	}
 }
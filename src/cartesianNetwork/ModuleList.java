@@ -1,112 +1,454 @@
 package cartesianNetwork;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * The List that contains all the modules of the Individual
+ *
+ * the Modules are indexed by their identifier, so that finding, adding and deleting a Module
+ * and finding an unused identifier take constant time
+ * (the order of moduleList changes when a Module is deleted)
+ *
+ * the List also knows which Nodes of its Individual call a Module (the users of the Module),
+ * the Individual updates them whenever a Node starts or stops calling a Module
  * @author Bjrn Piepenbrink
  *
  */
 public class ModuleList  implements Serializable {
-	
+
 	private static final long serialVersionUID = 1L;
 	//Module List consisting of all addedModules
 	ArrayList<Module> moduleList;
-	
+
+	//index of the identifiers (not saved, built again when the ModuleList is read):
+	//all identifiers below identifierLimit are either used or unused
+	private transient int identifierLimit;
+	//position of the Module with the identifier in moduleList (-1 if the identifier is unused)
+	private transient int[] positionOfIdentifier;
+	//unused identifiers below identifierLimit (stack, identifiers of deleted Modules are used first)
+	private transient int[] unusedIdentifiers;
+	private transient int nrOfUnusedIdentifiers;
+	//position of the identifier in unusedIdentifiers (-1 if the identifier is used)
+	private transient int[] positionInUnused;
+
+	//users of the identifiers (not saved, counted again by the Individual when it is read):
+	//positions of the Nodes that call the Module with the identifier (in no particular order, null if there are none)
+	private transient int[][] usersOfIdentifier;
+	private transient int[] nrOfUsers;
+	//if usersOfIdentifier[id] belongs only to this ModuleList (copies share the arrays until one of them changes them)
+	private transient boolean[] ownUsers;
+	//identifiers that have no users anymore (their Modules are deleted by deleteUnusedModules)
+	private transient int[] unusedCandidates;
+	private transient int nrOfUnusedCandidates;
+	private transient boolean[] isUnusedCandidate;
+
 	/**
 	 * creates a new empty ModuleList
 	 */
 	public ModuleList(){
 		moduleList = new ArrayList<>();
+		buildIndex();
 	}
-	
+
 	/**
 	 * creates a ModuleList with the given moduleList
 	 * @param moduleList the List of Modules that should be used
+	 * @throws IllegalArgumentException if two Modules have the same identifier
 	 */
 	public ModuleList(ArrayList<Module> moduleList){
 		this.moduleList = moduleList;
+		buildIndex();
 	}
-	
+
+	/**
+	 * copies the List and the index of the other ModuleList
+	 */
+	private ModuleList(ModuleList other, ArrayList<Module> moduleList){
+		this.moduleList = moduleList;
+		copyIndex(other);
+	}
+
+	/**
+	 * copies the index of the other ModuleList
+	 * (the arrays of this ModuleList are reused if they have the same length)
+	 */
+	private void copyIndex(ModuleList other){
+		int capacity = other.positionOfIdentifier.length;
+		if(positionOfIdentifier==null || positionOfIdentifier.length!=capacity){
+			positionOfIdentifier = new int[capacity];
+			unusedIdentifiers = new int[capacity];
+			positionInUnused = new int[capacity];
+			usersOfIdentifier = new int[capacity][];
+			nrOfUsers = new int[capacity];
+			ownUsers = new boolean[capacity];
+			unusedCandidates = new int[capacity];
+			isUnusedCandidate = new boolean[capacity];
+		}
+		else{
+			Arrays.fill(ownUsers, false);
+		}
+		identifierLimit = other.identifierLimit;
+		System.arraycopy(other.positionOfIdentifier, 0, positionOfIdentifier, 0, capacity);
+		System.arraycopy(other.unusedIdentifiers, 0, unusedIdentifiers, 0, capacity);
+		nrOfUnusedIdentifiers = other.nrOfUnusedIdentifiers;
+		System.arraycopy(other.positionInUnused, 0, positionInUnused, 0, capacity);
+		//the arrays of the users are shared until one of the ModuleLists changes them
+		System.arraycopy(other.usersOfIdentifier, 0, usersOfIdentifier, 0, capacity);
+		System.arraycopy(other.nrOfUsers, 0, nrOfUsers, 0, capacity);
+		Arrays.fill(other.ownUsers, false);
+		System.arraycopy(other.unusedCandidates, 0, unusedCandidates, 0, capacity);
+		nrOfUnusedCandidates = other.nrOfUnusedCandidates;
+		System.arraycopy(other.isUnusedCandidate, 0, isUnusedCandidate, 0, capacity);
+	}
+
 	public ArrayList<Module> getModuleList(){
 		return moduleList;
 	}
-	
+
 	public int getNrOfModules(){
 		return moduleList.size();
 	}
-	
+
 	/**
 	 * Returns an unused Identifier of the ModuleList
+	 * (the identifier of a deleted Module if there is one, so that the identifiers stay small)
 	 * @return the unused Identifier
 	 */
 	public int getFirstUnusedIdentifier(){
-		int identifier = 0;
-		boolean used = identifierUsed(identifier);
-		while(used){
-			identifier++;
-			used = identifierUsed(identifier);
+		if(nrOfUnusedIdentifiers>0){
+			return unusedIdentifiers[nrOfUnusedIdentifiers-1];
 		}
-		return identifier;
+		return identifierLimit;
 	}
-	
+
 	private boolean identifierUsed(int id){
-		for(Module module : moduleList){
-			if(module.getIdentifier()==id){
-				return true;
-			}
-		}
-		return false;
+		return id>=0 && id<identifierLimit && positionOfIdentifier[id]>=0;
 	}
-	
+
 	/**
 	 * Get a Module with its identifier
 	 * @param identifier The Identifier of the Module
 	 * @return The Module with the given identifier
 	 */
 	public Module getModuleWithIdentifier(int identifier){
-		for(Module module : moduleList){
-			if(module.getIdentifier()==identifier){
-				return module;
-			}
+		if(!identifierUsed(identifier)){
+			throw new IllegalArgumentException("identifier is not used by any Module");
+		}
+		return moduleList.get(positionOfIdentifier[identifier]);
+	}
+
+	/**
+	 * Get a Module with its identifier that can be changed
+	 * (if the Module is shared with other ModuleLists it is replaced by a copy first)
+	 * @param identifier The Identifier of the Module
+	 * @return The Module with the given identifier that only belongs to this ModuleList
+	 */
+	public Module getWritableModuleWithIdentifier(int identifier){
+		Module module = getModuleWithIdentifier(identifier);
+		if(module.isShared()){
+			module = module.copy();
+			moduleList.set(positionOfIdentifier[identifier], module);
 		}
-		throw new IllegalArgumentException("identifier is not used by any Module");
+		return module;
 	}
-	
+
 	/**
 	 * Deletes the Module with the given Identifier
+	 * (the last Module of the List takes its position)
 	 * @param identifier the identifier of the module that should be deleted
 	 */
 	public void deleteModuleWithIdentifier(int identifier){
-		for(int i=0;i<moduleList.size();i++){
-			if(moduleList.get(i).getIdentifier()==identifier){
-				moduleList.remove(i);
-				return;
-			}
+		if(!identifierUsed(identifier)){
+			return;
+		}
+		int position = positionOfIdentifier[identifier];
+		Module last = moduleList.remove(moduleList.size()-1);
+		if(position<moduleList.size()){
+			moduleList.set(position, last);
+			positionOfIdentifier[last.getIdentifier()] = position;
 		}
+		positionOfIdentifier[identifier] = -1;
+		pushUnusedIdentifier(identifier);
 	}
-	
+
 	/**
 	 * Adds the given Module to the Module List
 	 * @param module The Module that hould be added
-	 * @throws Exception if the identifier is already in use by another Module
+	 * @throws Exception if the identifier is already in use by another Module or negative
 	 * 	(use getFirstUnusedIdentifier first!)
 	 */
 	public void addModule(Module module) throws Exception{
 		if(identifierUsed(module.getIdentifier()))throw new Exception("Identifier already used in ModuleList");
+		if(module.getIdentifier()<0)throw new Exception("Identifier of a Module cannot be negative");
+		useIdentifier(module.getIdentifier(), moduleList.size());
 		moduleList.add(module);
+		if(getNrOfUsers(module.getIdentifier())==0){
+			pushUnusedCandidate(module.getIdentifier());
+		}
+	}
+
+	/**
+	 * Deletes all Modules that are not called by any Node of the Individual
+	 * (only the Modules whose number of users dropped to 0 are checked)
+	 */
+	public void deleteUnusedModules(){
+		while(nrOfUnusedCandidates>0){
+			int identifier = unusedCandidates[--nrOfUnusedCandidates];
+			isUnusedCandidate[identifier] = false;
+			if(nrOfUsers[identifier]==0){
+				deleteModuleWithIdentifier(identifier);
+			}
+		}
+	}
+
+	/**
+	 * @param identifier The Identifier of a Module
+	 * @return The number of Nodes of the Individual that call the Module
+	 */
+	public int getNrOfUsers(int identifier){
+		if(identifier<0 || identifier>=nrOfUsers.length){
+			return 0;
+		}
+		return nrOfUsers[identifier];
+	}
+
+	/**
+	 * @param identifier The Identifier of a Module
+	 * @param user The number of the user (between 0 and getNrOfUsers(identifier)-1)
+	 * @return The position of a Node of the Individual that calls the Module
+	 */
+	public int getUser(int identifier, int user){
+		if(user<0 || user>=getNrOfUsers(identifier)){
+			throw new IndexOutOfBoundsException("Module "+identifier+" has no user "+user);
+		}
+		return usersOfIdentifier[identifier][user];
+	}
+
+	/**
+	 * @param identifier The Identifier of a Module
+	 * @return The smallest position of a Node that calls the Module (-1 if there is none)
+	 */
+	public int getFirstUser(int identifier){
+		int first = -1;
+		for(int i=0;i<getNrOfUsers(identifier);i++){
+			if(first<0 || usersOfIdentifier[identifier][i]<first){
+				first = usersOfIdentifier[identifier][i];
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * remembers that the Node calls the Module with the identifier
+	 * (the identifier does not have to be used by a Module yet)
+	 */
+	void addUser(int identifier, int node){
+		if(identifier<0){
+			throw new IllegalArgumentException("Identifier of a Module cannot be negative");
+		}
+		ensureCapacity(identifier+1);
+		int[] users = writableUsers(identifier, nrOfUsers[identifier]+1);
+		users[nrOfUsers[identifier]++] = node;
 	}
-	
+
+	/**
+	 * forgets that the Node calls the Module with the identifier
+	 */
+	void removeUser(int identifier, int node){
+		int nr = getNrOfUsers(identifier);
+		for(int i=0;i<nr;i++){
+			if(usersOfIdentifier[identifier][i]==node){
+				int[] users = writableUsers(identifier, nr);
+				users[i] = users[nr-1];
+				nrOfUsers[identifier]--;
+				if(nrOfUsers[identifier]==0){
+					pushUnusedCandidate(identifier);
+				}
+				return;
+			}
+		}
+		throw new IllegalArgumentException("Node "+node+" does not call Module "+identifier);
+	}
+
+	/**
+	 * moves all users at the given position or behind it
+	 * @param from The first position that is moved
+	 * @param shift The number of positions the users are moved
+	 */
+	void shiftUsers(int from, int shift){
+		if(shift==0){
+			return;
+		}
+		for(int id=0;id<nrOfUsers.length;id++){
+			for(int i=0;i<nrOfUsers[id];i++){
+				if(usersOfIdentifier[id][i]>=from){
+					writableUsers(id, nrOfUsers[id])[i] += shift;
+				}
+			}
+		}
+	}
+
+	/**
+	 * counts the users of all identifiers again
+	 * @param nodes The Nodes of the Individual the ModuleList belongs to
+	 */
+	void countUsers(Genome nodes){
+		int capacity = positionOfIdentifier.length;
+		usersOfIdentifier = new int[capacity][];
+		nrOfUsers = new int[capacity];
+		ownUsers = new boolean[capacity];
+		nrOfUnusedCandidates = 0;
+		isUnusedCandidate = new boolean[capacity];
+		for(int n=0;n<nodes.size();n++){
+			if(nodes.getNodeType(n)!=0){
+				addUser(nodes.getFunctionNr(n), n);
+			}
+		}
+		for(Module m : moduleList){
+			if(nrOfUsers[m.getIdentifier()]==0){
+				pushUnusedCandidate(m.getIdentifier());
+			}
+		}
+	}
+
+	/**
+	 * @return the users of the identifier with space for at least capacity users,
+	 * 	that only belong to this ModuleList
+	 */
+	private int[] writableUsers(int identifier, int capacity){
+		int[] users = usersOfIdentifier[identifier];
+		if(users==null){
+			users = new int[Math.max(capacity, 2)];
+		}
+		else if(users.length<capacity){
+			users = Arrays.copyOf(users, Math.max(capacity, users.length*2));
+		}
+		else if(!ownUsers[identifier]){
+			users = users.clone();
+		}
+		usersOfIdentifier[identifier] = users;
+		ownUsers[identifier] = true;
+		return users;
+	}
+
+	private void pushUnusedCandidate(int identifier){
+		if(!isUnusedCandidate[identifier]){
+			isUnusedCandidate[identifier] = true;
+			unusedCandidates[nrOfUnusedCandidates++] = identifier;
+		}
+	}
+
 	/**
 	 * copies the Modulelist
+	 * the Modules are shared with the copy until they are changed (see getWritableModuleWithIdentifier)
 	 * @return an identical Copy of the Modulelist
 	 */
 	public ModuleList copy(){
-		ArrayList<Module> newModuleList = new ArrayList<>();
+		return copy(null);
+	}
+
+	/**
+	 * copies the Modulelist into a ModuleList that is not used anymore
+	 * (its List and the arrays of its index are reused if they have the same length)
+	 * @param recycled The ModuleList that is overwritten (null if a new ModuleList should be created)
+	 * @return an identical Copy of the Modulelist
+	 */
+	public ModuleList copy(ModuleList recycled){
 		for(Module m : moduleList){
-			newModuleList.add(m.copy());
+			m.markShared();
+		}
+		if(recycled==null || recycled==this){
+			return new ModuleList(this, new ArrayList<>(moduleList));
+		}
+		recycled.moduleList.clear();
+		recycled.moduleList.addAll(moduleList);
+		recycled.copyIndex(this);
+		return recycled;
+	}
+
+	/**
+	 * builds the index of the identifiers for the Modules in moduleList
+	 */
+	private void buildIndex(){
+		identifierLimit = 0;
+		nrOfUnusedIdentifiers = 0;
+		positionOfIdentifier = new int[Math.max(moduleList.size(), 4)];
+		unusedIdentifiers = new int[positionOfIdentifier.length];
+		positionInUnused = new int[positionOfIdentifier.length];
+		usersOfIdentifier = new int[positionOfIdentifier.length][];
+		nrOfUsers = new int[positionOfIdentifier.length];
+		ownUsers = new boolean[positionOfIdentifier.length];
+		unusedCandidates = new int[positionOfIdentifier.length];
+		nrOfUnusedCandidates = 0;
+		isUnusedCandidate = new boolean[positionOfIdentifier.length];
+		for(int i=0;i<moduleList.size();i++){
+			int identifier = moduleList.get(i).getIdentifier();
+			if(identifierUsed(identifier) || identifier<0){
+				throw new IllegalArgumentException("Identifier "+identifier+" is used twice or negative");
+			}
+			useIdentifier(identifier, i);
+		}
+	}
+
+	/**
+	 * marks the identifier as used by the Module at the given position of moduleList
+	 */
+	private void useIdentifier(int identifier, int position){
+		if(identifier>=identifierLimit){
+			ensureCapacity(identifier+1);
+			//all identifiers between the old and the new limit are unused
+			for(int id=identifierLimit;id<identifier;id++){
+				positionOfIdentifier[id] = -1;
+				pushUnusedIdentifier(id);
+			}
+			identifierLimit = identifier+1;
+		}
+		else{
+			//remove identifier from the unused identifiers
+			int index = positionInUnused[identifier];
+			int lastUnused = unusedIdentifiers[--nrOfUnusedIdentifiers];
+			unusedIdentifiers[index] = lastUnused;
+			positionInUnused[lastUnused] = index;
+		}
+		positionInUnused[identifier] = -1;
+		positionOfIdentifier[identifier] = position;
+	}
+
+	private void pushUnusedIdentifier(int identifier){
+		positionInUnused[identifier] = nrOfUnusedIdentifiers;
+		unusedIdentifiers[nrOfUnusedIdentifiers++] = identifier;
+	}
+
+	private void ensureCapacity(int capacity){
+		if(capacity<=positionOfIdentifier.length){
+			return;
+		}
+		capacity = Math.max(capacity, positionOfIdentifier.length*2);
+		positionOfIdentifier = Arrays.copyOf(positionOfIdentifier, capacity);
+		unusedIdentifiers = Arrays.copyOf(unusedIdentifiers, capacity);
+		positionInUnused = Arrays.copyOf(positionInUnused, capacity);
+		usersOfIdentifier = Arrays.copyOf(usersOfIdentifier, capacity);
+		nrOfUsers = Arrays.copyOf(nrOfUsers, capacity);
+		ownUsers = Arrays.copyOf(ownUsers, capacity);
+		unusedCandidates = Arrays.copyOf(unusedCandidates, capacity);
+		isUnusedCandidate = Arrays.copyOf(isUnusedCandidate, capacity);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if(moduleList==null){
+			throw new InvalidObjectException("the ModuleList contains no List");
+		}
+		try{
+			buildIndex();
+		}
+		catch(IllegalArgumentException e){
+			throw new InvalidObjectException(e.getMessage());
 		}
-		return new ModuleList(newModuleList);
 	}
 }
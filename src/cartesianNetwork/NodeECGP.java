@@ -5,6 +5,8 @@ import java.util.ArrayList;
 
 /**
  * Class for an ECGP-Node
+ * (Individuals and Modules store their Nodes in a Genome,
+ * this class is used to read Individuals that have been saved with a list of Nodes)
  * @author Bjrn Piepenbrink
  *
  */
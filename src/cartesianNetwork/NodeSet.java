@@ -0,0 +1,78 @@
+package cartesianNetwork;
+
+/**
+ * Methods for sets of Nodes that are stored as bits of long words
+ * (Node n is bit n % 64 of word n / 64), like the used Nodes of Individuals and Modules
+ *
+ * Sets with a different number of words are compared as if the missing words were empty.
+ */
+public class NodeSet {
+
+	/**
+	 * @param set The set of Nodes
+	 * @param node The position of the Node
+	 * @return if the Node is in the set
+	 */
+	public static boolean contains(long[] set, int node) {
+		int word = node >>> 6;
+		return word < set.length && (set[word] & (1L << node)) != 0;
+	}
+
+	/**
+	 * @param set The set of Nodes
+	 * @return The number of Nodes in the set
+	 */
+	public static int size(long[] set) {
+		int size = 0;
+		for (long word : set) {
+			size += Long.bitCount(word);
+		}
+		return size;
+	}
+
+	/**
+	 * iterates over the Nodes of a set:
+	 * for (int n = NodeSet.next(set, 0); n >= 0; n = NodeSet.next(set, n + 1))
+	 * @param set The set of Nodes
+	 * @param from The first position that is checked
+	 * @return The first Node of the set at the position or behind it (-1 if there is none)
+	 */
+	public static int next(long[] set, int from) {
+		int word = from >>> 6;
+		if (word >= set.length) {
+			return -1;
+		}
+		long bits = set[word] & (-1L << from);
+		while (bits == 0) {
+			word++;
+			if (word == set.length) {
+				return -1;
+			}
+			bits = set[word];
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * compares the sets word by word
+	 * @return if both sets contain the same Nodes
+	 */
+	public static boolean equal(long[] set, long[] other) {
+		int words = Math.max(set.length, other.length);
+		for (int i = 0; i < words; i++) {
+			if (difference(set, other, i) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return The bits of the word that are set in exactly one of the sets
+	 */
+	private static long difference(long[] set, long[] other, int word) {
+		long bits = word < set.length ? set[word] : 0;
+		long otherBits = word < other.length ? other[word] : 0;
+		return bits ^ otherBits;
+	}
+}
@@ -0,0 +1,171 @@
+package evaluation;
+
+import helperClasses.Functions;
+
+/**
+ * Class for calculating the Fitness of a compiled Individual
+ * column by column
+ *
+ * The samples are processed in tiles:
+ * every Instruction of the Program is calculated for the whole tile at once,
+ * so the function is only looked up once per tile instead of once per sample
+ */
+public class BatchEvaluator {
+
+	// the registers of all tiles together should fit into the cache (in bytes)
+	static final int CACHE_SIZE = 256 * 1024;
+	// bounds for the number of samples in one tile
+	static final int MIN_TILE_SIZE = 64;
+	static final int MAX_TILE_SIZE = 4096;
+
+	// if functionSet 6 should be calculated with the Vector API (jdk.incubator.vector)
+	// the scalar functions are used if the module is not available
+	static boolean useVectorKernels = true;
+
+	// the functions of Functions for a column of values
+	private static final ColumnKernels SCALAR_KERNELS = Functions::getResultsForFunction;
+	// the Vector API kernels (null if jdk.incubator.vector is not available)
+	private static final ColumnKernels VECTOR_KERNELS = loadVectorKernels();
+
+	/**
+	 * calculates the Fitness of the compiled Individual
+	 * smaller fitness is better
+	 * @param program The compiled Individual
+	 * @param columns The Inputs that determine fitness
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(LinearProgram program, InputColumns columns) throws Exception {
+		return calculateFitness(program, columns, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * calculates the Fitness of the compiled Individual
+	 * smaller fitness is better
+	 * @param program The compiled Individual
+	 * @param columns The Inputs that determine fitness
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(LinearProgram program, InputColumns columns, int maxFitness)
+			throws Exception {
+		return calculateFitness(program, columns, maxFitness, null);
+	}
+
+	/**
+	 * determines the samples the compiled Individual classifies wrong
+	 * @param program The compiled Individual
+	 * @param columns The Inputs
+	 * @return The samples that are classified wrong
+	 * @throws Exception if something unexpected happens
+	 */
+	public static SampleMistakes getMistakes(LinearProgram program, InputColumns columns) throws Exception {
+		long[] wrong = new long[(columns.getNrOfSamples() + 63) >>> 6];
+		calculateFitness(program, columns, Integer.MAX_VALUE, wrong);
+		return new SampleMistakes(columns, wrong);
+	}
+
+	/**
+	 * calculates the Fitness of the compiled Individual
+	 * @param wrong bit s is set if sample s is classified wrong (null if not needed)
+	 */
+	private static int calculateFitness(LinearProgram program, InputColumns columns, int maxFitness,
+			long[] wrong) throws Exception {
+		if (program.getInputAmount() != columns.getInputAmount()) {
+			throw new Exception("gegebene InputLnge entspricht nicht der angegebenen InputLnge des Individuums");
+		}
+		int tileSize = getTileSize(program.getRegisterAmount());
+		double[][] registers = new double[program.getRegisterAmount()][tileSize];
+		double[] output = new double[program.getOutputAmount()];
+
+		int[] inputIndex = program.getInputIndex();
+		int[] function = program.getFunction();
+		int[] source1 = program.getSource1();
+		int[] source2 = program.getSource2();
+		int[] destination = program.getDestination();
+		int[] outputRegister = program.getOutputRegister();
+		ColumnKernels kernels = getKernels();
+
+		int sum = 0;
+		for (int start = 0; start < columns.getNrOfSamples(); start += tileSize) {
+			int length = Math.min(tileSize, columns.getNrOfSamples() - start);
+			// load the used Inputs of the tile
+			for (int r = 0; r < inputIndex.length; r++) {
+				int[] column = columns.getColumn(inputIndex[r]);
+				double[] register = registers[r];
+				for (int s = 0; s < length; s++) {
+					register[s] = column[start + s];
+				}
+			}
+			// calculate every Instruction for the whole tile
+			for (int i = 0; i < function.length; i++) {
+				kernels.getResultsForFunction(program.getFunctionSet(), registers[source1[i]],
+						registers[source2[i]], registers[destination[i]], length, function[i]);
+			}
+			// increment sum for each mistake in identification
+			for (int s = 0; s < length; s++) {
+				for (int o = 0; o < outputRegister.length; o++) {
+					output[o] = registers[outputRegister[o]][s];
+				}
+				int mistake = ComputeOutput.computeOutputAndClassification(output, columns.getClassification(start + s));
+				if (wrong != null && mistake != 0) {
+					wrong[(start + s) >>> 6] |= 1L << (start + s);
+				}
+				sum += mistake;
+			}
+			if (sum > maxFitness) {
+				return sum;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * chooses the number of samples per tile
+	 * so that all registers fit into the cache
+	 * @param registerAmount The number of registers of the Program
+	 * @return The tile size (multiple of 64)
+	 */
+	static int getTileSize(int registerAmount) {
+		int tileSize = CACHE_SIZE / (Math.max(registerAmount, 1) * 8);
+		tileSize -= tileSize % 64;
+		return Math.max(MIN_TILE_SIZE, Math.min(MAX_TILE_SIZE, tileSize));
+	}
+
+	/**
+	 * @return The kernels that are used to calculate the Instructions (chosen by useVectorKernels)
+	 */
+	static ColumnKernels getKernels() {
+		if (useVectorKernels && VECTOR_KERNELS != null) {
+			return VECTOR_KERNELS;
+		}
+		return SCALAR_KERNELS;
+	}
+
+	/**
+	 * @return if the Vector API kernels can be used
+	 */
+	public static boolean isVectorApiAvailable() {
+		return VECTOR_KERNELS != null;
+	}
+
+	/**
+	 * loads the VectorColumnKernels by reflection,
+	 * so that this class also works without the module jdk.incubator.vector
+	 * (the class is compiled separately from src-vector and is only on the classpath if it has been compiled)
+	 * @return The kernels or null if the module or the class is not available
+	 */
+	private static ColumnKernels loadVectorKernels() {
+		if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			return null;
+		}
+		try {
+			return (ColumnKernels) Class.forName("evaluation.VectorColumnKernels").getDeclaredConstructor()
+					.newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+}
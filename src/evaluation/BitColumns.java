@@ -0,0 +1,98 @@
+package evaluation;
+
+/**
+ * The Inputs of a data set packed into bits
+ * one long contains the values of one Input for 64 samples
+ * bit (s%64) of column[i][s/64] is set if Input i of sample s is 1
+ *
+ * used to calculate the functions of functionSet 5 for 64 samples at once
+ */
+public class BitColumns {
+
+	// number of samples
+	private final int nrOfSamples;
+	// number of longs per column
+	private final int nrOfWords;
+	// one packed column per Input
+	private final long[][] columns;
+	// if all Inputs are 0 or 1
+	private final boolean binary;
+	// classMask[c] = bits of the samples with classification c (0-9)
+	private final long[][] classMask;
+	// if all classifications are in [0,9]
+	private final boolean digitClassifications;
+
+	/**
+	 * packs the given columns into bits
+	 * @param inputColumns The Inputs stored in columns
+	 */
+	public BitColumns(InputColumns inputColumns) {
+		this.nrOfSamples = inputColumns.getNrOfSamples();
+		this.nrOfWords = (nrOfSamples + 63) / 64;
+		this.columns = new long[inputColumns.getInputAmount()][nrOfWords];
+
+		boolean allBinary = true;
+		for (int i = 0; i < columns.length; i++) {
+			int[] column = inputColumns.getColumn(i);
+			long[] packed = columns[i];
+			for (int s = 0; s < nrOfSamples; s++) {
+				if (column[s] == 1) {
+					packed[s >>> 6] |= 1L << s;
+				} else if (column[s] != 0) {
+					allBinary = false;
+				}
+			}
+		}
+		this.binary = allBinary;
+
+		boolean allDigits = true;
+		this.classMask = new long[10][nrOfWords];
+		for (int s = 0; s < nrOfSamples; s++) {
+			int classification = inputColumns.getClassification(s);
+			if (classification < 0 || classification > 9) {
+				allDigits = false;
+			} else {
+				classMask[classification][s >>> 6] |= 1L << s;
+			}
+		}
+		this.digitClassifications = allDigits;
+	}
+
+	public int getNrOfSamples() {
+		return nrOfSamples;
+	}
+
+	public int getNrOfWords() {
+		return nrOfWords;
+	}
+
+	/**
+	 * @param input The Index of the Input
+	 * @return The packed values of the Input for all samples
+	 */
+	public long[] getColumn(int input) {
+		return columns[input];
+	}
+
+	/**
+	 * @param classification The classification (0-9)
+	 * @return The bits of all samples with this classification
+	 */
+	public long[] getClassMask(int classification) {
+		return classMask[classification];
+	}
+
+	/**
+	 * @return if all Inputs are 0 or 1
+	 */
+	public boolean isBinary() {
+		return binary;
+	}
+
+	/**
+	 * @return if all classifications are in [0,9]
+	 */
+	public boolean hasDigitClassifications() {
+		return digitClassifications;
+	}
+}
@@ -0,0 +1,167 @@
+package evaluation;
+
+/**
+ * Class for calculating the Fitness of a compiled Individual
+ * that uses functionSet 5 (AND, OR, NOT)
+ *
+ * The Inputs of 64 samples are packed into one long,
+ * so every Instruction is one bitwise operation for 64 samples
+ * and the correct classifications are counted with Long.bitCount
+ */
+public class BitParallelEvaluator {
+
+	// number of longs (64 samples each) that are calculated at once
+	static final int TILE_WORDS = 64;
+
+	/**
+	 * checks if the Fitness of the Program can be calculated bit-parallel
+	 * (functionSet 5, 1 or 4 Outputs and classifications in [0,9])
+	 * Outputs that read an Input directly are only allowed if all Inputs are 0 or 1
+	 * @param program The compiled Individual
+	 * @param bits The packed Inputs
+	 * @return if calculateFitness gives the same result as the BatchEvaluator
+	 */
+	public static boolean canCalculate(LinearProgram program, BitColumns bits) {
+		if (program.getFunctionSet() != 5) {
+			return false;
+		}
+		if (program.getOutputAmount() != 1 && program.getOutputAmount() != 4) {
+			return false;
+		}
+		if (!bits.hasDigitClassifications()) {
+			return false;
+		}
+		if (!bits.isBinary()) {
+			for (int register : program.getOutputRegister()) {
+				if (register < program.getInputIndex().length) {
+					// Output would need the exact value of the Input
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * calculates the Fitness of the compiled Individual
+	 * smaller fitness is better
+	 * (use canCalculate first)
+	 * @param program The compiled Individual
+	 * @param bits The packed Inputs that determine fitness
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 */
+	public static int calculateFitness(LinearProgram program, BitColumns bits) {
+		return calculateFitness(program, bits, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * calculates the Fitness of the compiled Individual
+	 * smaller fitness is better
+	 * (use canCalculate first)
+	 * @param program The compiled Individual
+	 * @param bits The packed Inputs that determine fitness
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 */
+	public static int calculateFitness(LinearProgram program, BitColumns bits, int maxFitness) {
+		long[][] registers = new long[program.getRegisterAmount()][TILE_WORDS];
+
+		int[] inputIndex = program.getInputIndex();
+		int[] function = program.getFunction();
+		int[] source1 = program.getSource1();
+		int[] source2 = program.getSource2();
+		int[] destination = program.getDestination();
+		int[] outputRegister = program.getOutputRegister();
+
+		int correct = 0;
+		for (int start = 0; start < bits.getNrOfWords(); start += TILE_WORDS) {
+			int length = Math.min(TILE_WORDS, bits.getNrOfWords() - start);
+			// load the used Inputs of the tile
+			for (int r = 0; r < inputIndex.length; r++) {
+				System.arraycopy(bits.getColumn(inputIndex[r]), start, registers[r], 0, length);
+			}
+			// calculate every Instruction for the whole tile
+			for (int i = 0; i < function.length; i++) {
+				calculateInstruction(function[i], registers[source1[i]], registers[source2[i]],
+						registers[destination[i]], length);
+			}
+			// count the correct classifications
+			if (outputRegister.length == 1) {
+				correct += countCorrectSingleOutput(registers[outputRegister[0]], bits, start, length);
+			} else {
+				correct += countCorrectBinaryOutputs(registers, outputRegister, bits, start, length);
+			}
+			int mistakes = Math.min((start + length) * 64, bits.getNrOfSamples()) - correct;
+			if (mistakes > maxFitness) {
+				return mistakes;
+			}
+		}
+		// increment fitness for each mistake in identification
+		return bits.getNrOfSamples() - correct;
+	}
+
+	/**
+	 * calculates one function of functionSet 5 for packed values
+	 */
+	private static void calculateInstruction(int functionNr, long[] in1, long[] in2, long[] out, int length) {
+		switch (functionNr) {
+		case 1:// AND
+			for (int w = 0; w < length; w++)
+				out[w] = in1[w] & in2[w];
+			return;
+		case 2:// OR
+			for (int w = 0; w < length; w++)
+				out[w] = in1[w] | in2[w];
+			return;
+		case 3:// NOT
+			for (int w = 0; w < length; w++)
+				out[w] = ~in1[w];
+			return;
+		default:
+			throw new IllegalArgumentException("Function is not known");
+		}
+	}
+
+	/**
+	 * counts the samples where the Output equals the classification
+	 * (one Output: 0 or 1)
+	 */
+	private static int countCorrectSingleOutput(long[] output, BitColumns bits, int start, int length) {
+		long[] zero = bits.getClassMask(0);
+		long[] one = bits.getClassMask(1);
+		int correct = 0;
+		for (int w = 0; w < length; w++) {
+			correct += Long.bitCount((output[w] & one[start + w]) | (~output[w] & zero[start + w]));
+		}
+		return correct;
+	}
+
+	/**
+	 * counts the samples where the 4 Outputs (binary number, Output 0 is the highest bit)
+	 * equal the classification
+	 */
+	private static int countCorrectBinaryOutputs(long[][] registers, int[] outputRegister, BitColumns bits,
+			int start, int length) {
+		long[] o0 = registers[outputRegister[0]];
+		long[] o1 = registers[outputRegister[1]];
+		long[] o2 = registers[outputRegister[2]];
+		long[] o3 = registers[outputRegister[3]];
+		int correct = 0;
+		for (int classification = 0; classification < 10; classification++) {
+			long[] mask = bits.getClassMask(classification);
+			for (int w = 0; w < length; w++) {
+				long match = mask[start + w];
+				if (match == 0) {
+					continue;
+				}
+				match &= ((classification & 8) != 0) ? o0[w] : ~o0[w];
+				match &= ((classification & 4) != 0) ? o1[w] : ~o1[w];
+				match &= ((classification & 2) != 0) ? o2[w] : ~o2[w];
+				match &= ((classification & 1) != 0) ? o3[w] : ~o3[w];
+				correct += Long.bitCount(match);
+			}
+		}
+		return correct;
+	}
+}
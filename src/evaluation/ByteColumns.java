@@ -0,0 +1,98 @@
+package evaluation;
+
+/**
+ * The Inputs of a data set packed into bytes
+ * one long contains the values of one Input for 8 samples
+ * byte (s%8) of column[i][s/8] is the value of Input i of sample s
+ *
+ * used to calculate the functions of functionSet 3 and 4 for 8 samples at once
+ * (only possible if all Inputs are in [0,255])
+ */
+public class ByteColumns {
+
+	// number of samples
+	private final int nrOfSamples;
+	// number of longs per column
+	private final int nrOfWords;
+	// one packed column per Input (null if the Inputs don't fit into bytes)
+	private final long[][] columns;
+	// highest value of every Input
+	private final int[] maxValue;
+	// the packed classifications (only if all are in [0,255])
+	private final long[] classifications;
+
+	/**
+	 * packs the given columns into bytes
+	 * @param inputColumns The Inputs stored in columns
+	 */
+	public ByteColumns(InputColumns inputColumns) {
+		this.nrOfSamples = inputColumns.getNrOfSamples();
+		this.nrOfWords = (nrOfSamples + 7) / 8;
+
+		long[][] packedColumns = new long[inputColumns.getInputAmount()][nrOfWords];
+		this.maxValue = new int[inputColumns.getInputAmount()];
+		boolean inRange = true;
+		for (int i = 0; i < packedColumns.length && inRange; i++) {
+			int[] column = inputColumns.getColumn(i);
+			long[] packed = packedColumns[i];
+			for (int s = 0; s < nrOfSamples; s++) {
+				if (column[s] < 0 || column[s] > 255) {
+					inRange = false;
+					break;
+				}
+				packed[s >>> 3] |= ((long) column[s]) << ((s & 7) * 8);
+				maxValue[i] = Math.max(maxValue[i], column[s]);
+			}
+		}
+		this.columns = inRange ? packedColumns : null;
+
+		long[] packedClassifications = new long[nrOfWords];
+		for (int s = 0; s < nrOfSamples && packedClassifications != null; s++) {
+			int classification = inputColumns.getClassification(s);
+			if (classification < 0 || classification > 255) {
+				packedClassifications = null;
+			} else {
+				packedClassifications[s >>> 3] |= ((long) classification) << ((s & 7) * 8);
+			}
+		}
+		this.classifications = packedClassifications;
+	}
+
+	public int getNrOfSamples() {
+		return nrOfSamples;
+	}
+
+	public int getNrOfWords() {
+		return nrOfWords;
+	}
+
+	/**
+	 * @return if all Inputs are in [0,255]
+	 */
+	public boolean isByteRange() {
+		return columns != null;
+	}
+
+	/**
+	 * @param input The Index of the Input
+	 * @return The packed values of the Input for all samples
+	 */
+	public long[] getColumn(int input) {
+		return columns[input];
+	}
+
+	/**
+	 * @param input The Index of the Input
+	 * @return The highest value of the Input over all samples
+	 */
+	public int getMaxValue(int input) {
+		return maxValue[input];
+	}
+
+	/**
+	 * @return The packed classifications (null if a classification is not in [0,255])
+	 */
+	public long[] getClassifications() {
+		return classifications;
+	}
+}
@@ -0,0 +1,513 @@
+package evaluation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cartesianNetwork.Individual;
+
+/**
+ * Compiles the used Nodes of an Individual into JVM-Bytecode
+ *
+ * The LinearProgram of the Individual is translated into one straight-line method
+ * (every register is a local variable), so the JIT can inline the whole expression.
+ * The class is loaded as a hidden class (MethodHandles.Lookup.defineHiddenClass),
+ * so it can be unloaded as soon as no Individual uses it anymore.
+ *
+ * Compiled classes are cached per phenotype (equal LinearPrograms),
+ * the cache only holds weak references to them.
+ * The Individual holds the strong reference (see Individual.getCompiledProgram).
+ */
+public class BytecodeCompiler {
+
+	// methods with more bytes are not compiled by the JIT (-XX:HugeMethodLimit)
+	static final int MAX_METHOD_SIZE = 8000;
+
+	// name of the generated classes (has to be in the package of this class)
+	private static final String CLASS_NAME = "evaluation/CompiledIndividual";
+	// local variable of the first register (0 = this, 1 = input, 2 = outputs)
+	private static final int FIRST_REGISTER = 3;
+
+	// opcodes
+	private static final int ICONST_0 = 0x03;
+	private static final int BIPUSH = 0x10;
+	private static final int SIPUSH = 0x11;
+	private static final int LDC_W = 0x13;
+	private static final int LDC2_W = 0x14;
+	private static final int DLOAD = 0x18;
+	private static final int ALOAD_0 = 0x2a;
+	private static final int ALOAD_1 = 0x2b;
+	private static final int ALOAD_2 = 0x2c;
+	private static final int IALOAD = 0x2e;
+	private static final int DSTORE = 0x39;
+	private static final int DASTORE = 0x52;
+	private static final int DADD = 0x63;
+	private static final int DSUB = 0x67;
+	private static final int DMUL = 0x6b;
+	private static final int DDIV = 0x6f;
+	private static final int I2D = 0x87;
+	private static final int RETURN = 0xb1;
+	private static final int INVOKESPECIAL = 0xb7;
+	private static final int INVOKESTATIC = 0xb8;
+	private static final int WIDE = 0xc4;
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	// compiled Programs by phenotype
+	private static final Map<LinearProgram, ProgramReference> cache = new ConcurrentHashMap<>();
+	// Programs that are not used by any Individual anymore
+	private static final ReferenceQueue<CompiledProgram> unusedPrograms = new ReferenceQueue<>();
+
+	/**
+	 * compiles the Individual into Bytecode
+	 * (or returns the Program that has already been compiled for the Individual)
+	 * @param indiv The Individual
+	 * @return The compiled Individual or null if the Individual is too big to be compiled
+	 * @throws Exception if something unexpected happens
+	 */
+	public static CompiledProgram compile(Individual indiv) throws Exception {
+		if (indiv.getCompiledProgram() != null) {
+			return indiv.getCompiledProgram();
+		}
+		CompiledProgram compiled = compile(LinearProgram.compile(indiv));
+		indiv.setCompiledProgram(compiled);
+		return compiled;
+	}
+
+	/**
+	 * compiles the Program into Bytecode
+	 * (a Program with the same phenotype is only compiled once, as long as it is used)
+	 * @param program The compiled Individual
+	 * @return The compiled Program or null if the Program is too big to be compiled
+	 */
+	public static CompiledProgram compile(LinearProgram program) {
+		removeUnusedPrograms();
+		ProgramReference reference = cache.get(program);
+		CompiledProgram compiled = (reference == null) ? null : reference.get();
+		if (compiled != null) {
+			return compiled;
+		}
+		byte[] classFile = createClassFile(program);
+		if (classFile == null) {
+			return null;
+		}
+		compiled = loadClass(classFile);
+		cache.put(program, new ProgramReference(program, compiled, unusedPrograms));
+		return compiled;
+	}
+
+	/**
+	 * @return The number of phenotypes in the cache
+	 */
+	static int getNrOfCachedPrograms() {
+		removeUnusedPrograms();
+		return cache.size();
+	}
+
+	/**
+	 * removes the Programs from the cache that have been garbage collected
+	 */
+	private static void removeUnusedPrograms() {
+		ProgramReference reference;
+		while ((reference = (ProgramReference) unusedPrograms.poll()) != null) {
+			cache.remove(reference.program, reference);
+		}
+	}
+
+	/**
+	 * loads the class as hidden class and creates an instance
+	 */
+	private static CompiledProgram loadClass(byte[] classFile) {
+		try {
+			MethodHandles.Lookup lookup = LOOKUP.defineHiddenClass(classFile, true);
+			return (CompiledProgram) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class))
+					.invoke();
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			throw new IllegalStateException("compiled Individual could not be loaded", e);
+		}
+	}
+
+	/**
+	 * creates a class that implements CompiledProgram for the Program
+	 * @param program The compiled Individual
+	 * @return The class file or null if the method would be too big
+	 */
+	static byte[] createClassFile(LinearProgram program) {
+		int maxLocals = FIRST_REGISTER + 2 * program.getRegisterAmount();
+		if (maxLocals > 0xFFFF) {
+			return null;
+		}
+		ConstantPool pool = new ConstantPool();
+		int thisClass = pool.classRef(CLASS_NAME);
+		int superClass = pool.classRef("java/lang/Object");
+		int interfaceClass = pool.classRef("evaluation/CompiledProgram");
+		int code = pool.utf8("Code");
+		int constructorName = pool.utf8("<init>");
+		int constructorDescriptor = pool.utf8("()V");
+		int calculateName = pool.utf8("calculate");
+		int calculateDescriptor = pool.utf8("([I[D)V");
+
+		Code constructor = new Code(pool);
+		constructor.op(ALOAD_0);
+		constructor.op(INVOKESPECIAL);
+		constructor.u2(pool.methodRef("java/lang/Object", "<init>", "()V"));
+		constructor.op(RETURN);
+
+		Code calculate = createCalculateMethod(program, pool);
+		if (calculate.size() > MAX_METHOD_SIZE) {
+			return null;
+		}
+
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(calculate.size() + 512);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeInt(0xCAFEBABE);
+			// class file version 52 (straight-line code does not need a StackMapTable)
+			out.writeShort(0);
+			out.writeShort(52);
+			pool.write(out);
+			// ACC_PUBLIC | ACC_FINAL | ACC_SUPER
+			out.writeShort(0x0031);
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			out.writeShort(1);
+			out.writeShort(interfaceClass);
+			// no fields
+			out.writeShort(0);
+			out.writeShort(2);
+			writeMethod(out, constructorName, constructorDescriptor, code, constructor, 1, 1);
+			writeMethod(out, calculateName, calculateDescriptor, code, calculate, 6, maxLocals);
+			// no class attributes
+			out.writeShort(0);
+			out.flush();
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * creates the method calculate(int[] input, double[] outputs)
+	 */
+	private static Code createCalculateMethod(LinearProgram program, ConstantPool pool) {
+		Code code = new Code(pool);
+		// load the used Inputs into their registers
+		int[] inputIndex = program.getInputIndex();
+		for (int r = 0; r < inputIndex.length; r++) {
+			code.op(ALOAD_1);
+			code.pushInt(inputIndex[r]);
+			code.op(IALOAD);
+			code.op(I2D);
+			code.local(DSTORE, getLocal(r));
+		}
+		// every Instruction
+		int[] function = program.getFunction();
+		int[] source1 = program.getSource1();
+		int[] source2 = program.getSource2();
+		int[] destination = program.getDestination();
+		for (int i = 0; i < function.length; i++) {
+			if (!addInlineFunction(code, program.getFunctionSet(), function[i], getLocal(source1[i]),
+					getLocal(source2[i]))) {
+				code.pushInt(program.getFunctionSet());
+				code.local(DLOAD, getLocal(source1[i]));
+				code.local(DLOAD, getLocal(source2[i]));
+				code.pushInt(function[i]);
+				code.op(INVOKESTATIC);
+				code.u2(pool.methodRef("helperClasses/Functions", "getResultForFunction", "(IDDI)D"));
+			}
+			code.local(DSTORE, getLocal(destination[i]));
+		}
+		// write the Outputs
+		int[] outputRegister = program.getOutputRegister();
+		for (int o = 0; o < outputRegister.length; o++) {
+			code.op(ALOAD_2);
+			code.pushInt(o);
+			code.local(DLOAD, getLocal(outputRegister[o]));
+			code.op(DASTORE);
+		}
+		code.op(RETURN);
+		return code;
+	}
+
+	/**
+	 * @return The local variable of the register (doubles need 2 local variables)
+	 */
+	private static int getLocal(int register) {
+		return FIRST_REGISTER + 2 * register;
+	}
+
+	/**
+	 * adds the bytecode of simple functions directly
+	 * (same results as Functions.getResultForFunction)
+	 * @return false if the function has to be called
+	 */
+	private static boolean addInlineFunction(Code code, int functionSet, int functionNr, int in1, int in2) {
+		if (functionSet != 1 && functionSet != 2 && functionSet != 6) {
+			return false;
+		}
+		switch (functionNr) {
+		case 1:// ADD
+			return addOperation(code, in1, in2, DADD);
+		case 2:// SUB
+			return addOperation(code, in1, in2, DSUB);
+		case 3:// MULT
+			return addOperation(code, in1, in2, DMUL);
+		}
+		if (functionSet == 2) {
+			switch (functionNr) {
+			case 5:// ADD CONST
+				return addConstantOperation(code, in1, 255, DADD);
+			case 6:// SUB CONST
+				return addConstantOperation(code, in1, 255, DSUB);
+			case 7:// DIV CONST
+				return addConstantOperation(code, in1, 255, DDIV);
+			case 8:// SQRT
+				return addMathCall(code, "sqrt", in1, -1);
+			case 13:// NOP
+				code.local(DLOAD, in1);
+				return true;
+			case 14:// CONST
+				code.pushDouble(255);
+				return true;
+			case 15:// ABS
+				return addMathCall(code, "abs", in1, -1);
+			case 16:// MIN
+				return addMathCall(code, "min", in1, in2);
+			case 17:// MAX
+				return addMathCall(code, "max", in1, in2);
+			}
+		}
+		if (functionSet == 6) {
+			switch (functionNr) {
+			case 5:// ADD CONST
+				return addConstantOperation(code, in1, 1, DADD);
+			case 6:// SUB CONST
+				return addConstantOperation(code, in1, 1, DSUB);
+			case 7:// DIV CONST
+				return addConstantOperation(code, in1, 2, DDIV);
+			case 8:// SQRT
+				return addMathCall(code, "sqrt", in1, -1);
+			case 12:// NOP
+				code.local(DLOAD, in1);
+				return true;
+			case 13:// CONST
+				code.pushDouble(1);
+				return true;
+			case 14:// ABS
+				return addMathCall(code, "abs", in1, -1);
+			case 15:// MIN
+				return addMathCall(code, "min", in1, in2);
+			case 16:// MAX
+				return addMathCall(code, "max", in1, in2);
+			}
+		}
+		return false;
+	}
+
+	private static boolean addOperation(Code code, int in1, int in2, int opcode) {
+		code.local(DLOAD, in1);
+		code.local(DLOAD, in2);
+		code.op(opcode);
+		return true;
+	}
+
+	private static boolean addConstantOperation(Code code, int in1, double constant, int opcode) {
+		code.local(DLOAD, in1);
+		code.pushDouble(constant);
+		code.op(opcode);
+		return true;
+	}
+
+	/**
+	 * calls a method of java.lang.Math with one (in2 = -1) or two double arguments
+	 */
+	private static boolean addMathCall(Code code, String method, int in1, int in2) {
+		code.local(DLOAD, in1);
+		if (in2 >= 0) {
+			code.local(DLOAD, in2);
+		}
+		code.op(INVOKESTATIC);
+		code.u2(code.pool.methodRef("java/lang/Math", method, (in2 >= 0) ? "(DD)D" : "(D)D"));
+		return true;
+	}
+
+	private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeAttribute, Code code,
+			int maxStack, int maxLocals) throws IOException {
+		// ACC_PUBLIC
+		out.writeShort(0x0001);
+		out.writeShort(name);
+		out.writeShort(descriptor);
+		out.writeShort(1);
+		out.writeShort(codeAttribute);
+		out.writeInt(12 + code.size());
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(code.size());
+		out.write(code.bytes, 0, code.size());
+		// no exceptions and no attributes
+		out.writeShort(0);
+		out.writeShort(0);
+	}
+
+	/**
+	 * The bytecode of one method
+	 */
+	private static class Code {
+		private final ConstantPool pool;
+		private byte[] bytes = new byte[256];
+		private int size = 0;
+
+		Code(ConstantPool pool) {
+			this.pool = pool;
+		}
+
+		int size() {
+			return size;
+		}
+
+		void op(int value) {
+			if (size == bytes.length) {
+				byte[] bigger = new byte[bytes.length * 2];
+				System.arraycopy(bytes, 0, bigger, 0, size);
+				bytes = bigger;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		void u2(int value) {
+			op(value >>> 8);
+			op(value);
+		}
+
+		/**
+		 * loads or stores a local variable (with WIDE if the index does not fit into a byte)
+		 */
+		void local(int opcode, int index) {
+			if (index > 0xFF) {
+				op(WIDE);
+				op(opcode);
+				u2(index);
+			} else {
+				op(opcode);
+				op(index);
+			}
+		}
+
+		void pushInt(int value) {
+			if (value >= -1 && value <= 5) {
+				op(ICONST_0 + value);
+			} else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+				op(BIPUSH);
+				op(value);
+			} else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+				op(SIPUSH);
+				u2(value);
+			} else {
+				op(LDC_W);
+				u2(pool.integer(value));
+			}
+		}
+
+		void pushDouble(double value) {
+			op(LDC2_W);
+			u2(pool.doubleConstant(value));
+		}
+	}
+
+	/**
+	 * The constant pool of the generated class
+	 * (every constant is only added once)
+	 */
+	private static class ConstantPool {
+		private final Map<String, Integer> indices = new HashMap<>();
+		private final ArrayList<byte[]> entries = new ArrayList<>();
+		// next free index (doubles need two indices)
+		private int nextIndex = 1;
+
+		int utf8(String value) {
+			return add("U" + value, 1, 1, out -> out.writeUTF(value));
+		}
+
+		int classRef(String name) {
+			int nameIndex = utf8(name);
+			return add("C" + name, 7, 1, out -> out.writeShort(nameIndex));
+		}
+
+		int methodRef(String owner, String name, String descriptor) {
+			int ownerIndex = classRef(owner);
+			int nameIndex = utf8(name);
+			int descriptorIndex = utf8(descriptor);
+			int nameAndType = add("N" + name + ":" + descriptor, 12, 1, out -> {
+				out.writeShort(nameIndex);
+				out.writeShort(descriptorIndex);
+			});
+			return add("M" + owner + "." + name + ":" + descriptor, 10, 1, out -> {
+				out.writeShort(ownerIndex);
+				out.writeShort(nameAndType);
+			});
+		}
+
+		int integer(int value) {
+			return add("I" + value, 3, 1, out -> out.writeInt(value));
+		}
+
+		int doubleConstant(double value) {
+			return add("D" + Double.doubleToLongBits(value), 6, 2,
+					out -> out.writeLong(Double.doubleToLongBits(value)));
+		}
+
+		private int add(String key, int tag, int slots, Entry entry) {
+			Integer index = indices.get(key);
+			if (index != null) {
+				return index;
+			}
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				DataOutputStream out = new DataOutputStream(bytes);
+				out.writeByte(tag);
+				entry.write(out);
+				out.flush();
+				entries.add(bytes.toByteArray());
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+			int newIndex = nextIndex;
+			nextIndex += slots;
+			indices.put(key, newIndex);
+			return newIndex;
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			out.writeShort(nextIndex);
+			for (byte[] entry : entries) {
+				out.write(entry);
+			}
+		}
+
+		private interface Entry {
+			void write(DataOutputStream out) throws IOException;
+		}
+	}
+
+	/**
+	 * weak reference to a compiled Program that knows its key in the cache
+	 */
+	private static class ProgramReference extends WeakReference<CompiledProgram> {
+		private final LinearProgram program;
+
+		ProgramReference(LinearProgram program, CompiledProgram compiled, ReferenceQueue<CompiledProgram> queue) {
+			super(compiled, queue);
+			this.program = program;
+		}
+	}
+}
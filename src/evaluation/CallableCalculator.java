@@ -3,7 +3,7 @@ package evaluation;
 import java.util.ArrayList;
 import java.util.concurrent.Callable;
 import cartesianNetwork.Individual;
-import helperClasses.InputWithClassification;
+import helperClasses.DataSet;
 
 /**
  * Class for Calculating the Fitness of the Individual with Threading
@@ -14,7 +14,12 @@ import helperClasses.InputWithClassification;
 public class CallableCalculator implements Callable<Integer> {
 	Individual indiv;
 	ArrayList<Individual> parents;
-	ArrayList<InputWithClassification> inputs;
+	DataSet inputs;
+	InputColumns columns;
+	// cache for the Fitness of already evaluated phenotypes (null if no cache is used)
+	FitnessCache fitnessCache;
+	// the calculation stops as soon as the Fitness is bigger than this value
+	int maxFitness = Integer.MAX_VALUE;
 
 	/**
 	 * Smaller fitness is better calculates the fitness for the given Value 0 if
@@ -29,22 +34,83 @@ public class CallableCalculator implements Callable<Integer> {
 	 *            The List of Parent of the Individual (null if you don't want
 	 *            to assign individual with same UsedNodes- same Fitness)
 	 */
-	public CallableCalculator(ArrayList<Individual> parents, Individual indiv,
-			ArrayList<InputWithClassification> inputs) {
+	public CallableCalculator(ArrayList<Individual> parents, Individual indiv, DataSet inputs) {
 		this.indiv = indiv;
 		this.inputs = inputs;
 		this.parents = parents;
 	}
 
+	/**
+	 * Smaller fitness is better calculates the fitness for the given Value 0 if
+	 * Output is correct higher if it isn't (+1 for each misidentification) of
+	 * the data set (the Inputs are calculated column by column)
+	 * 
+	 * @param indiv
+	 *            the Individual for which the fitness shouls be calculated
+	 * @param columns
+	 *            the InputData stored in columns
+	 * @param parents
+	 *            The List of Parent of the Individual (null if you don't want
+	 *            to assign individual with same UsedNodes- same Fitness)
+	 */
+	public CallableCalculator(ArrayList<Individual> parents, Individual indiv, InputColumns columns) {
+		this.indiv = indiv;
+		this.columns = columns;
+		this.parents = parents;
+	}
+
+	/**
+	 * @param fitnessCache The cache that is asked before the Fitness is calculated
+	 *            and that stores the calculated Fitness (null if no cache should be used)
+	 */
+	public void setFitnessCache(FitnessCache fitnessCache) {
+		this.fitnessCache = fitnessCache;
+	}
+
+	/**
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 *            (the result is then only a lower bound bigger than maxFitness)
+	 */
+	public void setMaxFitness(int maxFitness) {
+		this.maxFitness = maxFitness;
+	}
+
 	/**
 	 * calculates Fitness of the Individual should be used in Threads to speed
 	 * up Evaluation
 	 */
 	public Integer call() throws Exception {
-		if (parents == null) {
-			return FitnessCalculator.calculateFitness(indiv, inputs);
-		} else {
-			return FitnessCalculator.calculateFitness(parents, indiv, inputs);
+		if (fitnessCache == null) {
+			return calculateFitness(null);
+		}
+		// the program the key is created from is used for the calculation as well
+		LinearProgram program = LinearProgram.compile(indiv);
+		PhenotypeKey key = PhenotypeKey.create(program);
+		Integer fitness = fitnessCache.get(key);
+		if (fitness == null) {
+			fitness = calculateFitness(program);
+			if (fitness <= maxFitness) {
+				// lower bounds are not stored
+				fitnessCache.put(key, fitness);
+			}
+		}
+		return fitness;
+	}
+
+	/**
+	 * calculates the Fitness without using the cache
+	 * @param program The compiled Individual (null if it has not been compiled yet)
+	 */
+	private int calculateFitness(LinearProgram program) throws Exception {
+		if (parents != null) {
+			Individual parent = FitnessCalculator.getParentWithSameUsedNodes(parents, indiv);
+			if (parent != null) {
+				return parent.getFitness();
+			}
+		}
+		if (columns != null) {
+			return FitnessCalculator.calculateFitness(program, indiv, columns, maxFitness);
 		}
+		return FitnessCalculator.calculateFitness(program, indiv, inputs, maxFitness);
 	}
 }
@@ -0,0 +1,20 @@
+package evaluation;
+
+/**
+ * Calculates one function of a functionSet for a whole column of values
+ * (used by the BatchEvaluator for every Instruction of a tile)
+ */
+interface ColumnKernels {
+
+	/**
+	 * calculates out[i] = function(in1[i], in2[i]) for the first length values
+	 * @param functionSet The used functionSet
+	 * @param in1 The first Inputs
+	 * @param in2 The second Inputs
+	 * @param out The array for the results
+	 * @param length The number of values
+	 * @param functionNr The function of the functionSet
+	 */
+	void getResultsForFunction(int functionSet, double[] in1, double[] in2, double[] out, int length,
+			int functionNr);
+}
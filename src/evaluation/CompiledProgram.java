@@ -0,0 +1,15 @@
+package evaluation;
+
+/**
+ * The used Nodes of an Individual compiled into JVM-Bytecode
+ * (the implementations are generated by the BytecodeCompiler)
+ */
+public interface CompiledProgram {
+
+	/**
+	 * calculates the Outputs of the Individual for one Input
+	 * @param input The Input (the length is not checked)
+	 * @param outputs The Array the Outputs are written to (length = number of Outputs)
+	 */
+	void calculate(int[] input, double[] outputs);
+}
@@ -1,6 +1,7 @@
 package evaluation;
 
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -8,7 +9,7 @@ import java.util.concurrent.ThreadLocalRandom;
 
 import cartesianNetwork.Evolution;
 import cartesianNetwork.Individual;
-import helperClasses.InputWithClassification;
+import helperClasses.DataSet;
 
 /**
  * Class for calculating fitness of Individual
@@ -17,6 +18,29 @@ import helperClasses.InputWithClassification;
  *
  */
 public class Evaluation {
+
+	// if the Fitness should be calculated column by column (BatchEvaluator)
+	// instead of one Input after another
+	static boolean useBatchEvaluation = true;
+
+	// if offspring whose mutations only changed genes the Parent doesn't use
+	// should get the Fitness of the Parent without calculating it
+	static boolean useNeutralMutationDetection = true;
+
+	// if the Fitness of already evaluated phenotypes should be taken from the FitnessCache of the Evolution
+	static boolean useFitnessCache = true;
+
+	// if the Fitness-Calculation of an offspring should stop as soon as it is worse than every Parent
+	// (the offspring only gets a lower bound of its Fitness, it can't be selected anyway)
+	static boolean useEarlyAbort = true;
+
+	// if the samples should be calculated in the order of the SampleSchedule of the Evolution
+	// (samples the Parents often classify wrong first, so the early abort happens sooner)
+	static boolean useSampleScheduling = true;
+
+	// if the samples should be read block by block from the data set (StreamingEvaluator)
+	// instead of storing all Inputs in columns (for data sets that don't fit into the heap)
+	static boolean useStreamingEvaluation = false;
 	
 	/**
 	 * Calculates the fittest Individuals of the given Population
@@ -31,11 +55,26 @@ public class Evaluation {
 	 * @throws Exception if something unexpected happens
 	 */
 	public static ArrayList<Individual> getXFittestIndividuals(Evolution callingObject, int x, boolean print, ArrayList<Individual> indivs,
-			ArrayList<InputWithClassification> inputs, ArrayList<Individual> parents, boolean precalcFitness) throws Exception {
+			DataSet inputs, ArrayList<Individual> parents, boolean precalcFitness) throws Exception {
 		if (print)
 			System.out.println("calculating Fittest individual out of " + indivs.size());
 		//assign every Individual a fitness
-		indivs = calculateFitnessThreading(parents, indivs, inputs, precalcFitness);
+		InputColumns columns = null;
+		if (useStreamingEvaluation) {
+			// the Inputs are read block by block
+		} else if (useBatchEvaluation && useSampleScheduling) {
+			columns = callingObject.getSampleSchedule().getColumns();
+		} else if (useBatchEvaluation) {
+			columns = callingObject.getInputColumns();
+		}
+		FitnessCache fitnessCache = null;
+		if (useFitnessCache) {
+			fitnessCache = callingObject.getFitnessCache();
+		}
+		indivs = calculateFitnessThreading(parents, indivs, inputs, columns, fitnessCache, precalcFitness);
+		if (print && fitnessCache != null) {
+			System.out.println(fitnessCache);
+		}
 		//get the x best Individuals out of this list
 		ArrayList<Individual> fittestIndivs;
 		if(parents == null){
@@ -56,6 +95,10 @@ public class Evaluation {
 				callingObject.solutionFound();
 			}
 		}
+		if (useBatchEvaluation && useSampleScheduling && !useStreamingEvaluation) {
+			// adapt the order of the samples to the new Parents
+			callingObject.getSampleSchedule().update(fittestIndivs);
+		}
 		return fittestIndivs;
 	}
 
@@ -64,34 +107,83 @@ public class Evaluation {
 	 * @param parents The Parents of the Generation
 	 * @param indiv The whole Population that should be evaluated
 	 * @param inputs the Inputs for Fitness-Calculation
+	 * @param columns the Inputs stored in columns (null if the Inputs should be calculated one after another
+	 *            or read block by block)
+	 * @param fitnessCache the cache for the Fitness of already evaluated phenotypes (null if no cache should be used)
 	 * @param precalcFitness if you want to calculate the Fitness by comparing Nodes
 	 * @return The Population with calculated Fitness-Values
 	 * @throws Exception if something unexpected happens
 	 */
 	private static ArrayList<Individual> calculateFitnessThreading(ArrayList<Individual> parents,
-			ArrayList<Individual> indiv, ArrayList<InputWithClassification> inputs, boolean precalcFitness) throws Exception {
+			ArrayList<Individual> indiv, DataSet inputs, InputColumns columns,
+			FitnessCache fitnessCache, boolean precalcFitness) throws Exception {
+		//offspring that are worse than every Parent are not selected, so their exact Fitness is not needed
+		int maxFitness = Integer.MAX_VALUE;
+		if (useEarlyAbort && parents != null) {
+			maxFitness = getWorstFitness(parents);
+		}
 		//executor for handling Threads
 		ExecutorService executor = Executors.newCachedThreadPool();
-		ArrayList<Future<Integer>> results = new ArrayList<>();
-		//add calculated fitness (or null if fitness already exists)
-		for (int i = 0; i < indiv.size(); i++) {
-			if (!(indiv.get(i).hasFitness())) {
-				if(precalcFitness){
-					results.add(executor.submit(new CallableCalculator(parents, indiv.get(i), inputs)));
-				}
-				else{
-					//add null as Parents so UsedNodes wont be compared
-					results.add(executor.submit(new CallableCalculator(null, indiv.get(i), inputs)));
+		ArrayList<Future<Integer>> results;
+		if (useStreamingEvaluation) {
+			results = calculateFitnessStreaming(parents, indiv, inputs, fitnessCache, precalcFitness, maxFitness,
+					executor);
+		} else {
+			results = new ArrayList<>();
+			//add calculated fitness (or null if fitness already exists)
+			for (int i = 0; i < indiv.size(); i++) {
+				if (!(indiv.get(i).hasFitness())) {
+					if (useNeutralMutationDetection && FitnessCalculator.hasOnlyNeutralMutations(indiv.get(i))) {
+						// the Fitness of the Parent is assigned below
+						results.add(null);
+					}
+					else {
+						CallableCalculator calculator;
+						if(columns != null){
+							if(precalcFitness){
+								calculator = new CallableCalculator(parents, indiv.get(i), columns);
+							}
+							else{
+								calculator = new CallableCalculator(null, indiv.get(i), columns);
+							}
+						}
+						else if(precalcFitness){
+							calculator = new CallableCalculator(parents, indiv.get(i), inputs);
+						}
+						else{
+							//add null as Parents so UsedNodes wont be compared
+							calculator = new CallableCalculator(null, indiv.get(i), inputs);
+						}
+						calculator.setFitnessCache(fitnessCache);
+						calculator.setMaxFitness(maxFitness);
+						results.add(executor.submit(calculator));
+					}
+				} else {
+					results.add(null);
 				}
-			} else {
-				results.add(null);
 			}
 		}
 		//assign fitnesses of Individuals
 		for (int i = 0; i < indiv.size(); i++) {
 			if (!(indiv.get(i).hasFitness())) {
-				indiv.get(i).setFitness(results.get(i).get());
-				System.out.println("Fitness of Individual: " + indiv.get(i).getFitness());
+				if (results.get(i) == null) {
+					FitnessCalculator.inheritFitness(indiv.get(i));
+				} else {
+					int fitness = results.get(i).get();
+					if (fitness > maxFitness) {
+						//calculation has been stopped
+						indiv.get(i).setFitnessLowerBound(fitness);
+					} else {
+						indiv.get(i).setFitness(fitness);
+					}
+				}
+				// the Parent is not needed anymore
+				indiv.get(i).clearOrigin();
+				if (indiv.get(i).isFitnessLowerBound()) {
+					System.out.println("Fitness of Individual: at least " + indiv.get(i).getFitness());
+				} else {
+					System.out.println("Fitness of Individual: " + indiv.get(i).getFitness());
+				}
 			}
 		}
 		//close all threads (or else they dont stop)
@@ -99,8 +191,84 @@ public class Evaluation {
 		return indiv;
 	}
 	
+	/**
+	 * Calculates the Fitness of all Individuals together block by block (StreamingEvaluator)
+	 * @param parents The Parents of the Generation
+	 * @param indiv The whole Population that should be evaluated
+	 * @param inputs the Inputs for Fitness-Calculation
+	 * @param fitnessCache the cache for the Fitness of already evaluated phenotypes (null if no cache should be used)
+	 * @param precalcFitness if you want to calculate the Fitness by comparing Nodes
+	 * @param maxFitness The calculation of an Individual stops as soon as its Fitness is bigger than this value
+	 * @param executor The Executor for calculating the Individuals in parallel
+	 * @return The calculated Fitness of every Individual (null if it already has a Fitness or inherits it)
+	 * @throws Exception if something unexpected happens
+	 */
+	private static ArrayList<Future<Integer>> calculateFitnessStreaming(ArrayList<Individual> parents,
+			ArrayList<Individual> indiv, DataSet inputs, FitnessCache fitnessCache, boolean precalcFitness,
+			int maxFitness, ExecutorService executor) throws Exception {
+		ArrayList<Future<Integer>> results = new ArrayList<>();
+		// Individuals that have to be calculated
+		ArrayList<Integer> pending = new ArrayList<>();
+		ArrayList<LinearProgram> programs = new ArrayList<>();
+		ArrayList<PhenotypeKey> keys = new ArrayList<>();
+		for (int i = 0; i < indiv.size(); i++) {
+			results.add(null);
+			if (indiv.get(i).hasFitness()) {
+				continue;
+			}
+			if (useNeutralMutationDetection && FitnessCalculator.hasOnlyNeutralMutations(indiv.get(i))) {
+				// the Fitness of the Parent is assigned later
+				continue;
+			}
+			if (precalcFitness && parents != null) {
+				Individual parent = FitnessCalculator.getParentWithSameUsedNodes(parents, indiv.get(i));
+				if (parent != null) {
+					results.set(i, CompletableFuture.completedFuture(parent.getFitness()));
+					continue;
+				}
+			}
+			LinearProgram program = LinearProgram.compile(indiv.get(i));
+			PhenotypeKey key = null;
+			if (fitnessCache != null) {
+				key = PhenotypeKey.create(program);
+				Integer fitness = fitnessCache.get(key);
+				if (fitness != null) {
+					results.set(i, CompletableFuture.completedFuture(fitness));
+					continue;
+				}
+			}
+			pending.add(i);
+			programs.add(program);
+			keys.add(key);
+		}
+		int[] fitness = StreamingEvaluator.calculateFitness(programs, inputs, maxFitness, executor);
+		for (int p = 0; p < pending.size(); p++) {
+			if (fitnessCache != null && fitness[p] <= maxFitness) {
+				// lower bounds are not stored
+				fitnessCache.put(keys.get(p), fitness[p]);
+			}
+			results.set(pending.get(p), CompletableFuture.completedFuture(fitness[p]));
+		}
+		return results;
+	}
+
+	/**
+	 * @param parents The Parents of the Generation
+	 * @return The highest (worst) Fitness of the Parents
+	 * @throws Exception if a Parent has no Fitness
+	 */
+	private static int getWorstFitness(ArrayList<Individual> parents) throws Exception {
+		int worstFitness = 0;
+		for (Individual parent : parents) {
+			worstFitness = Math.max(worstFitness, parent.getFitness());
+		}
+		return worstFitness;
+	}
+
 	/**
 	 * returns random best Individuals
+	 * (Individuals with only a lower bound of the Fitness are worse than every Parent,
+	 * so they are only returned if there are not enough other Individuals)
 	 * @param parentsNr The number of Parents in the given Individual-List
 	 * @param x the number of Individuals to return
 	 * @param indivs The List of Individuals (parents have to be on the first positions)
@@ -193,14 +361,14 @@ public class Evaluation {
 		ArrayList<Individual> fittestInds = new ArrayList<>();
 		fittestInds.add(indivs.get(0));
 		for (int i = 1; i < indivs.size(); i++) {
-			int currentfitness = indivs.get(i).getFitness();
+			int comparison = compareFitness(indivs.get(i), fittestInds.get(0));
 			// smaller fitness means better
-			if (currentfitness == fittestInds.get(0).getFitness()) {
+			if (comparison == 0) {
 				//if same fitness add to list
 				//random one is chosen later
 				fittestInds.add(indivs.get(i));
 			}
-			if (currentfitness < fittestInds.get(0).getFitness()) {
+			if (comparison < 0) {
 				//completely generate new List
 				//since new Individual is better than before
 				fittestInds = new ArrayList<>();
@@ -214,4 +382,17 @@ public class Evaluation {
 		return bestIn;
 	}
 
+	/**
+	 * compares the Fitness of two Individuals
+	 * a lower bound is worse than an exact Fitness with the same value
+	 * @return a negative number if indiv1 is better, 0 if both are equal, a positive number if indiv2 is better
+	 * @throws Exception if an Individual has no Fitness
+	 */
+	private static int compareFitness(Individual indiv1, Individual indiv2) throws Exception {
+		if (indiv1.getFitness() != indiv2.getFitness()) {
+			return Integer.compare(indiv1.getFitness(), indiv2.getFitness());
+		}
+		return Boolean.compare(indiv1.isFitnessLowerBound(), indiv2.isFitnessLowerBound());
+	}
+
 }
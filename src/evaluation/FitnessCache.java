@@ -0,0 +1,120 @@
+package evaluation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache for the Fitness of already evaluated phenotypes
+ * (only valid for one data set)
+ *
+ * The entries are kept in the order of their last use,
+ * if the estimated memory gets bigger than maxMemory
+ * the least recently used entries are removed.
+ * All methods are synchronized, so the cache can be used by the evaluation threads.
+ */
+public class FitnessCache {
+
+	// estimated bytes of one entry without the key (map entry and Integer)
+	static final int ENTRY_OVERHEAD = 64;
+
+	private final long maxMemory;
+	private long usedMemory = 0;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+	// access ordered: the first entry is the least recently used
+	private final LinkedHashMap<PhenotypeKey, Integer> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * @param maxMemory The maximal estimated number of bytes of all entries
+	 */
+	public FitnessCache(long maxMemory) {
+		if (maxMemory < 0) {
+			throw new IllegalArgumentException("maxMemory of the FitnessCache has to be positive");
+		}
+		this.maxMemory = maxMemory;
+	}
+
+	/**
+	 * @param key The phenotype
+	 * @return The stored Fitness of the phenotype (null if it isn't stored)
+	 */
+	public synchronized Integer get(PhenotypeKey key) {
+		Integer fitness = entries.get(key);
+		if (fitness == null) {
+			misses++;
+		} else {
+			hits++;
+		}
+		return fitness;
+	}
+
+	/**
+	 * stores the Fitness of the phenotype
+	 * and removes the least recently used entries if the cache is too big
+	 * @param key The phenotype
+	 * @param fitness The Fitness of the phenotype
+	 */
+	public synchronized void put(PhenotypeKey key, int fitness) {
+		long size = getMemorySize(key);
+		if (size > maxMemory) {
+			return;
+		}
+		if (entries.put(key, fitness) == null) {
+			usedMemory += size;
+		}
+		Iterator<Map.Entry<PhenotypeKey, Integer>> iterator = entries.entrySet().iterator();
+		while (usedMemory > maxMemory) {
+			PhenotypeKey eldest = iterator.next().getKey();
+			iterator.remove();
+			usedMemory -= getMemorySize(eldest);
+			evictions++;
+		}
+	}
+
+	private static long getMemorySize(PhenotypeKey key) {
+		return ENTRY_OVERHEAD + key.getMemorySize();
+	}
+
+	/**
+	 * removes all entries (the counters are kept)
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		usedMemory = 0;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	public synchronized int getNrOfEntries() {
+		return entries.size();
+	}
+
+	/**
+	 * @return The estimated number of bytes of all entries
+	 */
+	public synchronized long getUsedMemory() {
+		return usedMemory;
+	}
+
+	public long getMaxMemory() {
+		return maxMemory;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "FitnessCache: " + entries.size() + " entries, " + usedMemory + "/" + maxMemory + " bytes, hits: "
+				+ hits + ", misses: " + misses + ", evictions: " + evictions;
+	}
+}
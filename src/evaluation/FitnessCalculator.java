@@ -1,16 +1,42 @@
 package evaluation;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import cartesianNetwork.Individual;
-import cartesianNetwork.NodeECGP;
-import helperClasses.InputWithClassification;
+import cartesianNetwork.NodeSet;
+import helperClasses.DataSet;
 /**
  * Class for calculating The Fitness of an Individual
  * @author Piepe
  *
  */
 public class FitnessCalculator {
+
+	// if Individuals should be compiled into Bytecode (BytecodeCompiler)
+	// when the Inputs are calculated one after another
+	static boolean useBytecodeCompilation = true;
+
+	// if an offspring should reuse the Outputs of the unchanged Nodes of its Parent
+	// when the Inputs are calculated column by column (IncrementalEvaluator)
+	static boolean useIncrementalEvaluation = true;
+
+	/**
+	 * calculates Fitness of an Individual
+	 * smaller fitness is better
+	 * Compares UsedNodes of Parents and Individal
+	 * if they are the same - assign same fitness
+	 * @param parents The Parents of the Individual
+	 * @param indiv The Individual
+	 * @param data The Inputs wich determine Fitness
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(ArrayList<Individual> parents, Individual indiv,
+			DataSet data) throws Exception {
+		return calculateFitness(parents, indiv, data, Integer.MAX_VALUE);
+	}
+
 	/**
 	 * calculates Fitness of an Individual
 	 * smaller fitness is better
@@ -18,120 +44,341 @@ public class FitnessCalculator {
 	 * if they are the same - assign same fitness
 	 * @param parents The Parents of the Individual
 	 * @param indiv The Individual
-	 * @param inputs The Inputs wich determine Fitness
+	 * @param data The Inputs wich determine Fitness
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
 	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
 	 * @throws Exception if something unexpected happens
 	 */
 	public static int calculateFitness(ArrayList<Individual> parents, Individual indiv,
-			ArrayList<InputWithClassification> inputs) throws Exception {
+			DataSet data, int maxFitness) throws Exception {
 		
 		if(parents==null){
-			return calculateFitness(indiv, inputs);
+			return calculateFitness(indiv, data, maxFitness);
 		}
-		OutputCalculator.calculateUsedNodes(indiv);
 		for (Individual parent : parents) {
 			if (sameUsedNodesAsParent(parent, indiv)) {
 				return parent.getFitness();
 			}
 		}
-		return calculateFitness(indiv, inputs);
+		return calculateFitness(indiv, data, maxFitness);
+	}
+
+	/**
+	 * calculates Fitness of an Individual
+	 * smaller fitness is better
+	 * Compares UsedNodes of Parents and Individal
+	 * if they are the same - assign same fitness
+	 * (calculates the Inputs column by column)
+	 * @param parents The Parents of the Individual
+	 * @param indiv The Individual
+	 * @param columns The Inputs wich determine Fitness
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(ArrayList<Individual> parents, Individual indiv, InputColumns columns)
+			throws Exception {
+		return calculateFitness(parents, indiv, columns, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * calculates Fitness of an Individual
+	 * smaller fitness is better
+	 * Compares UsedNodes of Parents and Individal
+	 * if they are the same - assign same fitness
+	 * (calculates the Inputs column by column)
+	 * @param parents The Parents of the Individual
+	 * @param indiv The Individual
+	 * @param columns The Inputs wich determine Fitness
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(ArrayList<Individual> parents, Individual indiv, InputColumns columns,
+			int maxFitness) throws Exception {
+
+		if (parents == null) {
+			return calculateFitness(indiv, columns, maxFitness);
+		}
+		Individual parent = getParentWithSameUsedNodes(parents, indiv);
+		if (parent != null) {
+			return parent.getFitness();
+		}
+		return calculateFitness(indiv, columns, maxFitness);
+	}
+
+	/**
+	 * searches a Parent that uses the same Nodes as the Individual
+	 * @param parents The Parents of the Individual
+	 * @param indiv The Individual
+	 * @return The Parent (null if there is none)
+	 * @throws Exception if something unexpected happens
+	 */
+	public static Individual getParentWithSameUsedNodes(ArrayList<Individual> parents, Individual indiv)
+			throws Exception {
+		for (Individual parent : parents) {
+			if (sameUsedNodesAsParent(parent, indiv)) {
+				return parent;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * checks if the mutations of an offspring only changed genes
+	 * that its Parent doesn't use (reported by the mutation operators)
+	 * @param indiv The mutated Individual
+	 * @return if the Individual calculates the same Outputs as the Individual it was copied from
+	 * @throws Exception if something unexpected happens
+	 */
+	public static boolean hasOnlyNeutralMutations(Individual indiv) throws Exception {
+		return indiv.getOrigin() != null && indiv.getOrigin().hasFitness() && !indiv.getOrigin().isFitnessLowerBound()
+				&& !indiv.isActiveGeneChanged();
+	}
+
+	/**
+	 * assigns the Fitness of the Individual it was copied from to the Individual
+	 * (use hasOnlyNeutralMutations first)
+	 * the Outputs of the used Nodes are also taken over if no Nodes have been moved
+	 * @param indiv The mutated Individual
+	 * @throws Exception if the Individual already has a Fitness
+	 */
+	public static void inheritFitness(Individual indiv) throws Exception {
+		Individual parent = indiv.getOrigin();
+		indiv.setFitness(parent.getFitness());
+		// the Individual calculates the same as its Parent
+		indiv.setSampleMistakes(parent.getSampleMistakes());
+		if (!indiv.isStructureChanged()) {
+			// every Node is on the same position and the same Nodes are used
+			indiv.setNodeColumns(parent.getNodeColumns());
+		}
 	}
 
 	/**
 	 * compares the Nodes of an Individual and one Parent
+	 * (the used Nodes are compared word by word, then the Outputs and the used Nodes are compared gene by gene
+	 * and the called Modules have to be the same Objects)
 	 * @param parent Individual with already assigned Fitness-Value
 	 * @param indiv Individual with no assigned Fitness-Value
 	 * @return if both Individuals contain the same Nodes
 	 * @throws Exception if something unexpected happens
 	 */
 	private static boolean sameUsedNodesAsParent(Individual parent, Individual indiv) throws Exception {
-		boolean[] parentNodes = parent.getUsedNodes();
-		boolean[] indivNodes = indiv.getUsedNodes();
-		try {
-			for (int i = 0; i < parentNodes.length; i++) {
-				if(parentNodes[i]!=indivNodes[i]){
-					return false;
-				}
-				if(!sameNode(parent.getNodes().get(i),indiv.getNodes().get(i))){
+		long[] parentNodes = parent.getUsedNodes();
+		long[] indivNodes = indiv.getUsedNodes();
+		if (!NodeSet.equal(parentNodes, indivNodes)
+				|| !Arrays.deepEquals(parent.getOutput(), indiv.getOutput())) {
+			return false;
+		}
+		for (int i = NodeSet.next(indivNodes, 0); i >= 0; i = NodeSet.next(indivNodes, i + 1)) {
+			if (!parent.getGenome().sameNode(i, indiv.getGenome(), i)) {
+				return false;
+			}
+			if (indiv.getGenome().getNodeType(i) != 0) {
+				// Modules are shared until they are changed, a changed Module is a different Object
+				int identifier = indiv.getGenome().getFunctionNr(i);
+				if (parent.getModuleList().getModuleWithIdentifier(identifier)
+						!= indiv.getModuleList().getModuleWithIdentifier(identifier)) {
 					return false;
 				}
 			}
-		} catch (ArrayIndexOutOfBoundsException e) {
-			return false;
 		}
 		return true;
 	}
 	
 	/**
-	 * compares two Nodes
-	 * @param node1 the First Node
-	 * @param node2 the Second Node
-	 * @return true if the Nodes contain the same Genes
+	 * calculates the Fitness of an Individual 
+	 * smaller fitness is better
+	 * Without Comparing Used Nodes
+	 * The Individual is compiled into a LinearProgram (or into Bytecode) once
+	 * and the Program is run for every Input
+	 * @param indiv The Individual that should be processed
+	 * @param data The Inputs that determine fitness
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 * @throws Exception if something unexpected happens
 	 */
-	private static boolean sameNode(NodeECGP node1, NodeECGP node2){
-		//function Gene
-		if(!sameArray(node1.getFunction(),node2.getFunction())){
-			return false;
-		}
-		//inputGenes
-		try{
-			ArrayList<int[]> input1 = node1.getInput();
-			ArrayList<int[]> input2 = node2.getInput();
-			for(int i=0; i<input1.size();i++){
-				if(!sameArray(input1.get(i),input2.get(i))){
-					return false;
-				}
+	public static int calculateFitness(Individual indiv, DataSet data) throws Exception {
+		return calculateFitness(indiv, data, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * calculates the Fitness of an Individual 
+	 * smaller fitness is better
+	 * Without Comparing Used Nodes
+	 * @param indiv The Individual that should be processed
+	 * @param data The Inputs that determine fitness
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(Individual indiv, DataSet data, int maxFitness)
+			throws Exception {
+		return calculateFitness((LinearProgram) null, indiv, data, maxFitness);
+	}
+
+	/**
+	 * calculates the Fitness of an Individual that may already be compiled
+	 * smaller fitness is better
+	 * Without Comparing Used Nodes
+	 * @param program The Individual compiled into a LinearProgram (null if it has not been compiled yet)
+	 * @param indiv The Individual that should be processed
+	 * @param data The Inputs that determine fitness
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(LinearProgram program, Individual indiv, DataSet data, int maxFitness)
+			throws Exception {
+		if (useBytecodeCompilation) {
+			CompiledProgram compiled = BytecodeCompiler.compile(indiv);
+			if (compiled != null) {
+				return calculateFitness(indiv, compiled, data, maxFitness);
 			}
 		}
-		catch(ArrayIndexOutOfBoundsException e){
-			return false;
+		if (program == null) {
+			program = LinearProgram.compile(indiv);
 		}
-		catch(IndexOutOfBoundsException e){
-			return false;
+		double[] registers = program.createRegisters();
+		double[] output = new double[program.getOutputAmount()];
+		int[] input = new int[data.getInputAmount()];
+		int sum = 0;
+		// increment sum for each mistake in identification
+		for (int s = 0; s < data.getNrOfSamples(); s++) {
+			data.getInput(s, input);
+			program.output(input, registers, output);
+			// check if output == classification
+			sum += ComputeOutput.computeOutputAndClassification(output, data.getClassification(s));
+			if (sum > maxFitness) {
+				return sum;
+			}
 		}
-		return true;
+		return sum;
 	}
-	
+
 	/**
-	 * compares two array
-	 * @param a1 the fist array
-	 * @param a2 the second array
-	 * @return true if the arrays contain the same values
+	 * calculates the Fitness of an Individual with the compiled Bytecode
+	 * @param indiv The Individual that should be processed
+	 * @param compiled The Individual compiled into Bytecode
+	 * @param data The Inputs that determine fitness
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 * @throws Exception if something unexpected happens
 	 */
-	private static boolean sameArray(int[] a1, int[] a2){
-		if(a1.length != a2.length){
-			return false;
+	private static int calculateFitness(Individual indiv, CompiledProgram compiled,
+			DataSet data, int maxFitness) throws Exception {
+		if (indiv.getInputAmount() != data.getInputAmount()) {
+			throw new Exception("gegebene InputLnge entspricht nicht der angegebenen InputLnge des Individuums");
 		}
-		try{
-			for(int i=0; i< a1.length; i++){
-				if(a1[i] != a2[i]){
-					return false;
-				}
+		double[] output = new double[indiv.getOutputAmount()];
+		int[] input = new int[data.getInputAmount()];
+		int sum = 0;
+		// increment sum for each mistake in identification
+		for (int s = 0; s < data.getNrOfSamples(); s++) {
+			data.getInput(s, input);
+			compiled.calculate(input, output);
+			// check if output == classification
+			sum += ComputeOutput.computeOutputAndClassification(output, data.getClassification(s));
+			if (sum > maxFitness) {
+				return sum;
 			}
 		}
-		catch(ArrayIndexOutOfBoundsException e){
-			return false;
-		}
-		return true;
+		return sum;
 	}
 
 	/**
-	 * calculates the Fitness of an Individual 
+	 * calculates the Fitness of an Individual
 	 * smaller fitness is better
 	 * Without Comparing Used Nodes
+	 * Every used Node is calculated for a whole tile of Inputs at once
+	 * (functionSet 5 is calculated for 64 Inputs per bitwise operation if possible,
+	 * functionSet 3 and 4 for 8 Inputs packed into bytes,
+	 * otherwise only the Nodes that differ from the Parent are calculated)
 	 * @param indiv The Individual that should be processed
-	 * @param inputs The Inputs that determine fitness
+	 * @param columns The Inputs that determine fitness
 	 * @return The Fitness Value of the Individual (no set in the Individual)
 	 * @throws Exception if something unexpected happens
 	 */
-	public static int calculateFitness(Individual indiv, ArrayList<InputWithClassification> inputs) throws Exception {
-		int sum = 0;
-		// increment sum for each mistake in identification
-		for (InputWithClassification input : inputs) {
-			double[] output = OutputCalculator.output(indiv, input.getInput());
-			// check if output == classification
-			sum += ComputeOutput.computeOutputAndClassification(output, input.getClassification());
+	public static int calculateFitness(Individual indiv, InputColumns columns) throws Exception {
+		return calculateFitness(indiv, columns, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * calculates the Fitness of an Individual
+	 * smaller fitness is better
+	 * Without Comparing Used Nodes
+	 * (calculates the Inputs column by column, see above)
+	 * @param indiv The Individual that should be processed
+	 * @param columns The Inputs that determine fitness
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(Individual indiv, InputColumns columns, int maxFitness) throws Exception {
+		return calculateFitness((LinearProgram) null, indiv, columns, maxFitness);
+	}
+
+	/**
+	 * calculates the Fitness of an Individual that may already be compiled
+	 * smaller fitness is better
+	 * Without Comparing Used Nodes
+	 * (calculates the Inputs column by column, see above)
+	 * @param program The Individual compiled into a LinearProgram (null if it has not been compiled yet)
+	 * @param indiv The Individual that should be processed
+	 * @param columns The Inputs that determine fitness
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(LinearProgram program, Individual indiv, InputColumns columns,
+			int maxFitness) throws Exception {
+		if (program == null) {
+			program = LinearProgram.compile(indiv);
 		}
-		return sum;
+		if (useIncrementalEvaluation && !canCalculatePacked(program, columns)) {
+			return IncrementalEvaluator.calculateFitness(program, indiv, columns, maxFitness);
+		}
+		return calculateFitness(program, columns, maxFitness);
+	}
+
+	/**
+	 * calculates the Fitness of a compiled Individual
+	 * smaller fitness is better
+	 * (calculates the Inputs column by column, without the Outputs of the Parent)
+	 * @param program The compiled Individual
+	 * @param columns The Inputs that determine fitness
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 * @return The Fitness Value of the Individual
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(LinearProgram program, InputColumns columns, int maxFitness) throws Exception {
+		if (program.getFunctionSet() == 5
+				&& BitParallelEvaluator.canCalculate(program, columns.getBitColumns())) {
+			return BitParallelEvaluator.calculateFitness(program, columns.getBitColumns(), maxFitness);
+		}
+		if ((program.getFunctionSet() == 3 || program.getFunctionSet() == 4)
+				&& SwarEvaluator.canCalculate(program, columns.getByteColumns())) {
+			return SwarEvaluator.calculateFitness(program, columns.getByteColumns(), columns, maxFitness);
+		}
+		return BatchEvaluator.calculateFitness(program, columns, maxFitness);
+	}
+
+	/**
+	 * @return if the Program can be calculated with the Inputs packed into bits or bytes
+	 */
+	private static boolean canCalculatePacked(LinearProgram program, InputColumns columns) {
+		if (program.getFunctionSet() == 5) {
+			return BitParallelEvaluator.canCalculate(program, columns.getBitColumns());
+		}
+		if (program.getFunctionSet() == 3 || program.getFunctionSet() == 4) {
+			return SwarEvaluator.canCalculate(program, columns.getByteColumns());
+		}
+		return false;
 	}
 }
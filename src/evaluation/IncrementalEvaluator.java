@@ -0,0 +1,265 @@
+package evaluation;
+
+import java.util.Arrays;
+
+import cartesianNetwork.Genome;
+import cartesianNetwork.Individual;
+
+/**
+ * Class for calculating the Fitness of an offspring column by column
+ * reusing the Outputs of the Nodes its Parent has already calculated
+ *
+ * Every evaluated Individual stores the Outputs of its used Nodes for all Inputs (NodeColumns).
+ * A Node of the offspring does not have to be calculated again if
+ * - it was copied from a used Node of the Parent (Individual.copy)
+ * - none of its genes has been changed by a mutation (Genome.markChanged)
+ * - all of its Inputs are Inputs of the Individual or reused Nodes that were copied
+ *   from the Nodes the Parent-Node uses
+ * so only the Nodes after a changed gene are calculated.
+ *
+ * The Outputs of the calculated Nodes are written into a buffer of the Thread during the calculation
+ * and only copied into the Individual if its Fitness has been calculated completely,
+ * so offspring whose calculation is stopped early don't create any columns.
+ */
+public class IncrementalEvaluator {
+
+	// max number of new values that are stored per Individual (8 bytes each)
+	// Nodes that don't fit are not stored and have to be calculated again by the offspring
+	static long maxStoredValues = 1L << 23;
+
+	// the buffer of every Thread for the Outputs of the calculated Nodes (grows up to maxStoredValues)
+	private static final ThreadLocal<double[]> buffer = new ThreadLocal<>();
+
+	/**
+	 * calculates the Fitness of the compiled Individual
+	 * and stores the Outputs of its used Nodes in the Individual
+	 * smaller fitness is better
+	 * @param program The compiled Individual
+	 * @param indiv The Individual
+	 * @param columns The Inputs that determine fitness
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(LinearProgram program, Individual indiv, InputColumns columns)
+			throws Exception {
+		return calculateFitness(program, indiv, columns, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * calculates the Fitness of the compiled Individual
+	 * and stores the Outputs of its used Nodes in the Individual
+	 * (nothing is stored if the calculation has been stopped)
+	 * smaller fitness is better
+	 * @param program The compiled Individual
+	 * @param indiv The Individual
+	 * @param columns The Inputs that determine fitness
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int calculateFitness(LinearProgram program, Individual indiv, InputColumns columns,
+			int maxFitness) throws Exception {
+		if (program.getInputAmount() != columns.getInputAmount()) {
+			throw new Exception("gegebene InputLnge entspricht nicht der angegebenen InputLnge des Individuums");
+		}
+		int nrOfSamples = columns.getNrOfSamples();
+		int nrOfNodes = program.getNrOfNodes();
+
+		// Nodes whose Outputs are taken from the Parent
+		boolean[] reused = getReusedNodes(program, indiv, columns);
+		NodeColumns parentColumns = (reused == null) ? null : indiv.getOrigin().getNodeColumns();
+
+		// Nodes that are calculated (and stored if there is enough space):
+		// Output o of Node n is written to storedOffset[n] + o * nrOfSamples of the buffer (-1 if not stored)
+		int[] storedOffset = new int[nrOfNodes];
+		long storedValues = 0;
+		long maxValues = Math.min(maxStoredValues, Integer.MAX_VALUE - 8);
+		int nrOfInstructions = 0;
+		for (int n = 0; n < nrOfNodes; n++) {
+			storedOffset[n] = -1;
+			int[] registers = program.getRegistersOfNode(n);
+			if (registers == null || (reused != null && reused[n])) {
+				continue;
+			}
+			nrOfInstructions += program.getFirstInstructionOfNode(n + 1) - program.getFirstInstructionOfNode(n);
+			if (storedValues + (long) registers.length * nrOfSamples <= maxValues) {
+				storedOffset[n] = (int) storedValues;
+				storedValues += (long) registers.length * nrOfSamples;
+			}
+		}
+		double[] stored = buffer.get();
+		if (stored == null || stored.length < storedValues) {
+			stored = new double[(int) storedValues];
+			buffer.set(stored);
+		}
+		// the Instructions that have to be calculated
+		int[] instructionsToRun = new int[nrOfInstructions];
+		int nextInstruction = 0;
+		for (int n = 0; n < nrOfNodes; n++) {
+			if (program.getRegistersOfNode(n) != null && (reused == null || !reused[n])) {
+				for (int i = program.getFirstInstructionOfNode(n); i < program.getFirstInstructionOfNode(n + 1); i++) {
+					instructionsToRun[nextInstruction++] = i;
+				}
+			}
+		}
+
+		int tileSize = BatchEvaluator.getTileSize(program.getRegisterAmount());
+		double[][] registers = new double[program.getRegisterAmount()][tileSize];
+		double[] output = new double[program.getOutputAmount()];
+		ColumnKernels kernels = BatchEvaluator.getKernels();
+
+		int[] inputIndex = program.getInputIndex();
+		int[] function = program.getFunction();
+		int[] source1 = program.getSource1();
+		int[] source2 = program.getSource2();
+		int[] destination = program.getDestination();
+		int[] outputRegister = program.getOutputRegister();
+
+		// the samples that are classified wrong
+		long[] wrong = new long[(nrOfSamples + 63) >>> 6];
+		int sum = 0;
+		for (int start = 0; start < nrOfSamples; start += tileSize) {
+			int length = Math.min(tileSize, nrOfSamples - start);
+			// load the used Inputs of the tile
+			for (int r = 0; r < inputIndex.length; r++) {
+				int[] column = columns.getColumn(inputIndex[r]);
+				double[] register = registers[r];
+				for (int s = 0; s < length; s++) {
+					register[s] = column[start + s];
+				}
+			}
+			// load the Outputs of the reused Nodes
+			for (int n = 0; reused != null && n < nrOfNodes; n++) {
+				if (reused[n]) {
+					int[] registersOfNode = program.getRegistersOfNode(n);
+					double[][] parentOutputs = parentColumns.getColumns(indiv.getGenome().getOriginPosition(n));
+					for (int o = 0; o < registersOfNode.length; o++) {
+						System.arraycopy(parentOutputs[o], start, registers[registersOfNode[o]], 0, length);
+					}
+				}
+			}
+			// calculate the Instructions of the other Nodes for the whole tile
+			for (int i : instructionsToRun) {
+				kernels.getResultsForFunction(program.getFunctionSet(), registers[source1[i]],
+						registers[source2[i]], registers[destination[i]], length, function[i]);
+			}
+			// write the Outputs of the calculated Nodes into the buffer
+			for (int n = 0; n < nrOfNodes; n++) {
+				if (storedOffset[n] >= 0) {
+					int[] registersOfNode = program.getRegistersOfNode(n);
+					for (int o = 0; o < registersOfNode.length; o++) {
+						System.arraycopy(registers[registersOfNode[o]], 0, stored,
+								storedOffset[n] + o * nrOfSamples + start, length);
+					}
+				}
+			}
+			// increment sum for each mistake in identification
+			for (int s = 0; s < length; s++) {
+				for (int o = 0; o < outputRegister.length; o++) {
+					output[o] = registers[outputRegister[o]][s];
+				}
+				if (ComputeOutput.computeOutputAndClassification(output, columns.getClassification(start + s)) != 0) {
+					wrong[(start + s) >>> 6] |= 1L << (start + s);
+					sum++;
+				}
+			}
+			if (sum > maxFitness) {
+				// the Outputs in the buffer are incomplete
+				return sum;
+			}
+		}
+		// share the columns of the Parent and copy the calculated columns out of the buffer
+		NodeColumns nodeColumns = new NodeColumns(columns, nrOfNodes);
+		for (int n = 0; n < nrOfNodes; n++) {
+			int[] registersOfNode = program.getRegistersOfNode(n);
+			if (reused != null && reused[n]) {
+				nodeColumns.setColumns(n, parentColumns.getColumns(indiv.getGenome().getOriginPosition(n)));
+			} else if (storedOffset[n] >= 0) {
+				double[][] outputs = new double[registersOfNode.length][];
+				for (int o = 0; o < registersOfNode.length; o++) {
+					int offset = storedOffset[n] + o * nrOfSamples;
+					outputs[o] = Arrays.copyOfRange(stored, offset, offset + nrOfSamples);
+				}
+				nodeColumns.setColumns(n, outputs);
+			}
+		}
+		indiv.setNodeColumns(nodeColumns);
+		indiv.setSampleMistakes(new SampleMistakes(columns, wrong));
+		return sum;
+	}
+
+	/**
+	 * determines the Nodes of the Individual that calculate the same as a Node of its Parent
+	 * @param program The compiled Individual
+	 * @param indiv The Individual
+	 * @param columns The Inputs that determine fitness
+	 * @return reused[n] = if the Outputs of Node n can be taken from the Parent
+	 *         (null if the Parent has no stored Outputs for the Inputs)
+	 */
+	static boolean[] getReusedNodes(LinearProgram program, Individual indiv, InputColumns columns) {
+		Individual parent = indiv.getOrigin();
+		if (parent == null || parent.getNodeColumns() == null || parent.getNodeColumns().getInputs() != columns) {
+			return null;
+		}
+		NodeColumns parentColumns = parent.getNodeColumns();
+		Genome nodes = indiv.getGenome();
+		Genome parentNodes = parent.getGenome();
+		boolean[] reused = new boolean[nodes.size()];
+		for (int n = 0; n < nodes.size(); n++) {
+			int originPosition = nodes.getOriginPosition(n);
+			int[] registers = program.getRegistersOfNode(n);
+			if (registers == null || nodes.isChanged(n) || originPosition < 0
+					|| originPosition >= parentNodes.size()) {
+				continue;
+			}
+			double[][] parentOutputs = parentColumns.getColumns(originPosition);
+			if (parentOutputs == null || parentOutputs.length != registers.length) {
+				continue;
+			}
+			reused[n] = sameInputs(indiv, n, parentNodes, originPosition, reused);
+		}
+		return reused;
+	}
+
+	/**
+	 * checks if the Node gets its Inputs from the same values as the Node of the Parent
+	 * @param indiv The Individual
+	 * @param node The position of the Node of the Individual
+	 * @param parentNodes The Nodes of the Parent
+	 * @param parentNode The position of the Node of the Parent the Node was copied from
+	 * @param reused The reused Nodes before the Node
+	 * @return if the Node calculates the same as the Node of the Parent
+	 */
+	private static boolean sameInputs(Individual indiv, int node, Genome parentNodes, int parentNode,
+			boolean[] reused) {
+		Genome nodes = indiv.getGenome();
+		if (nodes.getFunctionNr(node) != parentNodes.getFunctionNr(parentNode)
+				|| nodes.getNodeType(node) != parentNodes.getNodeType(parentNode)
+				|| nodes.getNrOfInputs(node) != parentNodes.getNrOfInputs(parentNode)) {
+			return false;
+		}
+		int inputAmount = indiv.getInputAmount();
+		for (int j = 0; j < nodes.getNrOfInputs(node); j++) {
+			int address = nodes.getInputAddress(node, j);
+			int parentAddress = parentNodes.getInputAddress(parentNode, j);
+			if (nodes.getInputOutput(node, j) != parentNodes.getInputOutput(parentNode, j)) {
+				return false;
+			}
+			if (address < inputAmount) {
+				// Input of the Individual
+				if (address != parentAddress) {
+					return false;
+				}
+			} else {
+				// the referenced Node has to be reused and copied from the Node the Parent references
+				int referencedNode = address - inputAmount;
+				if (!reused[referencedNode] || parentAddress < inputAmount
+						|| nodes.getOriginPosition(referencedNode) != parentAddress - inputAmount) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,136 @@
+package evaluation;
+
+import helperClasses.DataSet;
+
+/**
+ * The Inputs of a data set stored column by column
+ * column[i][s] = value of Input i for the sample s
+ *
+ * used to calculate one Node for many samples at once
+ */
+public class InputColumns {
+
+	// number of samples
+	private final int nrOfSamples;
+	// number of Inputs of one sample
+	private final int inputAmount;
+	// one column per Input
+	private final int[][] columns;
+	// classification of every sample
+	private final int[] classifications;
+	// the Inputs packed into bits (created when first needed)
+	private BitColumns bitColumns;
+	// the Inputs packed into bytes (created when first needed)
+	private ByteColumns byteColumns;
+
+	private InputColumns(int[][] columns, int[] classifications) {
+		this.nrOfSamples = classifications.length;
+		this.inputAmount = columns.length;
+		this.columns = columns;
+		this.classifications = classifications;
+	}
+
+	/**
+	 * Creates the columns of the given data set
+	 * @param inputs The data set
+	 */
+	public InputColumns(DataSet inputs) {
+		this.nrOfSamples = inputs.getNrOfSamples();
+		this.inputAmount = inputs.getInputAmount();
+		this.columns = new int[inputAmount][nrOfSamples];
+		this.classifications = new int[nrOfSamples];
+		for (int i = 0; i < inputAmount; i++) {
+			inputs.getColumn(i, columns[i]);
+		}
+		for (int s = 0; s < nrOfSamples; s++) {
+			classifications[s] = inputs.getClassification(s);
+		}
+	}
+
+	/**
+	 * Creates the columns of a block of samples of the given data set
+	 * (the samples are read row by row, so the data set is read sequentially)
+	 * @param inputs The data set
+	 * @param from The first sample of the block
+	 * @param length The number of samples of the block
+	 */
+	public InputColumns(DataSet inputs, int from, int length) {
+		this.nrOfSamples = length;
+		this.inputAmount = inputs.getInputAmount();
+		this.columns = new int[inputAmount][length];
+		this.classifications = new int[length];
+		int[] row = new int[inputAmount];
+		for (int s = 0; s < length; s++) {
+			inputs.getInput(from + s, row);
+			for (int i = 0; i < inputAmount; i++) {
+				columns[i][s] = row[i];
+			}
+			classifications[s] = inputs.getClassification(from + s);
+		}
+	}
+
+	/**
+	 * Creates columns with the same samples in another order
+	 * (the Fitness of an Individual doesn't depend on the order)
+	 * @param order order[s] = the sample of these columns that becomes sample s
+	 * @return The reordered columns
+	 */
+	public InputColumns reorder(int[] order) {
+		if (order.length != nrOfSamples) {
+			throw new IllegalArgumentException("the order has to contain every sample");
+		}
+		int[][] reorderedColumns = new int[inputAmount][nrOfSamples];
+		int[] reorderedClassifications = new int[nrOfSamples];
+		for (int s = 0; s < nrOfSamples; s++) {
+			reorderedClassifications[s] = classifications[order[s]];
+		}
+		for (int i = 0; i < inputAmount; i++) {
+			int[] column = columns[i];
+			int[] reorderedColumn = reorderedColumns[i];
+			for (int s = 0; s < nrOfSamples; s++) {
+				reorderedColumn[s] = column[order[s]];
+			}
+		}
+		return new InputColumns(reorderedColumns, reorderedClassifications);
+	}
+
+	public int getNrOfSamples() {
+		return nrOfSamples;
+	}
+
+	public int getInputAmount() {
+		return inputAmount;
+	}
+
+	/**
+	 * @param input The Index of the Input
+	 * @return The values of the Input for all samples
+	 */
+	public int[] getColumn(int input) {
+		return columns[input];
+	}
+
+	public int getClassification(int sample) {
+		return classifications[sample];
+	}
+
+	/**
+	 * @return The Inputs packed into bits (for functionSet 5)
+	 */
+	public synchronized BitColumns getBitColumns() {
+		if (bitColumns == null) {
+			bitColumns = new BitColumns(this);
+		}
+		return bitColumns;
+	}
+
+	/**
+	 * @return The Inputs packed into bytes (for functionSet 3 and 4)
+	 */
+	public synchronized ByteColumns getByteColumns() {
+		if (byteColumns == null) {
+			byteColumns = new ByteColumns(this);
+		}
+		return byteColumns;
+	}
+}
@@ -0,0 +1,416 @@
+package evaluation;
+
+import java.util.Arrays;
+
+import cartesianNetwork.Genome;
+import cartesianNetwork.Individual;
+import cartesianNetwork.Module;
+import cartesianNetwork.NodeSet;
+import helperClasses.Functions;
+
+/**
+ * The used Nodes of an Individual compiled into a flat Register-Program
+ *
+ * Every used Node (also the used Nodes of called Modules) becomes one
+ * Instruction consisting of a function, two source-registers and a
+ * destination-register. Inactive Nodes are not part of the Program.
+ *
+ * Registers as follows:
+ * used Inputs:
+ * [0 , (usedInputs-1)]
+ * Results of the Instructions:
+ * [usedInputs, (usedInputs+instructions-1)]
+ */
+public class LinearProgram {
+
+	// used FunctionSet
+	private final int functionSet;
+	// number of Inputs of the compiled Individual
+	private final int inputAmount;
+	// inputIndex[r] = Index of the Input that is loaded into register r
+	private final int[] inputIndex;
+	// the Instructions
+	// function[i] = function-adress of Instruction i
+	// source1[i] & source2[i] = registers of the operands of Instruction i
+	// destination[i] = register the result of Instruction i is written to
+	private final int[] function;
+	private final int[] source1;
+	private final int[] source2;
+	private final int[] destination;
+	// registers that contain the Outputs of the Individual
+	private final int[] outputRegister;
+	// number of registers needed to run the Program
+	private final int registerAmount;
+	// registersOfNode[n] = registers of the Outputs of Node n of the Individual (null if the Node is not used)
+	private final int[][] registersOfNode;
+	// the Instructions of Node n are [firstInstructionOfNode[n], firstInstructionOfNode[n+1])
+	private final int[] firstInstructionOfNode;
+
+	private LinearProgram(int functionSet, int inputAmount, int[] inputIndex, int[] function, int[] source1,
+			int[] source2, int[] destination, int[] outputRegister, int registerAmount, int[][] registersOfNode,
+			int[] firstInstructionOfNode) {
+		this.functionSet = functionSet;
+		this.inputAmount = inputAmount;
+		this.inputIndex = inputIndex;
+		this.function = function;
+		this.source1 = source1;
+		this.source2 = source2;
+		this.destination = destination;
+		this.outputRegister = outputRegister;
+		this.registerAmount = registerAmount;
+		this.registersOfNode = registersOfNode;
+		this.firstInstructionOfNode = firstInstructionOfNode;
+	}
+
+	/**
+	 * Compiles the used Nodes of the Individual into a Program
+	 * Module-Calls are inlined
+	 * (only the UsedNodes of the Individual and its Modules are compiled)
+	 * @param indiv The Individual that should be compiled
+	 * @return The Program that computes the same Outputs as OutputCalculator.output
+	 * @throws Exception if the Individual references Outputs that don't exist
+	 */
+	public static LinearProgram compile(Individual indiv) throws Exception {
+		long[] usedNodes = indiv.getUsedNodes();
+		int inputAmount = indiv.getInputAmount();
+		Genome nodes = indiv.getGenome();
+
+		// assign the first registers to the used Inputs (in ascending order)
+		boolean[] usedInputs = new boolean[inputAmount];
+		for (int i = NodeSet.next(usedNodes, 0); i >= 0; i = NodeSet.next(usedNodes, i + 1)) {
+			for (int j = 0; j < nodes.getNrOfInputs(i); j++) {
+				if (nodes.getInputAddress(i, j) < inputAmount) {
+					usedInputs[nodes.getInputAddress(i, j)] = true;
+				}
+			}
+		}
+		for (int i = 0; i < indiv.getOutputAmount(); i++) {
+			if (indiv.getOutput()[i][0] < inputAmount) {
+				usedInputs[indiv.getOutput()[i][0]] = true;
+			}
+		}
+		int[] registerOfInput = new int[inputAmount];
+		int nrOfUsedInputs = 0;
+		for (int i = 0; i < inputAmount; i++) {
+			if (usedInputs[i]) {
+				registerOfInput[i] = nrOfUsedInputs;
+				nrOfUsedInputs++;
+			}
+		}
+		int[] inputIndex = new int[nrOfUsedInputs];
+		for (int i = 0; i < inputAmount; i++) {
+			if (usedInputs[i]) {
+				inputIndex[registerOfInput[i]] = i;
+			}
+		}
+
+		Instructions instructions = new Instructions(nrOfUsedInputs);
+		// registers of the Outputs of each used Node
+		int[][] registersOfNode = new int[nodes.size()][];
+		int[] firstInstructionOfNode = new int[nodes.size() + 1];
+
+		// the unused Nodes are skipped word by word, they start where the next used Node starts
+		int nextNode = 0;
+		for (int i = NodeSet.next(usedNodes, 0); i >= 0; i = NodeSet.next(usedNodes, i + 1)) {
+			Arrays.fill(firstInstructionOfNode, nextNode, i + 1, instructions.size());
+			nextNode = i + 1;
+			// registers of every input of the node
+			int[] inputRegisters = new int[nodes.getNrOfInputs(i)];
+			for (int j = 0; j < inputRegisters.length; j++) {
+				int address = nodes.getInputAddress(i, j);
+				if (address < inputAmount) {
+					inputRegisters[j] = registerOfInput[address];
+				} else {
+					inputRegisters[j] = getRegisterOfNodeOutput(registersOfNode, address - inputAmount,
+							nodes.getInputOutput(i, j), i);
+				}
+			}
+			if (nodes.getNodeType(i) == 0) {
+				// primitive function
+				int[] outputs = { instructions.add(nodes.getFunctionNr(i), inputRegisters[0], inputRegisters[1]) };
+				registersOfNode[i] = outputs;
+			} else {
+				// node uses a module as function
+				Module refModule = indiv.getModuleList().getModuleWithIdentifier(nodes.getFunctionNr(i));
+				registersOfNode[i] = inlineModule(refModule, inputRegisters, instructions);
+			}
+		}
+		Arrays.fill(firstInstructionOfNode, nextNode, nodes.size() + 1, instructions.size());
+
+		// registers of the Outputs of the Individual
+		int[] outputRegister = new int[indiv.getOutputAmount()];
+		for (int i = 0; i < indiv.getOutputAmount(); i++) {
+			int indexOfRefNode = indiv.getOutput()[i][0];
+			if (indexOfRefNode < inputAmount) {
+				outputRegister[i] = registerOfInput[indexOfRefNode];
+			} else {
+				outputRegister[i] = getRegisterOfNodeOutput(registersOfNode, indexOfRefNode - inputAmount,
+						indiv.getOutput()[i][1], -1);
+			}
+		}
+
+		return new LinearProgram(indiv.getFunctionSet(), inputAmount, inputIndex, instructions.getFunction(),
+				instructions.getSource1(), instructions.getSource2(), instructions.getDestination(), outputRegister,
+				instructions.getRegisterAmount(), registersOfNode, firstInstructionOfNode);
+	}
+
+	/**
+	 * Adds the used Nodes of the Module as Instructions
+	 * @param module The called Module
+	 * @param inputRegisters The registers of the Inputs of the calling Node
+	 * @param instructions The Instructions the Module should be added to
+	 * @return The registers that contain the Outputs of the Module
+	 */
+	private static int[] inlineModule(Module module, int[] inputRegisters, Instructions instructions) {
+		long[] usedNodes = module.getUsedNodes();
+		// register of each used Node of the Module
+		int[] registerOfModuleNode = new int[module.getNrOfNodes()];
+		Genome nodes = module.getGenome();
+		for (int i = NodeSet.next(usedNodes, 0); i >= 0; i = NodeSet.next(usedNodes, i + 1)) {
+			if (nodes.getNodeType(i) != 0) {
+				throw new IllegalStateException(
+						"Node in Module has a node of type != 0 inside" + " >LinearProgram<");
+			}
+			int[] operands = new int[2];
+			for (int j = 0; j < 2; j++) {
+				int address = nodes.getInputAddress(i, j);
+				if (address < module.getNrOfInputs()) {
+					// Node uses input as input
+					operands[j] = inputRegisters[address];
+				} else {
+					// node uses another Node as input
+					operands[j] = registerOfModuleNode[address - module.getNrOfInputs()];
+				}
+			}
+			registerOfModuleNode[i] = instructions.add(nodes.getFunctionNr(i), operands[0], operands[1]);
+		}
+		int[] outputsOfModule = new int[module.getNrOfOutputs()];
+		for (int i = 0; i < module.getNrOfOutputs(); i++) {
+			int indexOfRefNode = module.getModuleOutputs().get(i)[0];
+			if (indexOfRefNode < module.getNrOfInputs()) {
+				throw new IllegalStateException("Module Outputs are not allowed to use inputs!");
+			}
+			outputsOfModule[i] = registerOfModuleNode[indexOfRefNode - module.getNrOfInputs()];
+		}
+		return outputsOfModule;
+	}
+
+	/**
+	 * returns the register that holds the given Output of a Node
+	 * @param registersOfNode The registers of all already compiled Nodes
+	 * @param node The position of the referenced Node
+	 * @param outputNr The number of the referenced Output
+	 * @param referencingNode The position of the referencing Node (-1 for Outputs of the Individual)
+	 * @return The register of the Output
+	 * @throws Exception if the Node has no Output with the given number
+	 */
+	private static int getRegisterOfNodeOutput(int[][] registersOfNode, int node, int outputNr, int referencingNode)
+			throws Exception {
+		if (registersOfNode[node] == null) {
+			throw new IllegalStateException("No Output for a Node has been calculated "
+					+ "but one node uses antoher as input:" + "Node " + referencingNode + " uses the node:" + node);
+		}
+		if (outputNr >= registersOfNode[node].length) {
+			throw new Exception("Node " + referencingNode + " references Output " + outputNr + " of Node " + node
+					+ " which only has " + registersOfNode[node].length + " Outputs");
+		}
+		return registersOfNode[node][outputNr];
+	}
+
+	/**
+	 * Runs the Program for the given Input
+	 * @param input The Input
+	 * @param registers The registers that are used for the calculation (use createRegisters())
+	 */
+	public void execute(int[] input, double[] registers) {
+		for (int r = 0; r < inputIndex.length; r++) {
+			registers[r] = input[inputIndex[r]];
+		}
+		for (int i = 0; i < function.length; i++) {
+			registers[destination[i]] = Functions.getResultForFunction(functionSet, registers[source1[i]],
+					registers[source2[i]], function[i]);
+		}
+	}
+
+	/**
+	 * calculates Ouput for the given Input
+	 * (without allocating any Arrays)
+	 * @param input The Input
+	 * @param registers The registers that are used for the calculation (use createRegisters())
+	 * @param outputs The Array the Outputs are written to (length = number of Outputs)
+	 * @throws Exception if input-length is not expected
+	 */
+	public void output(int[] input, double[] registers, double[] outputs) throws Exception {
+		if (inputAmount != input.length) {
+			throw new Exception("gegebene InputLnge entspricht nicht der angegebenen InputLnge des Individuums");
+		}
+		execute(input, registers);
+		for (int i = 0; i < outputRegister.length; i++) {
+			outputs[i] = registers[outputRegister[i]];
+		}
+	}
+
+	/**
+	 * @return new registers that can be used for execute() and output()
+	 */
+	public double[] createRegisters() {
+		return new double[registerAmount];
+	}
+
+	public int getFunctionSet() {
+		return functionSet;
+	}
+
+	public int getInputAmount() {
+		return inputAmount;
+	}
+
+	public int getOutputAmount() {
+		return outputRegister.length;
+	}
+
+	public int getNrOfInstructions() {
+		return function.length;
+	}
+
+	public int getRegisterAmount() {
+		return registerAmount;
+	}
+
+	public int[] getInputIndex() {
+		return inputIndex;
+	}
+
+	public int[] getFunction() {
+		return function;
+	}
+
+	public int[] getSource1() {
+		return source1;
+	}
+
+	public int[] getSource2() {
+		return source2;
+	}
+
+	public int[] getDestination() {
+		return destination;
+	}
+
+	public int[] getOutputRegister() {
+		return outputRegister;
+	}
+
+	/**
+	 * @param node The position of the Node in the Individual
+	 * @return The registers of the Outputs of the Node (null if the Node is not used)
+	 */
+	public int[] getRegistersOfNode(int node) {
+		return registersOfNode[node];
+	}
+
+	/**
+	 * @return The number of Nodes of the compiled Individual
+	 */
+	public int getNrOfNodes() {
+		return registersOfNode.length;
+	}
+
+	/**
+	 * @param node The position of the Node in the Individual
+	 * @return The first Instruction that belongs to the Node
+	 *         (the Instructions of the Node end before getFirstInstructionOfNode(node + 1))
+	 */
+	public int getFirstInstructionOfNode(int node) {
+		return firstInstructionOfNode[node];
+	}
+
+	/**
+	 * two Programs are equal if they contain the same Instructions and Outputs
+	 * (Individuals with equal Programs have the same phenotype)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof LinearProgram)) {
+			return false;
+		}
+		LinearProgram other = (LinearProgram) obj;
+		return functionSet == other.functionSet && inputAmount == other.inputAmount
+				&& Arrays.equals(inputIndex, other.inputIndex) && Arrays.equals(function, other.function)
+				&& Arrays.equals(source1, other.source1) && Arrays.equals(source2, other.source2)
+				&& Arrays.equals(outputRegister, other.outputRegister);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 31 * functionSet + inputAmount;
+		hash = 31 * hash + Arrays.hashCode(inputIndex);
+		hash = 31 * hash + Arrays.hashCode(function);
+		hash = 31 * hash + Arrays.hashCode(source1);
+		hash = 31 * hash + Arrays.hashCode(source2);
+		return 31 * hash + Arrays.hashCode(outputRegister);
+	}
+
+	/**
+	 * growing List of Instructions that is used during the compilation
+	 */
+	private static class Instructions {
+		private int[] function = new int[16];
+		private int[] source1 = new int[16];
+		private int[] source2 = new int[16];
+		private int size = 0;
+		private final int firstRegister;
+
+		Instructions(int firstRegister) {
+			this.firstRegister = firstRegister;
+		}
+
+		/**
+		 * adds an Instruction
+		 * @return the destination-register of the Instruction
+		 */
+		int add(int functionNr, int in1, int in2) {
+			if (size == function.length) {
+				function = Arrays.copyOf(function, size * 2);
+				source1 = Arrays.copyOf(source1, size * 2);
+				source2 = Arrays.copyOf(source2, size * 2);
+			}
+			function[size] = functionNr;
+			source1[size] = in1;
+			source2[size] = in2;
+			size++;
+			return firstRegister + size - 1;
+		}
+
+		int[] getFunction() {
+			return Arrays.copyOf(function, size);
+		}
+
+		int[] getSource1() {
+			return Arrays.copyOf(source1, size);
+		}
+
+		int[] getSource2() {
+			return Arrays.copyOf(source2, size);
+		}
+
+		int[] getDestination() {
+			int[] destination = new int[size];
+			for (int i = 0; i < size; i++) {
+				destination[i] = firstRegister + i;
+			}
+			return destination;
+		}
+
+		int getRegisterAmount() {
+			return firstRegister + size;
+		}
+
+		int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package evaluation;
+
+/**
+ * The Outputs of the used Nodes of an Individual for every Input of a data set
+ * (stored in the Individual, so that its offspring can reuse the Outputs of unchanged Nodes)
+ *
+ * The columns are never changed after they have been calculated,
+ * so an offspring can share the columns of its Parent.
+ */
+public class NodeColumns {
+
+	// the Inputs the columns have been calculated for
+	private final InputColumns inputs;
+	// columns[n][o][s] = Output o of Node n for sample s (columns[n] = null if not stored)
+	private final double[][][] columns;
+
+	/**
+	 * creates empty columns
+	 * @param inputs The Inputs the columns are calculated for
+	 * @param nrOfNodes The number of Nodes of the Individual
+	 */
+	NodeColumns(InputColumns inputs, int nrOfNodes) {
+		this.inputs = inputs;
+		this.columns = new double[nrOfNodes][][];
+	}
+
+	/**
+	 * @return The Inputs the columns have been calculated for
+	 */
+	public InputColumns getInputs() {
+		return inputs;
+	}
+
+	/**
+	 * @param node The position of the Node in the Individual
+	 * @return The columns of all Outputs of the Node (null if the Node has not been stored)
+	 */
+	double[][] getColumns(int node) {
+		if (node < 0 || node >= columns.length) {
+			return null;
+		}
+		return columns[node];
+	}
+
+	/**
+	 * @param node The position of the Node in the Individual
+	 * @param outputs The columns of all Outputs of the Node
+	 */
+	void setColumns(int node, double[][] outputs) {
+		columns[node] = outputs;
+	}
+}
@@ -2,9 +2,10 @@ package evaluation;
 
 import java.util.ArrayList;
 
+import cartesianNetwork.Genome;
 import cartesianNetwork.Individual;
 import cartesianNetwork.Module;
-import cartesianNetwork.NodeECGP;
+import cartesianNetwork.NodeSet;
 import helperClasses.Functions;
 
 /**
@@ -28,77 +29,72 @@ public class OutputCalculator {
 		if (indiv.getInputAmount() != input.length) {
 			throw new Exception("gegebene InputLnge entspricht nicht der angegebenen InputLnge des Individuums");
 		}
-		if (!indiv.usedNodesHasBeenCalculated()) {
-			calculateUsedNodes(indiv);
-		}
-
 		// go through all nodes
 		// calculate output for all usedNodes
-		boolean[] usedNodes = indiv.getUsedNodes();
+		long[] usedNodes = indiv.getUsedNodes();
 
 		// save all calculated Outputs
-		double[][] outputs = new double[indiv.getNodes().size()][];
+		double[][] outputs = new double[indiv.getNrOfNodes()][];
+		Genome nodes = indiv.getGenome();
 
 		// go through all nodes
-		for (int i = 0; i < usedNodes.length; i++) {
-			if (usedNodes[i]) {
-				// save every input of the Node
-				NodeECGP node = indiv.getNodes().get(i);
-				ArrayList<Double> inputsOfNode = new ArrayList<>();
-
-				for (int[] inputOfNode : node.getInput()) {
-					//for every input of the node
-					if (inputOfNode[0] < indiv.getInputAmount()) {
-						// Node uses input as input
-						inputsOfNode.add((double)input[inputOfNode[0]]);
-					} else {
-						// node uses another Node as input
-						int addressOfInput = inputOfNode[0] - indiv.getInputAmount();
-						if(outputs[addressOfInput] == null){
-							throw new IllegalStateException("No Output for a Node has been calculated "
-									+ "but one node uses antoher as input:"
-									+ "Node "+i+""
-									+ " uses the node:"+(inputOfNode[0] -indiv.getInputAmount()));
-						}
-						// get Output of the referenced Node
-						double[] outputOfReferencedNode = outputs[addressOfInput];
-						// get Output nr input[1] an add it to the list
-						try{
-						inputsOfNode.add(outputOfReferencedNode[inputOfNode[1]]);
-						}
-						catch(ArrayIndexOutOfBoundsException e){
-							String er = "";
-							er += ("Node "+i);
-							er += ("RefNode "+addressOfInput);
-							er += ("Input "+inputOfNode[1]);
-							er += ("NodeType" + node.getNodeType());
-							er += ("RefNodeType" + indiv.getNodes().get(addressOfInput).getNodeType());
-							er += ("\n Function/Module:" + indiv.getNodes().get(addressOfInput).getFunctionNr());
-							if(indiv.getNodes().get(addressOfInput).getNodeType()!=0){
-								er += ("\n ModuleOutputs:" + indiv.getModuleList().getModuleWithIdentifier(indiv.getNodes().get(addressOfInput).getFunctionNr()).getNrOfOutputs());
-							}
-							e.printStackTrace();
-							throw new Exception(er);
+		for (int i = NodeSet.next(usedNodes, 0); i >= 0; i = NodeSet.next(usedNodes, i + 1)) {
+			// save every input of the Node
+			ArrayList<Double> inputsOfNode = new ArrayList<>();
+
+			for (int j = 0; j < nodes.getNrOfInputs(i); j++) {
+				//for every input of the node
+				int[] inputOfNode = { nodes.getInputAddress(i, j), nodes.getInputOutput(i, j) };
+				if (inputOfNode[0] < indiv.getInputAmount()) {
+					// Node uses input as input
+					inputsOfNode.add((double)input[inputOfNode[0]]);
+				} else {
+					// node uses another Node as input
+					int addressOfInput = inputOfNode[0] - indiv.getInputAmount();
+					if(outputs[addressOfInput] == null){
+						throw new IllegalStateException("No Output for a Node has been calculated "
+								+ "but one node uses antoher as input:"
+								+ "Node "+i+""
+								+ " uses the node:"+(inputOfNode[0] -indiv.getInputAmount()));
+					}
+					// get Output of the referenced Node
+					double[] outputOfReferencedNode = outputs[addressOfInput];
+					// get Output nr input[1] an add it to the list
+					try{
+					inputsOfNode.add(outputOfReferencedNode[inputOfNode[1]]);
+					}
+					catch(ArrayIndexOutOfBoundsException e){
+						String er = "";
+						er += ("Node "+i);
+						er += ("RefNode "+addressOfInput);
+						er += ("Input "+inputOfNode[1]);
+						er += ("NodeType" + nodes.getNodeType(i));
+						er += ("RefNodeType" + nodes.getNodeType(addressOfInput));
+						er += ("\n Function/Module:" + nodes.getFunctionNr(addressOfInput));
+						if(nodes.getNodeType(addressOfInput)!=0){
+							er += ("\n ModuleOutputs:" + indiv.getModuleList().getModuleWithIdentifier(nodes.getFunctionNr(addressOfInput)).getNrOfOutputs());
 						}
+						e.printStackTrace();
+						throw new Exception(er);
 					}
 				}
-				// every input has been catched
-				// calculate Output
-				double[] outputsOfNode;
-				if (node.getNodeType() == 0) {
-					// primitive function
-					outputsOfNode = new double[1];
-					outputsOfNode[0] = Functions.getResultForFunction(indiv.getFunctionSet(), inputsOfNode.get(0),
-							inputsOfNode.get(1), node.getFunctionNr());
-				} else {
-					// node uses a module as function
-					Module refModule = indiv.getModuleList().getModuleWithIdentifier(node.getFunctionNr());
-					outputsOfNode = ModuleOutputCalculator.getOutputsForModule(refModule, inputsOfNode, indiv);
-				}
-
-				// save it in outputs
-				outputs[i] = outputsOfNode;
 			}
+			// every input has been catched
+			// calculate Output
+			double[] outputsOfNode;
+			if (nodes.getNodeType(i) == 0) {
+				// primitive function
+				outputsOfNode = new double[1];
+				outputsOfNode[0] = Functions.getResultForFunction(indiv.getFunctionSet(), inputsOfNode.get(0),
+						inputsOfNode.get(1), nodes.getFunctionNr(i));
+			} else {
+				// node uses a module as function
+				Module refModule = indiv.getModuleList().getModuleWithIdentifier(nodes.getFunctionNr(i));
+				outputsOfNode = ModuleOutputCalculator.getOutputsForModule(refModule, inputsOfNode, indiv);
+			}
+
+			// save it in outputs
+			outputs[i] = outputsOfNode;
 		}
 
 		// Output for all Nodes has been calculated
@@ -117,43 +113,4 @@ public class OutputCalculator {
 		}
 		return outputsOfIndividual;
 	}
-
-	/**
-	 * Calculates tha used Nodes of an Individual recursively
-	 * @param indiv The Individual that the nodes should be calculated for
-	 * @throws Exception if somethiing unexpected happens
-	 */
-	public static void calculateUsedNodes(Individual indiv) throws Exception {
-		if (indiv.usedNodesHasBeenCalculated())
-			return;
-
-		boolean[] usedNodes = new boolean[indiv.getNodes().size()];
-
-		// find nodes that are referenced by the output
-		for (int i = 0; i < indiv.getOutputAmount(); i++) {
-			int inputOfOutput = indiv.getOutput()[i][0];
-			if (inputOfOutput >= indiv.getInputAmount()) {
-				// else its an input node
-				usedNodes[inputOfOutput - indiv.getInputAmount()] = true;
-			}
-		}
-
-		// check all other Nodes
-		for (int i = usedNodes.length - 1; i >= 0; i--) {
-			if (usedNodes[i] == true) {
-				NodeECGP node = indiv.getNodes().get(i);
-				// mark all nodes this node uses as used
-				for (int[] inputOfNode : node.getInput()) {
-					if (inputOfNode[0] >= indiv.getInputAmount()) {
-						// else: it is an input Node
-						usedNodes[inputOfNode[0] - indiv.getInputAmount()] = true;
-					}
-				}
-			}
-		}
-
-		// set UsedNodes in the Individual
-
-		indiv.setUsedNodes(usedNodes);
-	}
 }
@@ -0,0 +1,153 @@
+package evaluation;
+
+import java.util.Arrays;
+
+/**
+ * Canonical form of the active subgraph of an Individual
+ *
+ * Built from the compiled Program (Modules are already inlined there),
+ * so Individuals that compute the same graph get equal keys, no matter
+ * where their Nodes are placed, which inactive Nodes they have
+ * or if a part of the graph is stored in a Module.
+ * Instructions whose results are never used by an Output are removed
+ * and the registers are numbered again.
+ *
+ * code as follows:
+ * [number of used Inputs, Index of every used Input,
+ *  number of Instructions, (function, source1, source2) of every Instruction,
+ *  register of every Output]
+ */
+public final class PhenotypeKey {
+
+	private final int functionSet;
+	private final int inputAmount;
+	private final int[] code;
+	// 64-bit hash of functionSet, inputAmount and code
+	private final long hash;
+
+	private PhenotypeKey(int functionSet, int inputAmount, int[] code) {
+		this.functionSet = functionSet;
+		this.inputAmount = inputAmount;
+		this.code = code;
+		long h = mix(functionSet * 0x9E3779B97F4A7C15L + inputAmount);
+		for (int value : code) {
+			h = mix(h + value);
+		}
+		this.hash = h;
+	}
+
+	/**
+	 * creates the key of the Program
+	 * @param program The compiled Individual
+	 * @return The canonical key of the active subgraph
+	 */
+	public static PhenotypeKey create(LinearProgram program) {
+		int[] inputIndex = program.getInputIndex();
+		int[] function = program.getFunction();
+		int[] source1 = program.getSource1();
+		int[] source2 = program.getSource2();
+		int[] destination = program.getDestination();
+		int[] outputRegister = program.getOutputRegister();
+
+		// mark the registers the Outputs depend on (the Instructions are in topological order)
+		boolean[] live = new boolean[program.getRegisterAmount()];
+		for (int register : outputRegister) {
+			live[register] = true;
+		}
+		for (int i = function.length - 1; i >= 0; i--) {
+			if (live[destination[i]]) {
+				live[source1[i]] = true;
+				live[source2[i]] = true;
+			}
+		}
+
+		// number the live registers again
+		int[] newRegister = new int[program.getRegisterAmount()];
+		int nrOfInputs = 0;
+		for (int r = 0; r < inputIndex.length; r++) {
+			if (live[r]) {
+				newRegister[r] = nrOfInputs++;
+			}
+		}
+		int nrOfInstructions = 0;
+		for (int i = 0; i < function.length; i++) {
+			if (live[destination[i]]) {
+				newRegister[destination[i]] = nrOfInputs + nrOfInstructions++;
+			}
+		}
+
+		int[] code = new int[2 + nrOfInputs + 3 * nrOfInstructions + outputRegister.length];
+		int pos = 0;
+		code[pos++] = nrOfInputs;
+		for (int r = 0; r < inputIndex.length; r++) {
+			if (live[r]) {
+				code[pos++] = inputIndex[r];
+			}
+		}
+		code[pos++] = nrOfInstructions;
+		for (int i = 0; i < function.length; i++) {
+			if (live[destination[i]]) {
+				code[pos++] = function[i];
+				code[pos++] = newRegister[source1[i]];
+				code[pos++] = newRegister[source2[i]];
+			}
+		}
+		for (int register : outputRegister) {
+			code[pos++] = newRegister[register];
+		}
+		return new PhenotypeKey(program.getFunctionSet(), program.getInputAmount(), code);
+	}
+
+	/**
+	 * finalizer of SplitMix64
+	 */
+	private static long mix(long h) {
+		h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+		h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+		return h ^ (h >>> 31);
+	}
+
+	/**
+	 * @return The 64-bit structural hash of the active subgraph
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * @return The number of Instructions of the active subgraph
+	 */
+	public int getNrOfInstructions() {
+		return code[1 + code[0]];
+	}
+
+	/**
+	 * @return The estimated number of bytes the key needs
+	 */
+	public long getMemorySize() {
+		// object header, fields, array header and content
+		return 32 + 16 + 4L * code.length;
+	}
+
+	/**
+	 * two keys are equal if the active subgraphs are identical
+	 * (not only the hashes)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PhenotypeKey)) {
+			return false;
+		}
+		PhenotypeKey other = (PhenotypeKey) obj;
+		return hash == other.hash && functionSet == other.functionSet && inputAmount == other.inputAmount
+				&& Arrays.equals(code, other.code);
+	}
+
+	@Override
+	public int hashCode() {
+		return (int) (hash ^ (hash >>> 32));
+	}
+}
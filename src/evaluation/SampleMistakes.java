@@ -0,0 +1,48 @@
+package evaluation;
+
+/**
+ * The samples an Individual classifies wrong
+ * (recorded while its Fitness is calculated, see SampleSchedule)
+ */
+public class SampleMistakes {
+
+	// the Inputs the mistakes have been recorded for
+	private final InputColumns inputs;
+	// bit s is set if sample s of the Inputs is classified wrong
+	private final long[] wrong;
+
+	/**
+	 * @param inputs The Inputs the mistakes have been recorded for
+	 * @param wrong bit s is set if sample s is classified wrong
+	 */
+	SampleMistakes(InputColumns inputs, long[] wrong) {
+		this.inputs = inputs;
+		this.wrong = wrong;
+	}
+
+	/**
+	 * @return The Inputs the mistakes have been recorded for
+	 */
+	public InputColumns getInputs() {
+		return inputs;
+	}
+
+	/**
+	 * @param from The first sample that is looked at
+	 * @return The next sample from the given one on that is classified wrong (-1 if there is none)
+	 */
+	int next(int from) {
+		int word = from >>> 6;
+		if (word >= wrong.length) {
+			return -1;
+		}
+		long bits = wrong[word] & (-1L << from);
+		while (bits == 0) {
+			if (++word == wrong.length) {
+				return -1;
+			}
+			bits = wrong[word];
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+}
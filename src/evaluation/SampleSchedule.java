@@ -0,0 +1,120 @@
+package evaluation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import cartesianNetwork.Individual;
+
+/**
+ * Order of the samples that is adapted during an Evolution-run
+ *
+ * Samples that the Parents classify wrong most often are calculated first,
+ * so the Fitness-Calculation of a bad offspring is stopped early (see Evaluation.useEarlyAbort).
+ * The Fitness of an Individual doesn't depend on the order of the samples.
+ *
+ * Every update the mistakes of the current Parents are added to the counts
+ * (recorded while their Fitness has been calculated, see IncrementalEvaluator).
+ * Every reorderInterval updates the samples are sorted again and the counts are halved,
+ * so older Parents count less.
+ */
+public class SampleSchedule {
+
+	// number of updates (generations) after which the samples are sorted again
+	static int reorderInterval = 10;
+
+	// the samples in their original order
+	private final InputColumns inputs;
+	// missCount[s] = weighted number of Parents that classified the original sample s wrong
+	private final int[] missCount;
+	// order[s] = the original sample that is calculated at position s
+	private int[] order;
+	// the samples in the current order
+	private InputColumns columns;
+	// number of calls of update()
+	private int updates = 0;
+
+	/**
+	 * @param inputs The samples in their original order
+	 */
+	public SampleSchedule(InputColumns inputs) {
+		this.inputs = inputs;
+		this.missCount = new int[inputs.getNrOfSamples()];
+		this.order = new int[inputs.getNrOfSamples()];
+		for (int s = 0; s < order.length; s++) {
+			order[s] = s;
+		}
+		this.columns = inputs;
+	}
+
+	/**
+	 * @return The samples in the current order
+	 */
+	public synchronized InputColumns getColumns() {
+		return columns;
+	}
+
+	/**
+	 * call this once per generation with the selected Parents
+	 * the samples are sorted again every reorderInterval calls
+	 * @param parents The Parents of the next generation (with exact Fitness)
+	 * @throws Exception if something unexpected happens
+	 */
+	public synchronized void update(ArrayList<Individual> parents) throws Exception {
+		for (Individual parent : parents) {
+			SampleMistakes mistakes = parent.getSampleMistakes();
+			if (mistakes == null || mistakes.getInputs() != columns) {
+				// the mistakes have not been recorded during the Fitness-Calculation
+				mistakes = BatchEvaluator.getMistakes(LinearProgram.compile(parent), columns);
+				parent.setSampleMistakes(mistakes);
+			}
+			for (int s = mistakes.next(0); s >= 0; s = mistakes.next(s + 1)) {
+				missCount[order[s]]++;
+			}
+		}
+		if (++updates % reorderInterval != 0) {
+			return;
+		}
+		int[] oldOrder = order;
+		sortSamples();
+		if (order != oldOrder) {
+			// the Parents keep their mistakes for the new order
+			int[] position = new int[order.length];
+			for (int s = 0; s < order.length; s++) {
+				position[order[s]] = s;
+			}
+			for (Individual parent : parents) {
+				SampleMistakes mistakes = parent.getSampleMistakes();
+				long[] wrong = new long[(order.length + 63) >>> 6];
+				for (int s = mistakes.next(0); s >= 0; s = mistakes.next(s + 1)) {
+					int newPosition = position[oldOrder[s]];
+					wrong[newPosition >>> 6] |= 1L << newPosition;
+				}
+				parent.setSampleMistakes(new SampleMistakes(columns, wrong));
+			}
+		}
+		// older Parents count less
+		for (int s = 0; s < missCount.length; s++) {
+			missCount[s] >>>= 1;
+		}
+	}
+
+	/**
+	 * sorts the samples by descending missCount
+	 * (samples with the same count keep their original order)
+	 */
+	private void sortSamples() {
+		long[] keys = new long[missCount.length];
+		for (int s = 0; s < keys.length; s++) {
+			keys[s] = ((long) (Integer.MAX_VALUE - missCount[s]) << 32) | s;
+		}
+		Arrays.sort(keys);
+		int[] newOrder = new int[keys.length];
+		for (int s = 0; s < keys.length; s++) {
+			newOrder[s] = (int) keys[s];
+		}
+		if (!Arrays.equals(order, newOrder)) {
+			order = newOrder;
+			columns = inputs.reorder(order);
+		}
+	}
+}
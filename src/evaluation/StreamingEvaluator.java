@@ -0,0 +1,65 @@
+package evaluation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import helperClasses.DataSet;
+
+/**
+ * Class for calculating the Fitness of many compiled Individuals
+ * for data sets that are too big to be stored in columns (InputColumns) in the heap
+ *
+ * The samples are read in blocks of BLOCK_SIZE samples from the data set
+ * (for example mapped from a file by DataSetCache).
+ * Every Individual is calculated for one block before the next block is read,
+ * so the file is read once and sequentially per generation
+ * and only one block is stored in the heap.
+ */
+public class StreamingEvaluator {
+
+	// number of samples that are read at once
+	static int BLOCK_SIZE = 4096;
+
+	/**
+	 * calculates the Fitness of all compiled Individuals
+	 * smaller fitness is better
+	 * @param programs The compiled Individuals
+	 * @param inputs The Inputs that determine fitness
+	 * @param maxFitness The calculation of an Individual stops as soon as its Fitness is bigger than this value
+	 * @param executor The Executor that calculates the Individuals of one block in parallel
+	 * @return The Fitness Value of every Individual
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 * @throws Exception if something unexpected happens
+	 */
+	public static int[] calculateFitness(List<LinearProgram> programs, DataSet inputs, int maxFitness,
+			ExecutorService executor) throws Exception {
+		int[] fitness = new int[programs.size()];
+		for (int start = 0; start < inputs.getNrOfSamples(); start += BLOCK_SIZE) {
+			InputColumns block = new InputColumns(inputs, start,
+					Math.min(BLOCK_SIZE, inputs.getNrOfSamples() - start));
+			ArrayList<Callable<Integer>> tasks = new ArrayList<>();
+			ArrayList<Integer> running = new ArrayList<>();
+			for (int p = 0; p < programs.size(); p++) {
+				if (fitness[p] > maxFitness) {
+					// calculation has been stopped
+					continue;
+				}
+				LinearProgram program = programs.get(p);
+				int remaining = maxFitness - fitness[p];
+				tasks.add(() -> FitnessCalculator.calculateFitness(program, block, remaining));
+				running.add(p);
+			}
+			if (tasks.isEmpty()) {
+				break;
+			}
+			List<Future<Integer>> results = executor.invokeAll(tasks);
+			for (int t = 0; t < results.size(); t++) {
+				fitness[running.get(t)] += results.get(t).get();
+			}
+		}
+		return fitness;
+	}
+}
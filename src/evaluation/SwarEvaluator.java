@@ -0,0 +1,300 @@
+package evaluation;
+
+/**
+ * Class for calculating the Fitness of a compiled Individual
+ * that uses functionSet 3 or 4 (8-Bit image functions)
+ *
+ * The values of 8 samples are packed into the bytes of one long (SWAR),
+ * so every Instruction calculates 8 samples with a few long operations.
+ * This is only exact if every register stays in [0,255] for every sample,
+ * which is checked with an upper bound for every register (see canCalculate).
+ */
+public class SwarEvaluator {
+
+	// number of longs (8 samples each) that are calculated at once
+	static final int TILE_WORDS = 512;
+
+	// the highest bit of every byte
+	private static final long HIGH_BITS = 0x8080808080808080L;
+	// the lower 7 bits of every byte
+	private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+	// the lower byte of every 16-bit field
+	private static final long EVEN_BYTES = 0x00FF00FF00FF00FFL;
+	// bit 8 of every 16-bit field
+	private static final long FIELD_CARRY = 0x0100010001000100L;
+
+	// function of functionSet 3 for every function of functionSet 4
+	private static final int[] SET4_TO_SET3 = { 0, 4, 5, 8, 12, 13, 14, 15, 16 };
+
+	/**
+	 * checks if the Fitness of the Program can be calculated with packed bytes
+	 * (functionSet 3 or 4, all Inputs in [0,255] and no register can get bigger than 255)
+	 * @param program The compiled Individual
+	 * @param bytes The packed Inputs
+	 * @return if calculateFitness gives the same result as the BatchEvaluator
+	 */
+	public static boolean canCalculate(LinearProgram program, ByteColumns bytes) {
+		if (program.getFunctionSet() != 3 && program.getFunctionSet() != 4) {
+			return false;
+		}
+		if (!bytes.isByteRange()) {
+			return false;
+		}
+		// highest possible value of every register
+		int[] upperBound = new int[program.getRegisterAmount()];
+		int[] inputIndex = program.getInputIndex();
+		for (int r = 0; r < inputIndex.length; r++) {
+			upperBound[r] = bytes.getMaxValue(inputIndex[r]);
+		}
+		int[] function = program.getFunction();
+		for (int i = 0; i < function.length; i++) {
+			int bound = getUpperBound(getFunctionOfSet3(program.getFunctionSet(), function[i]),
+					upperBound[program.getSource1()[i]], upperBound[program.getSource2()[i]]);
+			if (bound > 255) {
+				return false;
+			}
+			upperBound[program.getDestination()[i]] = bound;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the function of functionSet 3 that calculates the same as the given function
+	 */
+	private static int getFunctionOfSet3(int functionSet, int functionNr) {
+		if (functionSet == 3) {
+			return functionNr;
+		}
+		if (functionNr < 1 || functionNr >= SET4_TO_SET3.length) {
+			throw new IllegalArgumentException("Function is not known");
+		}
+		return SET4_TO_SET3[functionNr];
+	}
+
+	/**
+	 * highest possible result of a function of functionSet 3
+	 * if both Inputs are in [0,max1] and [0,max2]
+	 */
+	private static int getUpperBound(int functionNr, int max1, int max2) {
+		switch (functionNr) {
+		case 2:// IDENTITY
+			return max1;
+		case 9:// RIGHTSHIFT ONE
+			return max1 >>> 1;
+		case 10:// RIGHTSHIFT TWO
+			return max1 >>> 2;
+		case 12:// ADD SAT
+			return Math.min(max1 + max2, 255);
+		case 13:// ADD
+			return max1 + max2;
+		case 14:// AVERAGE
+			return Math.min(max1 + max2, 255) >>> 1;
+		case 15:// MAX
+			return Math.max(max1, max2);
+		case 16:// MIN
+			return Math.min(max1, max2);
+		default:
+			// constant, inversion, bitwise functions and swap stay in [0,255]
+			return 255;
+		}
+	}
+
+	/**
+	 * calculates the Fitness of the compiled Individual
+	 * smaller fitness is better
+	 * (use canCalculate first)
+	 * @param program The compiled Individual
+	 * @param bytes The packed Inputs that determine fitness
+	 * @param columns The Inputs (for the classifications)
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 * @throws Exception if the Output cannot be interpreted
+	 */
+	public static int calculateFitness(LinearProgram program, ByteColumns bytes, InputColumns columns)
+			throws Exception {
+		return calculateFitness(program, bytes, columns, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * calculates the Fitness of the compiled Individual
+	 * smaller fitness is better
+	 * (use canCalculate first)
+	 * @param program The compiled Individual
+	 * @param bytes The packed Inputs that determine fitness
+	 * @param columns The Inputs (for the classifications)
+	 * @param maxFitness The calculation stops as soon as the Fitness is bigger than this value
+	 * @return The Fitness Value of the Individual (no set in the Individual)
+	 *         or a lower bound bigger than maxFitness if the calculation has been stopped
+	 * @throws Exception if the Output cannot be interpreted
+	 */
+	public static int calculateFitness(LinearProgram program, ByteColumns bytes, InputColumns columns,
+			int maxFitness) throws Exception {
+		long[][] registers = new long[program.getRegisterAmount()][TILE_WORDS];
+		double[] output = new double[program.getOutputAmount()];
+
+		int[] inputIndex = program.getInputIndex();
+		int[] function = new int[program.getNrOfInstructions()];
+		for (int i = 0; i < function.length; i++) {
+			function[i] = getFunctionOfSet3(program.getFunctionSet(), program.getFunction()[i]);
+		}
+		int[] source1 = program.getSource1();
+		int[] source2 = program.getSource2();
+		int[] destination = program.getDestination();
+		int[] outputRegister = program.getOutputRegister();
+		boolean countPacked = outputRegister.length == 1 && bytes.getClassifications() != null;
+
+		int sum = 0;
+		for (int start = 0; start < bytes.getNrOfWords(); start += TILE_WORDS) {
+			int length = Math.min(TILE_WORDS, bytes.getNrOfWords() - start);
+			// load the used Inputs of the tile
+			for (int r = 0; r < inputIndex.length; r++) {
+				System.arraycopy(bytes.getColumn(inputIndex[r]), start, registers[r], 0, length);
+			}
+			// calculate every Instruction for the whole tile
+			for (int i = 0; i < function.length; i++) {
+				calculateInstruction(function[i], registers[source1[i]], registers[source2[i]],
+						registers[destination[i]], length);
+			}
+			// increment sum for each mistake in identification
+			if (countPacked) {
+				sum += countMistakes(registers[outputRegister[0]], bytes, start, length);
+			} else {
+				for (int s = start * 8; s < Math.min((start + length) * 8, bytes.getNrOfSamples()); s++) {
+					int word = (s >>> 3) - start;
+					int shift = (s & 7) * 8;
+					for (int o = 0; o < outputRegister.length; o++) {
+						output[o] = (registers[outputRegister[o]][word] >>> shift) & 0xFF;
+					}
+					sum += ComputeOutput.computeOutputAndClassification(output, columns.getClassification(s));
+				}
+			}
+			if (sum > maxFitness) {
+				return sum;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * counts the samples where the (single) Output differs from the classification
+	 */
+	private static int countMistakes(long[] output, ByteColumns bytes, int start, int length) {
+		long[] classifications = bytes.getClassifications();
+		int correct = 0;
+		for (int w = 0; w < length; w++) {
+			long difference = output[w] ^ classifications[start + w];
+			// highest bit of a byte is set if the byte of difference is 0
+			long equal = ~(((difference & LOW_BITS) + LOW_BITS) | difference | LOW_BITS);
+			int samplesInWord = Math.min(8, bytes.getNrOfSamples() - (start + w) * 8);
+			if (samplesInWord < 8) {
+				// ignore the bytes after the last sample
+				equal &= (1L << (samplesInWord * 8)) - 1;
+			}
+			correct += Long.bitCount(equal);
+		}
+		return Math.min(length * 8, bytes.getNrOfSamples() - start * 8) - correct;
+	}
+
+	/**
+	 * calculates one function of functionSet 3 for packed bytes
+	 */
+	private static void calculateInstruction(int functionNr, long[] in1, long[] in2, long[] out, int length) {
+		switch (functionNr) {
+		case 1:// CONSTANT
+			for (int w = 0; w < length; w++)
+				out[w] = -1L;
+			return;
+		case 2:// IDENTITY
+			System.arraycopy(in1, 0, out, 0, length);
+			return;
+		case 3:// INVERSION
+			for (int w = 0; w < length; w++)
+				out[w] = ~in1[w];
+			return;
+		case 4:// BITWISE OR
+			for (int w = 0; w < length; w++)
+				out[w] = in1[w] | in2[w];
+			return;
+		case 5:// BITWISE AND
+			for (int w = 0; w < length; w++)
+				out[w] = in1[w] & in2[w];
+			return;
+		case 6:// BITWISE NAND
+			for (int w = 0; w < length; w++)
+				out[w] = ~(in1[w] & in2[w]);
+			return;
+		case 7:// BITWISE OR (in1 INVERS)
+			for (int w = 0; w < length; w++)
+				out[w] = ~in1[w] | in2[w];
+			return;
+		case 8:// BITWISE XOR
+			for (int w = 0; w < length; w++)
+				out[w] = in1[w] ^ in2[w];
+			return;
+		case 9:// RIGHTSHIFT ONE
+			for (int w = 0; w < length; w++)
+				out[w] = (in1[w] >>> 1) & 0x7F7F7F7F7F7F7F7FL;
+			return;
+		case 10:// RIGHTSHIFT TWO
+			for (int w = 0; w < length; w++)
+				out[w] = (in1[w] >>> 2) & 0x3F3F3F3F3F3F3F3FL;
+			return;
+		case 11:// SWAP
+			for (int w = 0; w < length; w++)
+				out[w] = ((in1[w] << 4) & 0xF0F0F0F0F0F0F0F0L) | ((in2[w] >>> 4) & 0x0F0F0F0F0F0F0F0FL);
+			return;
+		case 12:// ADD SAT
+			for (int w = 0; w < length; w++)
+				out[w] = addSaturated(in1[w], in2[w]);
+			return;
+		case 13:// ADD (no byte can overflow, see canCalculate)
+			for (int w = 0; w < length; w++)
+				out[w] = ((in1[w] & LOW_BITS) + (in2[w] & LOW_BITS)) ^ ((in1[w] ^ in2[w]) & HIGH_BITS);
+			return;
+		case 14:// AVERAGE
+			for (int w = 0; w < length; w++)
+				out[w] = (addSaturated(in1[w], in2[w]) >>> 1) & LOW_BITS;
+			return;
+		case 15:// MAX
+			for (int w = 0; w < length; w++)
+				out[w] = max(in1[w], in2[w]);
+			return;
+		case 16:// MIN
+			for (int w = 0; w < length; w++)
+				out[w] = min(in1[w], in2[w]);
+			return;
+		default:
+			throw new IllegalArgumentException("Function is not known");
+		}
+	}
+
+	/**
+	 * adds all bytes, bytes that overflow are set to 255
+	 */
+	private static long addSaturated(long a, long b) {
+		// sum of every byte without carry into the next byte
+		long sum = ((a & LOW_BITS) + (b & LOW_BITS)) ^ ((a ^ b) & HIGH_BITS);
+		// highest bit of every byte that overflowed
+		long carry = ((a & b) | ((a | b) & ~sum)) & HIGH_BITS;
+		return sum | ((carry >>> 7) * 0xFF);
+	}
+
+	/**
+	 * @return mask with 0xFF in every byte where a >= b (unsigned)
+	 */
+	private static long greaterOrEqual(long a, long b) {
+		// compare even and odd bytes in 16-bit fields, bit 8 of a field is set if a >= b
+		long even = ((a & EVEN_BYTES) | FIELD_CARRY) - (b & EVEN_BYTES);
+		long odd = (((a >>> 8) & EVEN_BYTES) | FIELD_CARRY) - ((b >>> 8) & EVEN_BYTES);
+		long evenMask = ((even & FIELD_CARRY) >>> 8) * 0xFF;
+		long oddMask = ((odd & FIELD_CARRY) >>> 8) * 0xFF;
+		return evenMask | (oddMask << 8);
+	}
+
+	private static long max(long a, long b) {
+		return b ^ ((a ^ b) & greaterOrEqual(a, b));
+	}
+
+	private static long min(long a, long b) {
+		return a ^ ((a ^ b) & greaterOrEqual(a, b));
+	}
+}
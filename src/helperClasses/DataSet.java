@@ -0,0 +1,342 @@
+package helperClasses;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * An immutable data set of Inputs with their classification
+ *
+ * Every value is stored in one byte (values in [0,255])
+ * or in one bit if all values are 0 or 1.
+ * The values are always stored row by row (all Inputs of one sample behind each other,
+ * used to calculate one sample after another or to read the samples block by block).
+ * The rows are split into windows of whole rows, so that data sets bigger than 2 GB
+ * can be mapped from a file window by window (see DataSetCache).
+ * Data sets that are created in the heap (create) also store the values column by column
+ * (one Input of all samples behind each other, used to calculate many samples at once),
+ * for all other data sets the column view is read from the rows.
+ * The classifications are stored in a separate byte[] (values in [0,255]).
+ *
+ * Layout of the columns (little endian, so that one long contains consecutive samples):
+ * bytes: value of Input i for sample s at byte i*columnStride + s
+ * bits: value of Input i for sample s at bit (s%8) of byte i*columnStride + s/8
+ * (columnStride is a multiple of 8, so every column starts at a long)
+ */
+public final class DataSet {
+
+	// number of bits of one value
+	public static final int BYTES = 8;
+	public static final int BITS = 1;
+
+	// maximal size of one window of the rows (in bytes)
+	static final int MAX_WINDOW_SIZE = 1 << 30;
+
+	private final int nrOfSamples;
+	private final int inputAmount;
+	private final int bitsPerValue;
+	// number of bytes of one row and of one column
+	private final int rowStride;
+	private final int columnStride;
+	// the values row by row: sample s is row s % samplesPerWindow of rowWindows[s / samplesPerWindow]
+	private final ByteBuffer[] rowWindows;
+	private final int samplesPerWindow;
+	// the values column by column (null if only the rows are stored)
+	private final ByteBuffer columns;
+	// classification of every sample (unsigned)
+	private final byte[] labels;
+
+	/**
+	 * Creates a data set from already packed values
+	 * (the buffers must not be changed afterwards)
+	 * @param nrOfSamples The number of samples
+	 * @param inputAmount The number of Inputs of one sample
+	 * @param bitsPerValue BYTES or BITS
+	 * @param rows The values row by row (see getRowStride())
+	 * @param columns The values column by column (see getColumnStride(), null if only the rows are stored)
+	 * @param labels The classification of every sample
+	 */
+	public DataSet(int nrOfSamples, int inputAmount, int bitsPerValue, ByteBuffer rows, ByteBuffer columns,
+			byte[] labels) {
+		this(nrOfSamples, inputAmount, bitsPerValue, new ByteBuffer[] { rows }, Math.max(nrOfSamples, 1), columns,
+				labels);
+	}
+
+	/**
+	 * Creates a data set from values that are packed row by row in several windows
+	 * (the buffers must not be changed afterwards)
+	 * @param nrOfSamples The number of samples
+	 * @param inputAmount The number of Inputs of one sample
+	 * @param bitsPerValue BYTES or BITS
+	 * @param rowWindows The values row by row, every window contains samplesPerWindow rows (the last one the rest)
+	 * @param samplesPerWindow The number of rows of one window
+	 * @param labels The classification of every sample
+	 */
+	public DataSet(int nrOfSamples, int inputAmount, int bitsPerValue, ByteBuffer[] rowWindows,
+			int samplesPerWindow, byte[] labels) {
+		this(nrOfSamples, inputAmount, bitsPerValue, rowWindows, samplesPerWindow, null, labels);
+	}
+
+	private DataSet(int nrOfSamples, int inputAmount, int bitsPerValue, ByteBuffer[] rowWindows,
+			int samplesPerWindow, ByteBuffer columns, byte[] labels) {
+		if (bitsPerValue != BYTES && bitsPerValue != BITS) {
+			throw new IllegalArgumentException("a value needs to be stored in one byte or one bit");
+		}
+		this.nrOfSamples = nrOfSamples;
+		this.inputAmount = inputAmount;
+		this.bitsPerValue = bitsPerValue;
+		this.rowStride = getRowStride(inputAmount, bitsPerValue);
+		this.columnStride = getColumnStride(nrOfSamples, bitsPerValue);
+		this.samplesPerWindow = samplesPerWindow;
+		if (samplesPerWindow <= 0 || rowWindows.length < (nrOfSamples + (long) samplesPerWindow - 1) / samplesPerWindow
+				|| (columns != null && columns.capacity() < (long) columnStride * inputAmount)
+				|| labels.length != nrOfSamples) {
+			throw new IllegalArgumentException("the buffers don't fit to the size of the data set");
+		}
+		this.rowWindows = new ByteBuffer[rowWindows.length];
+		for (int w = 0; w < rowWindows.length; w++) {
+			long samples = Math.min(samplesPerWindow, nrOfSamples - (long) w * samplesPerWindow);
+			if (rowWindows[w].capacity() < samples * rowStride) {
+				throw new IllegalArgumentException("the buffers don't fit to the size of the data set");
+			}
+			this.rowWindows[w] = rowWindows[w].asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+		}
+		this.columns = (columns == null) ? null : columns.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+		this.labels = labels;
+	}
+
+	/**
+	 * Packs the given Inputs into a data set
+	 * (every value and every classification has to be in [0,255])
+	 * @param inputs The Inputs (all need the same Input-length)
+	 * @return The data set (one bit per value if all values are 0 or 1)
+	 */
+	public static DataSet create(List<? extends InputWithClassification> inputs) {
+		int nrOfSamples = inputs.size();
+		int inputAmount = inputs.get(0).getInput().length;
+		byte[] labels = new byte[nrOfSamples];
+		// check the values first, so that the Inputs don't have to be kept in memory
+		boolean binary = true;
+		for (int s = 0; s < nrOfSamples; s++) {
+			int[] input = inputs.get(s).getInput();
+			if (input.length != inputAmount) {
+				throw new IllegalArgumentException("all Inputs need the same length");
+			}
+			for (int value : input) {
+				if (value < 0 || value > 255) {
+					throw new IllegalArgumentException("a DataSet can only store values in [0,255]");
+				}
+				binary &= value <= 1;
+			}
+			int classification = inputs.get(s).getClassification();
+			if (classification < 0 || classification > 255) {
+				throw new IllegalArgumentException("a DataSet can only store classifications in [0,255]");
+			}
+			labels[s] = (byte) classification;
+		}
+
+		int bitsPerValue = binary ? BITS : BYTES;
+		int rowStride = getRowStride(inputAmount, bitsPerValue);
+		int columnStride = getColumnStride(nrOfSamples, bitsPerValue);
+		ByteBuffer rows = ByteBuffer.allocate(getHeapSize(rowStride, nrOfSamples));
+		ByteBuffer columns = ByteBuffer.allocate(getHeapSize(columnStride, inputAmount));
+		for (int s = 0; s < nrOfSamples; s++) {
+			int[] input = inputs.get(s).getInput();
+			for (int i = 0; i < inputAmount; i++) {
+				if (!binary) {
+					rows.put(s * rowStride + i, (byte) input[i]);
+					columns.put(i * columnStride + s, (byte) input[i]);
+				} else if (input[i] == 1) {
+					setBit(rows, s * rowStride + (i >>> 3), i & 7);
+					setBit(columns, i * columnStride + (s >>> 3), s & 7);
+				}
+			}
+		}
+		return new DataSet(nrOfSamples, inputAmount, bitsPerValue, rows, columns, labels);
+	}
+
+	/**
+	 * Creates a data set from values that are only packed row by row
+	 * (no columns are stored, the column view is read from the rows)
+	 * @param nrOfSamples The number of samples
+	 * @param inputAmount The number of Inputs of one sample
+	 * @param bitsPerValue BYTES or BITS
+	 * @param rows The values row by row (see getRowStride(), must not be changed afterwards)
+	 * @param labels The classification of every sample
+	 * @return The data set
+	 */
+	public static DataSet createFromRows(int nrOfSamples, int inputAmount, int bitsPerValue, ByteBuffer rows,
+			byte[] labels) {
+		return new DataSet(nrOfSamples, inputAmount, bitsPerValue, rows, null, labels);
+	}
+
+	/**
+	 * sets one bit of a byte of the buffer
+	 */
+	private static void setBit(ByteBuffer buffer, int index, int bit) {
+		buffer.put(index, (byte) (buffer.get(index) | (1 << bit)));
+	}
+
+	/**
+	 * @return The size of a buffer in the heap for count rows or columns of the given stride
+	 * @throws IllegalArgumentException if the buffer would be bigger than 2 GB
+	 */
+	private static int getHeapSize(int stride, int count) {
+		long size = (long) stride * count;
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("the data set is too big for the heap (use DataSetCache)");
+		}
+		return (int) size;
+	}
+
+	/**
+	 * @return The number of bytes of one row
+	 */
+	public static int getRowStride(int inputAmount, int bitsPerValue) {
+		return bitsPerValue == BITS ? (inputAmount + 7) / 8 : inputAmount;
+	}
+
+	/**
+	 * @return The number of bytes of one column (multiple of 8)
+	 */
+	public static int getColumnStride(int nrOfSamples, int bitsPerValue) {
+		return bitsPerValue == BITS ? (nrOfSamples + 63) / 64 * 8 : (nrOfSamples + 7) / 8 * 8;
+	}
+
+	/**
+	 * @return The number of rows of one window (so that a window is at most MAX_WINDOW_SIZE bytes)
+	 */
+	public static int getSamplesPerWindow(int rowStride) {
+		return Math.max(1, MAX_WINDOW_SIZE / Math.max(rowStride, 1));
+	}
+
+	public int getNrOfSamples() {
+		return nrOfSamples;
+	}
+
+	public int getInputAmount() {
+		return inputAmount;
+	}
+
+	/**
+	 * @return BYTES or BITS
+	 */
+	public int getBitsPerValue() {
+		return bitsPerValue;
+	}
+
+	/**
+	 * @return if all values are 0 or 1
+	 */
+	public boolean isBinary() {
+		return bitsPerValue == BITS;
+	}
+
+	/**
+	 * @param sample The number of the sample
+	 * @param input The Index of the Input
+	 * @return The value of the Input for the sample
+	 */
+	public int getValue(int sample, int input) {
+		ByteBuffer rows = rowWindows[sample / samplesPerWindow];
+		int offset = (sample % samplesPerWindow) * rowStride;
+		if (bitsPerValue == BITS) {
+			return (rows.get(offset + (input >>> 3)) >>> (input & 7)) & 1;
+		}
+		return rows.get(offset + input) & 0xFF;
+	}
+
+	/**
+	 * @param sample The number of the sample
+	 * @return The classification of the sample
+	 */
+	public int getClassification(int sample) {
+		return labels[sample] & 0xFF;
+	}
+
+	/**
+	 * writes the Inputs of one sample into the given Array (row view)
+	 * @param sample The number of the sample
+	 * @param input The Array the Inputs are written to (length = getInputAmount())
+	 */
+	public void getInput(int sample, int[] input) {
+		ByteBuffer rows = rowWindows[sample / samplesPerWindow];
+		int offset = (sample % samplesPerWindow) * rowStride;
+		if (bitsPerValue == BITS) {
+			for (int i = 0; i < inputAmount; i++) {
+				input[i] = (rows.get(offset + (i >>> 3)) >>> (i & 7)) & 1;
+			}
+		} else {
+			for (int i = 0; i < inputAmount; i++) {
+				input[i] = rows.get(offset + i) & 0xFF;
+			}
+		}
+	}
+
+	/**
+	 * writes the values of one Input for all samples into the given Array (column view)
+	 * @param input The Index of the Input
+	 * @param column The Array the values are written to (length >= getNrOfSamples())
+	 */
+	public void getColumn(int input, int[] column) {
+		if (columns == null) {
+			for (int s = 0; s < nrOfSamples; s++) {
+				column[s] = getValue(s, input);
+			}
+			return;
+		}
+		int offset = input * columnStride;
+		if (bitsPerValue == BITS) {
+			for (int s = 0; s < nrOfSamples; s++) {
+				column[s] = (columns.get(offset + (s >>> 3)) >>> (s & 7)) & 1;
+			}
+		} else {
+			for (int s = 0; s < nrOfSamples; s++) {
+				column[s] = columns.get(offset + s) & 0xFF;
+			}
+		}
+	}
+
+	/**
+	 * @param input The Index of the Input
+	 * @param word The number of the long in the column
+	 * @return 64 packed values (BITS) or 8 packed values (BYTES) of the Input,
+	 *         the first sample in the lowest bit or byte
+	 */
+	public long getColumnWord(int input, int word) {
+		if (columns != null) {
+			return columns.getLong(input * columnStride + word * 8);
+		}
+		// the values of the word are read from the rows (samples behind the last sample are 0)
+		int valuesPerWord = 64 / bitsPerValue;
+		int first = word * valuesPerWord;
+		int last = Math.min(first + valuesPerWord, nrOfSamples);
+		long packed = 0;
+		for (int s = first; s < last; s++) {
+			packed |= (long) getValue(s, input) << ((s - first) * bitsPerValue);
+		}
+		return packed;
+	}
+
+	/**
+	 * @return if the values are also stored column by column
+	 *         (otherwise the column view is read from the rows)
+	 */
+	public boolean hasColumns() {
+		return columns != null;
+	}
+
+	/**
+	 * @return The number of bytes of one row
+	 */
+	public int getRowStride() {
+		return rowStride;
+	}
+
+	/**
+	 * @return The number of bytes of one column (multiple of 8)
+	 */
+	public int getColumnStride() {
+		return columnStride;
+	}
+}
@@ -67,21 +67,61 @@ public class Functions {
 		throw new IllegalArgumentException("FunctionSet is not known");
 	}
 
+	/**
+	 * Calculates the Outputs of one function for a whole column of values
+	 * (out[i] = getResultForFunction(functionSet, in1[i], in2[i], functionNr))
+	 * the function is looked up once for all values, every function has its own loop
+	 * (the loops call the same helpers as getResultForFunction)
+	 * 
+	 * @param functionSet the active functionSet
+	 * @param in1 the first inputs
+	 * @param in2 the second inputs
+	 * @param out the array the outputs are written to
+	 * @param length the number of values that should be calculated
+	 * @param functionNr the adress of the function
+	 */
+	static public void getResultsForFunction(int functionSet, double[] in1, double[] in2, double[] out, int length,
+			int functionNr) {
+		if (functionSet == 1) {
+			getResultsForFunctionSet1(in1, in2, out, length, functionNr);
+			return;
+		}
+		if (functionSet == 2) {
+			getResultsForFunctionSet2(in1, in2, out, length, functionNr);
+			return;
+		}
+		if (functionSet == 3) {
+			getResultsForFunctionSet3(in1, in2, out, length, functionNr);
+			return;
+		}
+		if (functionSet == 4) {
+			getResultsForFunctionSet4(in1, in2, out, length, functionNr);
+			return;
+		}
+		if (functionSet == 5) {
+			getResultsForFunctionSet5(in1, in2, out, length, functionNr);
+			return;
+		}
+		if (functionSet == 6) {
+			getResultsForFunctionSet6(in1, in2, out, length, functionNr);
+			return;
+		}
+		throw new IllegalArgumentException("FunctionSet is not known");
+	}
+
 	/**
 	 * small Functionset
 	 */
 	static private double getResultForFunctionSet1(double in1, double in2, int functionNr) {
 		switch (functionNr) {
 		case 1:// ADD
-			return in1 + in2;
+			return add(in1, in2);
 		case 2:// SUB
-			return in1 - in2;
+			return sub(in1, in2);
 		case 3:// MULT
-			return in1 * in2;
+			return mult(in1, in2);
 		case 4:// DIVIDE
-			if (in2 == 0)
-				return 0;
-			return in1 / in2;
+			return divide(in1, in2);
 		default:
 			throw new IllegalArgumentException("Function is not known");
 		}
@@ -93,15 +133,13 @@ public class Functions {
 	static private double getResultForFunctionSet2(double in1, double in2, int functionNr) {
 		switch (functionNr) {
 		case 1:// ADD
-			return in1 + in2;
+			return add(in1, in2);
 		case 2:// SUB
-			return in1 - in2;
+			return sub(in1, in2);
 		case 3:// MULT
-			return in1 * in2;
+			return mult(in1, in2);
 		case 4:// DIVIDE
-			if (in2 == 0)
-				return 0;
-			return in1 / in2;
+			return divide(in1, in2);
 		case 5:// ADD CONST
 			return in1 + 255;
 		case 6:// SUB CONST
@@ -111,15 +149,9 @@ public class Functions {
 		case 8:// SQRT
 			return Math.sqrt(in1);
 		case 9:// POW
-			double pow = Math.pow(in1, in2);
-			if (Double.isNaN(pow))
-				return 1;
-			return pow;
+			return pow(in1, in2);
 		case 10:// SQUARE
-			double sqrt = Math.pow(in1, 2);
-			if (Double.isNaN(sqrt))
-				return 1;
-			return sqrt;
+			return square(in1);
 		case 11:// COS
 			return Math.cos(in1);
 		case 12:// SIN
@@ -135,15 +167,15 @@ public class Functions {
 		case 17:// MAX
 			return Math.max(in1, in2);
 		case 18:// LOG2
-			return (Math.log(in1) / Math.log(2));
+			return log2(in1);
 		case 19:// ROUND
-			return (Math.round(in1));
+			return Math.round(in1);
 		case 20:// FRAC
-			return (in1 % 1);
+			return frac(in1);
 		case 21:// RECIPRICAL
-			return (1 / in1);
+			return reciprocal(in1);
 		case 22:// RSQRT
-			return (1 / Math.sqrt(in1));
+			return rsqrt(in1);
 		default:
 			throw new IllegalArgumentException("Function " + functionNr + " is not known");
 		}
@@ -157,39 +189,35 @@ public class Functions {
 		case 1:// CONSTANT
 			return 255;
 		case 2:// IDENTITY
-			return (int) in1;
+			return identity(in1);
 		case 3:// INVERSION
-			return (255 - (int) in1);
+			return inversion(in1);
 		case 4:// BITWISE OR
-			return ((int) in1 | (int) in2);
+			return or(in1, in2);
 		case 5:// BITWISE AND
-			return ((int) in1 & (int) in2);
+			return and(in1, in2);
 		case 6:// BITWISE NAND
-			return ((int) (~((int) in1 & (int) in2) & 0xFF));
+			return nand(in1, in2);
 		case 7:// BITWISE OR (in1 INVERS)
-			return ((int) ((~(int) in1) & 0xFF | (int) in2));
+			return orInverted(in1, in2);
 		case 8:// BITWISE XOR
-			return ((int) ((int) in1 ^ (int) in2));
+			return xor(in1, in2);
 		case 9:// RIGHTSHIFT ONE
-			return ((int) ((int) in1 >>> 1));
+			return rightShift(in1, 1);
 		case 10:// RIGHTSHIFT TWO
-			return ((int) ((int) in1 >>> 2));
+			return rightShift(in1, 2);
 		case 11:// SWAP
-			int leftNibble = ((int) in1 << 4) & 0xFF;
-			int rightNibble = ((int) in2 >>> 4) & 0xFF;
-			return ((int) leftNibble | rightNibble);
+			return swap(in1, in2);
 		case 12:// ADD SAT
-			int result = ((int) in1 + (int) in2);
-			return Math.min(result, 255);
+			return addSaturated(in1, in2);
 		case 13:// ADD
-			return ((int) ((int) in1 + (int) in2) & 0xFFFF);
+			return addShort(in1, in2);
 		case 14:// AVERAGE
-			int average = Math.min((int) in1 + (int) in2, 255);
-			return (average >>> 1);
+			return average(in1, in2);
 		case 15:// MAX
-			return Math.max((int) in1, (int) in2);
+			return maxInt(in1, in2);
 		case 16:// MIN
-			return Math.min((int) in1, (int) in2);
+			return minInt(in1, in2);
 		default:
 			throw new IllegalArgumentException("Function is not known");
 		}
@@ -201,23 +229,21 @@ public class Functions {
 	static private double getResultForFunctionSet4(double in1, double in2, int functionNr) {
 		switch (functionNr) {
 		case 1:// BITWISE OR
-			return ((int) in1 | (int) in2);
+			return or(in1, in2);
 		case 2:// BITWISE AND
-			return ((int) in1 & (int) in2);
+			return and(in1, in2);
 		case 3:// BITWISE XOR
-			return ((int) ((int) in1 ^ (int) in2));
+			return xor(in1, in2);
 		case 4:// ADD SAT
-			int result = ((int) in1 + (int) in2);
-			return Math.min(result, 255);
+			return addSaturated(in1, in2);
 		case 5:// ADD
-			return ((int) ((int) in1 + (int) in2) & 0xFFFF);
+			return addShort(in1, in2);
 		case 6:// AVERAGE
-			int average = Math.min((int) in1 + (int) in2, 255);
-			return (average >>> 1);
+			return average(in1, in2);
 		case 7:// MAX
-			return Math.max((int) in1, (int) in2);
+			return maxInt(in1, in2);
 		case 8:// MIN
-			return Math.min((int) in1, (int) in2);
+			return minInt(in1, in2);
 		default:
 			throw new IllegalArgumentException("Function is not known");
 		}
@@ -229,17 +255,11 @@ public class Functions {
 	static private double getResultForFunctionSet5(double in1, double in2, int functionNr) {
 		switch (functionNr) {
 		case 1:// AND
-			if (in1 == 1 && in2 == 1)
-				return 1;
-			return 0;
+			return booleanAnd(in1, in2);
 		case 2:// OR
-			if (in1 == 1 || in2 == 1)
-				return 1;
-			return 0;
+			return booleanOr(in1, in2);
 		case 3:// NOT
-			if (in1 == 1)
-				return 0;
-			return 1;
+			return booleanNot(in1);
 		default:
 			throw new IllegalArgumentException("Function is not known");
 		}
@@ -251,15 +271,13 @@ public class Functions {
 	static private double getResultForFunctionSet6(double in1, double in2, int functionNr) {
 		switch (functionNr) {
 		case 1:// ADD
-			return in1 + in2;
+			return add(in1, in2);
 		case 2:// SUB
-			return in1 - in2;
+			return sub(in1, in2);
 		case 3:// MULT
-			return in1 * in2;
+			return mult(in1, in2);
 		case 4:// DIVIDE
-			if (in2 == 0)
-				return 0;
-			return in1 / in2;
+			return divide(in1, in2);
 		case 5:// ADD CONST
 			return in1 + 1;
 		case 6:// SUB CONST
@@ -269,10 +287,7 @@ public class Functions {
 		case 8:// SQRT
 			return Math.sqrt(in1);
 		case 9:// SQUARE
-			double sqrt = Math.pow(in1, 2);
-			if (Double.isNaN(sqrt))
-				return 1;
-			return sqrt;
+			return square(in1);
 		case 10:// COS
 			return Math.cos(in1);
 		case 11:// SIN
@@ -288,17 +303,508 @@ public class Functions {
 		case 16:// MAX
 			return Math.max(in1, in2);
 		case 17:// LOG2
-			return (Math.log(in1) / Math.log(2));
+			return log2(in1);
+		case 18:// ROUND
+			return Math.round(in1);
+		case 19:// FRAC
+			return frac(in1);
+		case 20:// RECIPRICAL
+			return reciprocal(in1);
+		case 21:// RSQRT
+			return rsqrt(in1);
+		default:
+			throw new IllegalArgumentException("Function " + functionNr + " is not known");
+		}
+	}
+
+	/**
+	 * small Functionset for columns of values
+	 */
+	static private void getResultsForFunctionSet1(double[] in1, double[] in2, double[] out, int length,
+			int functionNr) {
+		switch (functionNr) {
+		case 1:// ADD
+			for (int i = 0; i < length; i++)
+				out[i] = add(in1[i], in2[i]);
+			return;
+		case 2:// SUB
+			for (int i = 0; i < length; i++)
+				out[i] = sub(in1[i], in2[i]);
+			return;
+		case 3:// MULT
+			for (int i = 0; i < length; i++)
+				out[i] = mult(in1[i], in2[i]);
+			return;
+		case 4:// DIVIDE
+			for (int i = 0; i < length; i++)
+				out[i] = divide(in1[i], in2[i]);
+			return;
+		default:
+			throw new IllegalArgumentException("Function is not known");
+		}
+	}
+
+	/**
+	 * FunctionSet out of the Book Cartesian Genetic Programming by Miller for columns of values
+	 */
+	static private void getResultsForFunctionSet2(double[] in1, double[] in2, double[] out, int length,
+			int functionNr) {
+		switch (functionNr) {
+		case 1:// ADD
+			for (int i = 0; i < length; i++)
+				out[i] = add(in1[i], in2[i]);
+			return;
+		case 2:// SUB
+			for (int i = 0; i < length; i++)
+				out[i] = sub(in1[i], in2[i]);
+			return;
+		case 3:// MULT
+			for (int i = 0; i < length; i++)
+				out[i] = mult(in1[i], in2[i]);
+			return;
+		case 4:// DIVIDE
+			for (int i = 0; i < length; i++)
+				out[i] = divide(in1[i], in2[i]);
+			return;
+		case 5:// ADD CONST
+			for (int i = 0; i < length; i++)
+				out[i] = in1[i] + 255;
+			return;
+		case 6:// SUB CONST
+			for (int i = 0; i < length; i++)
+				out[i] = in1[i] - 255;
+			return;
+		case 7:// DIV CONST
+			for (int i = 0; i < length; i++)
+				out[i] = in1[i] / 255;
+			return;
+		case 8:// SQRT
+			for (int i = 0; i < length; i++)
+				out[i] = Math.sqrt(in1[i]);
+			return;
+		case 9:// POW
+			for (int i = 0; i < length; i++)
+				out[i] = pow(in1[i], in2[i]);
+			return;
+		case 10:// SQUARE
+			for (int i = 0; i < length; i++)
+				out[i] = square(in1[i]);
+			return;
+		case 11:// COS
+			for (int i = 0; i < length; i++)
+				out[i] = Math.cos(in1[i]);
+			return;
+		case 12:// SIN
+			for (int i = 0; i < length; i++)
+				out[i] = Math.sin(in1[i]);
+			return;
+		case 13:// NOP
+			for (int i = 0; i < length; i++)
+				out[i] = in1[i];
+			return;
+		case 14:// CONST
+			for (int i = 0; i < length; i++)
+				out[i] = 255;
+			return;
+		case 15:// ABS
+			for (int i = 0; i < length; i++)
+				out[i] = Math.abs(in1[i]);
+			return;
+		case 16:// MIN
+			for (int i = 0; i < length; i++)
+				out[i] = Math.min(in1[i], in2[i]);
+			return;
+		case 17:// MAX
+			for (int i = 0; i < length; i++)
+				out[i] = Math.max(in1[i], in2[i]);
+			return;
+		case 18:// LOG2
+			for (int i = 0; i < length; i++)
+				out[i] = log2(in1[i]);
+			return;
+		case 19:// ROUND
+			for (int i = 0; i < length; i++)
+				out[i] = Math.round(in1[i]);
+			return;
+		case 20:// FRAC
+			for (int i = 0; i < length; i++)
+				out[i] = frac(in1[i]);
+			return;
+		case 21:// RECIPRICAL
+			for (int i = 0; i < length; i++)
+				out[i] = reciprocal(in1[i]);
+			return;
+		case 22:// RSQRT
+			for (int i = 0; i < length; i++)
+				out[i] = rsqrt(in1[i]);
+			return;
+		default:
+			throw new IllegalArgumentException("Function " + functionNr + " is not known");
+		}
+	}
+
+	/**
+	 * FunctionSet by Roman Kalkreuth for columns of values
+	 */
+	static private void getResultsForFunctionSet3(double[] in1, double[] in2, double[] out, int length,
+			int functionNr) {
+		switch (functionNr) {
+		case 1:// CONSTANT
+			for (int i = 0; i < length; i++)
+				out[i] = 255;
+			return;
+		case 2:// IDENTITY
+			for (int i = 0; i < length; i++)
+				out[i] = identity(in1[i]);
+			return;
+		case 3:// INVERSION
+			for (int i = 0; i < length; i++)
+				out[i] = inversion(in1[i]);
+			return;
+		case 4:// BITWISE OR
+			for (int i = 0; i < length; i++)
+				out[i] = or(in1[i], in2[i]);
+			return;
+		case 5:// BITWISE AND
+			for (int i = 0; i < length; i++)
+				out[i] = and(in1[i], in2[i]);
+			return;
+		case 6:// BITWISE NAND
+			for (int i = 0; i < length; i++)
+				out[i] = nand(in1[i], in2[i]);
+			return;
+		case 7:// BITWISE OR (in1 INVERS)
+			for (int i = 0; i < length; i++)
+				out[i] = orInverted(in1[i], in2[i]);
+			return;
+		case 8:// BITWISE XOR
+			for (int i = 0; i < length; i++)
+				out[i] = xor(in1[i], in2[i]);
+			return;
+		case 9:// RIGHTSHIFT ONE
+			for (int i = 0; i < length; i++)
+				out[i] = rightShift(in1[i], 1);
+			return;
+		case 10:// RIGHTSHIFT TWO
+			for (int i = 0; i < length; i++)
+				out[i] = rightShift(in1[i], 2);
+			return;
+		case 11:// SWAP
+			for (int i = 0; i < length; i++)
+				out[i] = swap(in1[i], in2[i]);
+			return;
+		case 12:// ADD SAT
+			for (int i = 0; i < length; i++)
+				out[i] = addSaturated(in1[i], in2[i]);
+			return;
+		case 13:// ADD
+			for (int i = 0; i < length; i++)
+				out[i] = addShort(in1[i], in2[i]);
+			return;
+		case 14:// AVERAGE
+			for (int i = 0; i < length; i++)
+				out[i] = average(in1[i], in2[i]);
+			return;
+		case 15:// MAX
+			for (int i = 0; i < length; i++)
+				out[i] = maxInt(in1[i], in2[i]);
+			return;
+		case 16:// MIN
+			for (int i = 0; i < length; i++)
+				out[i] = minInt(in1[i], in2[i]);
+			return;
+		default:
+			throw new IllegalArgumentException("Function is not known");
+		}
+	}
+
+	/**
+	 * FunctionSet by Roman Kalkreuth for columns of values
+	 */
+	static private void getResultsForFunctionSet4(double[] in1, double[] in2, double[] out, int length,
+			int functionNr) {
+		switch (functionNr) {
+		case 1:// BITWISE OR
+			for (int i = 0; i < length; i++)
+				out[i] = or(in1[i], in2[i]);
+			return;
+		case 2:// BITWISE AND
+			for (int i = 0; i < length; i++)
+				out[i] = and(in1[i], in2[i]);
+			return;
+		case 3:// BITWISE XOR
+			for (int i = 0; i < length; i++)
+				out[i] = xor(in1[i], in2[i]);
+			return;
+		case 4:// ADD SAT
+			for (int i = 0; i < length; i++)
+				out[i] = addSaturated(in1[i], in2[i]);
+			return;
+		case 5:// ADD
+			for (int i = 0; i < length; i++)
+				out[i] = addShort(in1[i], in2[i]);
+			return;
+		case 6:// AVERAGE
+			for (int i = 0; i < length; i++)
+				out[i] = average(in1[i], in2[i]);
+			return;
+		case 7:// MAX
+			for (int i = 0; i < length; i++)
+				out[i] = maxInt(in1[i], in2[i]);
+			return;
+		case 8:// MIN
+			for (int i = 0; i < length; i++)
+				out[i] = minInt(in1[i], in2[i]);
+			return;
+		default:
+			throw new IllegalArgumentException("Function is not known");
+		}
+	}
+
+	/**
+	 * small Functionset for 0 & 1 as Inputs for columns of values
+	 */
+	static private void getResultsForFunctionSet5(double[] in1, double[] in2, double[] out, int length,
+			int functionNr) {
+		switch (functionNr) {
+		case 1:// AND
+			for (int i = 0; i < length; i++)
+				out[i] = booleanAnd(in1[i], in2[i]);
+			return;
+		case 2:// OR
+			for (int i = 0; i < length; i++)
+				out[i] = booleanOr(in1[i], in2[i]);
+			return;
+		case 3:// NOT
+			for (int i = 0; i < length; i++)
+				out[i] = booleanNot(in1[i]);
+			return;
+		default:
+			throw new IllegalArgumentException("Function is not known");
+		}
+	}
+
+	/**
+	 * FunctionSet out of the Book Cartesian Genetic Programming by Miller without Power-Function for columns of values
+	 */
+	static private void getResultsForFunctionSet6(double[] in1, double[] in2, double[] out, int length,
+			int functionNr) {
+		switch (functionNr) {
+		case 1:// ADD
+			for (int i = 0; i < length; i++)
+				out[i] = add(in1[i], in2[i]);
+			return;
+		case 2:// SUB
+			for (int i = 0; i < length; i++)
+				out[i] = sub(in1[i], in2[i]);
+			return;
+		case 3:// MULT
+			for (int i = 0; i < length; i++)
+				out[i] = mult(in1[i], in2[i]);
+			return;
+		case 4:// DIVIDE
+			for (int i = 0; i < length; i++)
+				out[i] = divide(in1[i], in2[i]);
+			return;
+		case 5:// ADD CONST
+			for (int i = 0; i < length; i++)
+				out[i] = in1[i] + 1;
+			return;
+		case 6:// SUB CONST
+			for (int i = 0; i < length; i++)
+				out[i] = in1[i] - 1;
+			return;
+		case 7:// DIV CONST
+			for (int i = 0; i < length; i++)
+				out[i] = in1[i] / 2;
+			return;
+		case 8:// SQRT
+			for (int i = 0; i < length; i++)
+				out[i] = Math.sqrt(in1[i]);
+			return;
+		case 9:// SQUARE
+			for (int i = 0; i < length; i++)
+				out[i] = square(in1[i]);
+			return;
+		case 10:// COS
+			for (int i = 0; i < length; i++)
+				out[i] = Math.cos(in1[i]);
+			return;
+		case 11:// SIN
+			for (int i = 0; i < length; i++)
+				out[i] = Math.sin(in1[i]);
+			return;
+		case 12:// NOP
+			for (int i = 0; i < length; i++)
+				out[i] = in1[i];
+			return;
+		case 13:// CONST
+			for (int i = 0; i < length; i++)
+				out[i] = 1;
+			return;
+		case 14:// ABS
+			for (int i = 0; i < length; i++)
+				out[i] = Math.abs(in1[i]);
+			return;
+		case 15:// MIN
+			for (int i = 0; i < length; i++)
+				out[i] = Math.min(in1[i], in2[i]);
+			return;
+		case 16:// MAX
+			for (int i = 0; i < length; i++)
+				out[i] = Math.max(in1[i], in2[i]);
+			return;
+		case 17:// LOG2
+			for (int i = 0; i < length; i++)
+				out[i] = log2(in1[i]);
+			return;
 		case 18:// ROUND
-			return (Math.round(in1));
+			for (int i = 0; i < length; i++)
+				out[i] = Math.round(in1[i]);
+			return;
 		case 19:// FRAC
-			return (in1 % 1);
+			for (int i = 0; i < length; i++)
+				out[i] = frac(in1[i]);
+			return;
 		case 20:// RECIPRICAL
-			return (1 / in1);
+			for (int i = 0; i < length; i++)
+				out[i] = reciprocal(in1[i]);
+			return;
 		case 21:// RSQRT
-			return (1 / Math.sqrt(in1));
+			for (int i = 0; i < length; i++)
+				out[i] = rsqrt(in1[i]);
+			return;
 		default:
 			throw new IllegalArgumentException("Function " + functionNr + " is not known");
 		}
 	}
+
+	// the functions that are used by several function sets
+	// (one copy for the calculation of one value and of a column of values)
+
+	static private double add(double in1, double in2) {
+		return in1 + in2;
+	}
+
+	static private double sub(double in1, double in2) {
+		return in1 - in2;
+	}
+
+	static private double mult(double in1, double in2) {
+		return in1 * in2;
+	}
+
+	static private double divide(double in1, double in2) {
+		if (in2 == 0)
+			return 0;
+		return in1 / in2;
+	}
+
+	static private double pow(double in1, double in2) {
+		double pow = Math.pow(in1, in2);
+		if (Double.isNaN(pow))
+			return 1;
+		return pow;
+	}
+
+	static private double square(double in1) {
+		double sqrt = Math.pow(in1, 2);
+		if (Double.isNaN(sqrt))
+			return 1;
+		return sqrt;
+	}
+
+	static private double log2(double in1) {
+		return (Math.log(in1) / Math.log(2));
+	}
+
+	static private double frac(double in1) {
+		return (in1 % 1);
+	}
+
+	static private double reciprocal(double in1) {
+		return (1 / in1);
+	}
+
+	static private double rsqrt(double in1) {
+		return (1 / Math.sqrt(in1));
+	}
+
+	static private int identity(double in1) {
+		return (int) in1;
+	}
+
+	static private int inversion(double in1) {
+		return (255 - (int) in1);
+	}
+
+	static private int or(double in1, double in2) {
+		return ((int) in1 | (int) in2);
+	}
+
+	static private int and(double in1, double in2) {
+		return ((int) in1 & (int) in2);
+	}
+
+	static private int nand(double in1, double in2) {
+		return (~((int) in1 & (int) in2) & 0xFF);
+	}
+
+	static private int orInverted(double in1, double in2) {
+		return ((~(int) in1) & 0xFF | (int) in2);
+	}
+
+	static private int xor(double in1, double in2) {
+		return ((int) in1 ^ (int) in2);
+	}
+
+	static private int rightShift(double in1, int bits) {
+		return ((int) in1 >>> bits);
+	}
+
+	static private int swap(double in1, double in2) {
+		int leftNibble = ((int) in1 << 4) & 0xFF;
+		int rightNibble = ((int) in2 >>> 4) & 0xFF;
+		return (leftNibble | rightNibble);
+	}
+
+	static private int addSaturated(double in1, double in2) {
+		int result = ((int) in1 + (int) in2);
+		return Math.min(result, 255);
+	}
+
+	static private int addShort(double in1, double in2) {
+		return (((int) in1 + (int) in2) & 0xFFFF);
+	}
+
+	static private int average(double in1, double in2) {
+		int average = Math.min((int) in1 + (int) in2, 255);
+		return (average >>> 1);
+	}
+
+	static private int maxInt(double in1, double in2) {
+		return Math.max((int) in1, (int) in2);
+	}
+
+	static private int minInt(double in1, double in2) {
+		return Math.min((int) in1, (int) in2);
+	}
+
+	static private double booleanAnd(double in1, double in2) {
+		if (in1 == 1 && in2 == 1)
+			return 1;
+		return 0;
+	}
+
+	static private double booleanOr(double in1, double in2) {
+		if (in1 == 1 || in2 == 1)
+			return 1;
+		return 0;
+	}
+
+	static private double booleanNot(double in1) {
+		if (in1 == 1)
+			return 0;
+		return 1;
+	}
 }
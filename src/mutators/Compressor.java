@@ -3,10 +3,10 @@ package mutators;
 import java.util.ArrayList;
 import java.util.concurrent.ThreadLocalRandom;
 
+import cartesianNetwork.Genome;
 import cartesianNetwork.Individual;
 import cartesianNetwork.Module;
 import cartesianNetwork.ModuleList;
-import cartesianNetwork.NodeECGP;
 
 /**
  * Calss for creating a Module out of the Genotype
@@ -36,21 +36,21 @@ public class Compressor {
 		
 		//select 2 random Points in the genotype (area cannot be longer than maxModuleSize)
 		
-		int randP1 = ThreadLocalRandom.current().nextInt(0,indiv.getNodes().size());
+		int randP1 = ThreadLocalRandom.current().nextInt(0,indiv.getNrOfNodes());
 		
-		if(randP1==indiv.getNodes().size()-1){
+		if(randP1==indiv.getNrOfNodes()-1){
 			//one node cannot be made into module
 			return;
 		}
 		
 		int endOfGenotype = randP1+maxModuleSize;
-		if(endOfGenotype>=indiv.getNodes().size())endOfGenotype=indiv.getNodes().size();
+		if(endOfGenotype>=indiv.getNrOfNodes())endOfGenotype=indiv.getNrOfNodes();
 		int randP2 = ThreadLocalRandom.current().nextInt(randP1+1,endOfGenotype);
 		
 		//check if allNodes inbetween those two Points have Functions of type 1 or type 2
 		int currentFunctionType = 0;
 		for(int i = randP1; i<=randP2 ; i++){
-			currentFunctionType = indiv.getNodes().get(i).getNodeType();
+			currentFunctionType = indiv.getGenome().getNodeType(i);
 			if(currentFunctionType==1||currentFunctionType==2){
 				//do nothing
 				return;
@@ -77,22 +77,16 @@ public class Compressor {
 		//(inclusive with all nodes inbetween)
 		
 		//copy Module Nodes
-		ArrayList<NodeECGP> moduleNodes = new ArrayList<>();
-		NodeECGP nodeToAdd = null;
-		for(int i = p1; i<= p2 ; i++){
-			nodeToAdd = indiv.getNodes().get(i).copy();
-			moduleNodes.add(nodeToAdd);
-		}
+		Genome moduleNodes = indiv.getGenome().copyNodes(p1, p2+1);
 		
 		//get Nr of Inputs
 		int nrInputs=0;
 		int adressOfP1 = p1+indiv.getInputAmount();
-		int adressOfP2 = p2+indiv.getInputAmount();
 		
 		//calculate Number of Inputs for Module
-		for(NodeECGP node1 : moduleNodes){//for each Node
-			for(int i = 0; i<node1.getInput().size();i++){//for each Input
-				if(node1.getInput().get(i)[0]<adressOfP1){
+		for(int node1 = 0; node1<moduleNodes.size(); node1++){//for each Node
+			for(int i = 0; i<moduleNodes.getNrOfInputs(node1);i++){//for each Input
+				if(moduleNodes.getInputAddress(node1, i)<adressOfP1){
 					//Node uses node outside the Module as Input
 					nrInputs++;
 				}
@@ -105,89 +99,63 @@ public class Compressor {
 		ArrayList<int[]> oldInputs = new ArrayList<>();
 		int inputsSet=0;
 		
-		for(NodeECGP node : moduleNodes){//for each Node
-			for(int i = 0; i<node.getInput().size();i++){//for each Input
-				if(node.getInput().get(i)[0]>=adressOfP1){
+		for(int node = 0; node<moduleNodes.size(); node++){//for each Node
+			for(int i = 0; i<moduleNodes.getNrOfInputs(node);i++){//for each Input
+				int address = moduleNodes.getInputAddress(node, i);
+				if(address>=adressOfP1){
 					//Node uses other node in the Module as Input
 					//since p1+inputAmount ist the firstNode in the Module
 					
 					//set Input for the new Node to relative Node in Module
 					//add nrInputs because the Inputs have the first Adresses in the module
-					node.getInput().get(i)[0]=(node.getInput().get(i)[0]-adressOfP1)+nrInputs;
+					address=(address-adressOfP1)+nrInputs;
 				}
 				else{//Node uses node outside of the Module as Input
 					//set each Input to a new value
 					//set Node input to the given Input
-					oldInputs.add(copyArray(node.getInput().get(i)));
-					node.getInput().get(i)[0]=inputsSet;
+					int[] oldInput = {address, moduleNodes.getInputOutput(node, i)};
+					oldInputs.add(oldInput);
+					address=inputsSet;
 					inputsSet++;
 				}
 				//all nodes in the Module take the first Output
 				//since nodes in modules can only be of type 0
 				//and type 0 modules only have 1 output
-				node.getInput().get(i)[1]=0;
+				moduleNodes.setInput(node, i, address, 0);
 			}
 		}
 
 		
-		//update Nodes of Individual from point p2 onwards (exclusive of p2)
+		//the node on Pos. p1 calls the Module and replaces the nodes from p1 to p2
+		//Function to call module and type = 1
+		int identifier = moduleList.getFirstUnusedIdentifier();
+		Genome moduleNode = new Genome(1);
+		moduleNode.addNode(identifier, 1);
+		//inputs now contain all oldInputs
+		for(int i=0; i<nrInputs;i++){
+			moduleNode.addInput(0, oldInputs.get(i)[0], oldInputs.get(i)[1]);
+		}
+		
+		//update Nodes and outputs of Individual from point p2 onwards (exclusive of p2)
 		//nodes before the module dont have to be updated because they never reference later nodes
 		//outputs to save where each output gets its data from inside the module
 		ArrayList<int[]> outputs = new ArrayList<>();
-		ArrayList<NodeECGP> nodesOfIndiv = indiv.getNodes();
-		//run through remaining nodes of individual
-		//if input of one node is connected to a node inside the module:
+		int inputsOfModule = nrInputs;
+		//if an input of a later node (or an output of the Individual) is connected to a node inside the module:
 		//add new output to module
 		//update the node so that it references the new output
-		int sizeOfModule= moduleNodes.size() -1;
-		//sizeOfModule is 1 smaller than actual module size
-		for(int i = p2+1; i<nodesOfIndiv.size();i++){
-			NodeECGP currentNode = nodesOfIndiv.get(i);
-			for(int j=0;j<currentNode.getInput().size();j++){
-				//check all inputs of the node
-				int addressOfReferencedNode = currentNode.getInput().get(j)[0];
-				if(addressOfReferencedNode>=adressOfP1
-					&&addressOfReferencedNode<=adressOfP2){
-					//node refenrences node in module
-					//output for output in module
-					//output[j][0] = node adress that is referenced (substract p1 and inputAmount to get the relative Position)
-					//	add inputAmount since the first adresses in module are taken by the input
-					//output[j][1] = node output that is referenced (can remain (isn't changed by repositioning))
-					// has to be 0 since module doesn't contain nodes with more outputs
-					int[] output = {(addressOfReferencedNode-indiv.getInputAmount()-p1)+nrInputs
-							,0};
-					outputs.add(output);
-					
-					//adressOfP1 is position of node that has module as function
-					currentNode.getInput().get(j)[0]= adressOfP1;
-					//Number of the referenced Output
-					currentNode.getInput().get(j)[1]=outputs.size()-1;
-				}
-				if(addressOfReferencedNode>adressOfP2){
-					//if Node references Node after Module:
-					//subtract moduleSize since:
-					//nodes from p1+1 to p2 will be deleted from the nodeList
-					currentNode.getInput().get(j)[0] -= sizeOfModule;
-				}
-			}
-		}
-		//also check if outputs of the Individual reference the module
-		for(int i=0; i<indiv.getOutputAmount(); i++){
-			int[] output = indiv.getOutput()[i];
-			int addressOfReferencedNode = output[0];
-			if(addressOfReferencedNode>=adressOfP1
-					&&addressOfReferencedNode<=adressOfP2){
-					int[] outputOfRefNode = 
-						{(addressOfReferencedNode-indiv.getInputAmount()-p1)+nrInputs,0};
-					outputs.add(outputOfRefNode);
-					
-					output[0]= adressOfP1;
-					output[1]=outputs.size()-1;
-				}
-				if(addressOfReferencedNode>adressOfP2){
-					output[0] -= sizeOfModule;
-				}
-		}
+		//(nodes that reference nodes after the module are shifted to the left)
+		indiv.replaceNodes(p1, p2-p1+1, moduleNode, (addressOfReferencedNode, outputOfReferencedNode) -> {
+			//output[0] = node adress that is referenced (substract p1 and inputAmount to get the relative Position)
+			//	add inputAmount since the first adresses in module are taken by the input
+			//output[1] = node output that is referenced
+			// has to be 0 since module doesn't contain nodes with more outputs
+			int[] output = {(addressOfReferencedNode-adressOfP1)+inputsOfModule, 0};
+			outputs.add(output);
+			//adressOfP1 is position of node that has module as function
+			//Number of the referenced Output
+			return new int[] {adressOfP1, outputs.size()-1};
+		});
 		
 		//no node references created module
 		if(outputs.size()==0){
@@ -200,33 +168,16 @@ public class Compressor {
 			outputs.add(output);
 		}
 		
-		
-		int[] header = {moduleList.getFirstUnusedIdentifier(), nrInputs};
+		int[] header = {identifier, nrInputs};
 		//moduleNodes contains nodes for modules
 		//header and output Array complete
 		
 		Module module = new Module(header, outputs, moduleNodes);
 
-		//delete nodes from Pos. p1+1 to p2
-		for(int i=p1+1; i<=p2;i++){
-			//only remove on pos p1+1
-			//because all subsequent nodes are shifted to the left
-			indiv.getNodes().remove(p1+1);
-		}
-		//and change node on Pos. p1 to call the Module
-		NodeECGP node = indiv.getNodes().get(p1);
-		//Function to call module and type = 1
-		int[] function = {module.getIdentifier(),1};
-		node.setFunction(function);
-		//inputs now contain all oldInputs
-		ArrayList<int[]> input = new ArrayList<>();
-		for(int i=0; i<nrInputs;i++){
-			int[] array = new int[2]; 
-			array[0] = oldInputs.get(i)[0];
-			array[1] = oldInputs.get(i)[1];
-			input.add(array);
-		}
-		node.setInput(input);
+		//the node replaces all nodes of the module:
+		//it is treated as a new node, so later mutations of the module count as active changes
+		//(creating the module itself does not change the Outputs of the Individual)
+		indiv.getGenome().markChanged(p1);
 		
 		return module;
 	}
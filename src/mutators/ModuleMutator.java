@@ -1,11 +1,11 @@
 package mutators;
 
-import java.util.ArrayList;
 import java.util.concurrent.ThreadLocalRandom;
 
+import cartesianNetwork.Genome;
 import cartesianNetwork.Individual;
 import cartesianNetwork.Module;
-import cartesianNetwork.NodeECGP;
+import cartesianNetwork.ModuleList;
 import helperClasses.Functions;
 
 /**
@@ -24,20 +24,22 @@ public class ModuleMutator {
 	 * @param addOrRemoveOutput_probability The Probability to add/remove an Output
 	 */
 	public static void moduleMutation(Individual indiv,double modulePointMutation_probability, double addOrRemoveInput_probability, double addOrRemoveOutput_probability){
-		for(Module mod : indiv.getModuleList().getModuleList()){
-			mutate(mod,indiv, modulePointMutation_probability, addOrRemoveInput_probability, addOrRemoveOutput_probability);
+		for(int i=0;i<indiv.getModuleList().getNrOfModules();i++){
+			int identifier = indiv.getModuleList().getModuleList().get(i).getIdentifier();
+			mutate(identifier,indiv, modulePointMutation_probability, addOrRemoveInput_probability, addOrRemoveOutput_probability);
 		}
 	}
 	
 	/**
 	 * Mutates the given Module
-	 * @param module The Module that should be mutated
+	 * (a Module that is shared with other Individuals is copied before it is changed)
+	 * @param identifier The identifier of the Module that should be mutated
 	 * @param indiv The Individual that uses the Module
 	 * @param modulePointMutation_probability The Probability to mutate a Module
 	 * @param addOrRemoveInput_probability The Probability to add/remove an Input
 	 * @param addOrRemoveOutput_probability The Probability to add/remove an Output
 	 */
-	private static void mutate(Module module, Individual indiv,double modulePointMutation_probability, double addOrRemoveInput_probability, double addOrRemoveOutput_probability){
+	private static void mutate(int identifier, Individual indiv,double modulePointMutation_probability, double addOrRemoveInput_probability, double addOrRemoveOutput_probability){
 		//remove has twice the probability
 		double addInput_probability = addOrRemoveInput_probability;
 		double removeInput_probability = addInput_probability*2;
@@ -48,38 +50,57 @@ public class ModuleMutator {
 		
 		double randomPercent = ThreadLocalRandom.current().nextDouble(1);
 		if(modulePointMutation_probability>randomPercent){
+			Module module = indiv.getModuleList().getWritableModuleWithIdentifier(identifier);
 			pointMutation(module,indiv);
-			module.resetUsedNodesHasBeenCalculated();
+			markNodesUsingModule(module, indiv);
 		}
 		randomPercent = ThreadLocalRandom.current().nextDouble(1);
 		if(addInput_probability>randomPercent){
+			Module module = indiv.getModuleList().getWritableModuleWithIdentifier(identifier);
 			addInput(module,indiv);
-			module.resetUsedNodesHasBeenCalculated();
+			markNodesUsingModule(module, indiv);
 		}
 		randomPercent = ThreadLocalRandom.current().nextDouble(1);
 		if(removeInput_probability>randomPercent){
+			Module module = indiv.getModuleList().getWritableModuleWithIdentifier(identifier);
 			removeInput(module,indiv);
-			module.resetUsedNodesHasBeenCalculated();
+			markNodesUsingModule(module, indiv);
 		}
 		randomPercent = ThreadLocalRandom.current().nextDouble(1);
 		if(addOutput_probability>randomPercent){
+			Module module = indiv.getModuleList().getWritableModuleWithIdentifier(identifier);
 			addOutput(module,indiv);
-			module.resetUsedNodesHasBeenCalculated();
+			markNodesUsingModule(module, indiv);
 		}
 		randomPercent = ThreadLocalRandom.current().nextDouble(1);
 		if(removeOutput_probability>randomPercent){
+			Module module = indiv.getModuleList().getWritableModuleWithIdentifier(identifier);
 			removeOutput(module,indiv);
-			module.resetUsedNodesHasBeenCalculated();
+			markNodesUsingModule(module, indiv);
 		}
 	}
 	
+	/**
+	 * marks all Nodes of the Individual that call the Module as changed
+	 * (they calculate something different after the Module has been mutated,
+	 * which only changes the Outputs of the Individual if one of them is used)
+	 * @param module The mutated Module
+	 * @param indiv The Individual that uses the Module
+	 */
+	private static void markNodesUsingModule(Module module, Individual indiv) {
+		ModuleList moduleList = indiv.getModuleList();
+		for (int u = 0; u < moduleList.getNrOfUsers(module.getIdentifier()); u++) {
+			indiv.markNodeChanged(moduleList.getUser(module.getIdentifier(), u));
+		}
+	}
+
 	/**
 	 * Mutates the Module with one point Mutation
 	 * @param module The Module that should be mutated
 	 * @param indiv The Individual that uses the Module
 	 */
 	private static void pointMutation(Module module,Individual indiv){
-		ArrayList<NodeECGP> nodes = module.getNodes();
+		Genome nodes = module.getGenome();
 		//can mutate:
 		//function genes to another primtive function
 		//input genes of nodes in the module
@@ -89,7 +110,7 @@ public class ModuleMutator {
 			//change node
 			if(randPos%3==0){
 				//change function node
-				nodes.get(randPos/3).getFunction()[0] = ThreadLocalRandom.current().nextInt(1,(Functions.getNrFunctions(indiv.getFunctionSet())+1));
+				nodes.setFunctionNr(randPos/3, ThreadLocalRandom.current().nextInt(1,(Functions.getNrFunctions(indiv.getFunctionSet())+1)));
 			}
 			else{
 				
@@ -110,9 +131,8 @@ public class ModuleMutator {
 				
 				//change input node
 				int input = randPos%3;
-				nodes.get(randPos/3).getInput().get(input-1)[0] =  randomAddress;
-				//since all nodes in module are of type 0 or just inputs
-				nodes.get(randPos/3).getInput().get(input-1)[1] = 0;
+				//since all nodes in module are of type 0 or just inputs the output is 0
+				module.setInput(randPos/3, input-1, randomAddress, 0);
 			}
 		}
 		else{
@@ -130,7 +150,7 @@ public class ModuleMutator {
 				randomRefNode =  ThreadLocalRandom.current().nextInt(0,currentlevelsBackMax);
 				randomRefNode = module.getNrOfInputs() + module.getNrOfNodes() - randomRefNode - 1;
 			}
-			module.getModuleOutputs().get(output)[0] = randomRefNode;
+			module.setOutputAddress(output, randomRefNode);
 			//since all nodes in module are of type 0
 			module.getModuleOutputs().get(output)[1] = 0;
 		}
@@ -153,10 +173,12 @@ public class ModuleMutator {
 		}
 		//increment all adresses of Nodes in the Module
 		//that reference nodes after the input
-		for(NodeECGP node : module.getNodes()){
-			for(int i=0;i<node.getInput().size();i++){
-				if(node.getInput().get(i)[0]>=module.getNrOfInputs()){
-					node.getInput().get(i)[0] += 1;
+		Genome nodesOfModule = module.getGenome();
+		for(int node=0;node<nodesOfModule.size();node++){
+			for(int i=0;i<nodesOfModule.getNrOfInputs(node);i++){
+				int address = nodesOfModule.getInputAddress(node, i);
+				if(address>=module.getNrOfInputs()){
+					nodesOfModule.setInputAddress(node, i, address+1);
 				}
 			}
 		}
@@ -170,44 +192,43 @@ public class ModuleMutator {
 		
 		//update all nodes in the indivdual that reference the altered node
 		//add a random Input to all of them
-		for(int n=0; n<indiv.getNodes().size();n++){
-			NodeECGP nodeIndiv = indiv.getNodes().get(n);
-			if(nodeIndiv.getFunction()[0]==module.getIdentifier()){
-				//references the given Module
-				//add random Input
-				int randomInputPos;
-				if (indiv.getLevelsBack() < 0) {
-					randomInputPos = ThreadLocalRandom.current().nextInt(0,indiv.getInputAmount()+n);
-				} else {
-					int currentlevelsBackMax = indiv.getLevelsBack();
-					if (currentlevelsBackMax >= n) {
-						currentlevelsBackMax = n;
-					}
-					randomInputPos = ThreadLocalRandom.current().nextInt(0, indiv.getInputAmount() + currentlevelsBackMax);
-					if (randomInputPos >= indiv.getInputAmount()) {
-						randomInputPos -= indiv.getInputAmount();
-						randomInputPos = indiv.getInputAmount() + n - randomInputPos - 1;
-					}
+		Genome nodesOfIndiv = indiv.getGenome();
+		ModuleList moduleList = indiv.getModuleList();
+		for(int u=0; u<moduleList.getNrOfUsers(module.getIdentifier());u++){
+			int n = moduleList.getUser(module.getIdentifier(), u);
+			//references the given Module
+			//add random Input
+			int randomInputPos;
+			if (indiv.getLevelsBack() < 0) {
+				randomInputPos = ThreadLocalRandom.current().nextInt(0,indiv.getInputAmount()+n);
+			} else {
+				int currentlevelsBackMax = indiv.getLevelsBack();
+				if (currentlevelsBackMax >= n) {
+					currentlevelsBackMax = n;
 				}
-				
-				int[] newInput = new int[2]; 
-				newInput[0] = randomInputPos;
-				if(randomInputPos<indiv.getInputAmount()){
-					newInput[1] = 0; 
+				randomInputPos = ThreadLocalRandom.current().nextInt(0, indiv.getInputAmount() + currentlevelsBackMax);
+				if (randomInputPos >= indiv.getInputAmount()) {
+					randomInputPos -= indiv.getInputAmount();
+					randomInputPos = indiv.getInputAmount() + n - randomInputPos - 1;
+				}
+			}
+			
+			int outputOfInput;
+			if(randomInputPos<indiv.getInputAmount()){
+				outputOfInput = 0; 
+			}
+			else{
+				int refNode = randomInputPos-indiv.getInputAmount();
+				if(nodesOfIndiv.getNodeType(refNode)==0){
+					outputOfInput = 0;
 				}
 				else{
-					NodeECGP refNode = indiv.getNodes().get(randomInputPos-indiv.getInputAmount());
-					if(refNode.getNodeType()==0){
-						newInput[1] = 0;
-					}
-					else{
-						Module refModule = indiv.getModuleList().getModuleWithIdentifier(refNode.getFunctionNr());
-						int randomOutputOfInputPos = ThreadLocalRandom.current().nextInt(0,refModule.getNrOfOutputs());
-						newInput[1] = randomOutputOfInputPos; 
-					}
+					Module refModule = indiv.getModuleList().getModuleWithIdentifier(nodesOfIndiv.getFunctionNr(refNode));
+					int randomOutputOfInputPos = ThreadLocalRandom.current().nextInt(0,refModule.getNrOfOutputs());
+					outputOfInput = randomOutputOfInputPos; 
 				}
-				nodeIndiv.getInput().add(newInput);
 			}
+			indiv.addInput(n, randomInputPos, outputOfInput);
 		}
 	}
 	
@@ -226,11 +247,13 @@ public class ModuleMutator {
 		//for every node inside the module
 		//reduce address of input by 1
 		//if it adresses the removed input or later nodes
-		for(NodeECGP node : module.getNodes()){
-			for(int[] input : node.getInput()){
-				if(input[0]>=inputToRemove){
-					if(input[0]!=0){
-						input[0] -= 1;
+		Genome nodesOfModule = module.getGenome();
+		for(int node=0;node<nodesOfModule.size();node++){
+			for(int i=0;i<nodesOfModule.getNrOfInputs(node);i++){
+				int address = nodesOfModule.getInputAddress(node, i);
+				if(address>=inputToRemove){
+					if(address!=0){
+						nodesOfModule.setInputAddress(node, i, address-1);
 					}
 				}
 			}
@@ -242,12 +265,9 @@ public class ModuleMutator {
 		}
 		//for every node in the indiv that refeerences the module:
 		//delete the input that should be deleted
-		for(NodeECGP nodeI : indiv.getNodes()){
-			if(nodeI.getNodeType()!=0){
-				if(module.getIdentifier() == nodeI.getFunction()[0]){
-					nodeI.getInput().remove(inputToRemove);
-				}
-			}
+		ModuleList moduleList = indiv.getModuleList();
+		for(int u=0;u<moduleList.getNrOfUsers(module.getIdentifier());u++){
+			indiv.removeInput(moduleList.getUser(module.getIdentifier(), u), inputToRemove);
 		}
 	}
 	
@@ -277,7 +297,7 @@ public class ModuleMutator {
 		
 		newOutput[0] = randomRefNode;
 		newOutput[1] = 0;
-		module.getModuleOutputs().add(newOutput);
+		module.addOutput(newOutput);
 	}
 	
 	/**
@@ -290,24 +310,27 @@ public class ModuleMutator {
 			return;
 		}
 		int outputToRemove = ThreadLocalRandom.current().nextInt(0,module.getNrOfOutputs());
-		module.getModuleOutputs().remove(outputToRemove);
+		module.removeOutput(outputToRemove);
 		//for every node int the indiv that referenced the output of the module:
 		//decrement the input if it references the choosen output or later outputs
-		for(NodeECGP nodeI : indiv.getNodes()){
-			for(int[] input : nodeI.getInput()){
+		//(only nodes after the first node that uses the module can reference it)
+		Genome nodesOfIndiv = indiv.getGenome();
+		int firstUser = indiv.getModuleList().getFirstUser(module.getIdentifier());
+		for(int nodeI=firstUser+1;firstUser>=0 && nodeI<nodesOfIndiv.size();nodeI++){
+			for(int i=0;i<nodesOfIndiv.getNrOfInputs(nodeI);i++){
 				//check if input references a node that uses the given module
-				int adressOfInput = input[0]-indiv.getInputAmount();
+				int adressOfInput = nodesOfIndiv.getInputAddress(nodeI, i)-indiv.getInputAmount();
 				if(adressOfInput>=0){
 					//node references another node
-					NodeECGP refNode = indiv.getNodes().get(adressOfInput);
-					if(refNode.getNodeType()!=0){
+					if(nodesOfIndiv.getNodeType(adressOfInput)!=0){
 						//referenced Node uses a module
-						if(refNode.getFunctionNr()==module.getIdentifier()){
+						if(nodesOfIndiv.getFunctionNr(adressOfInput)==module.getIdentifier()){
 							//module is referenced by the referenced node
-							if(input[1]>=outputToRemove){
+							int output = nodesOfIndiv.getInputOutput(nodeI, i);
+							if(output>=outputToRemove){
 								//decrement the input so that the deleted output is not referenced
-								if(input[1]>0){
-									input[1] -= 1;
+								if(output>0){
+									nodesOfIndiv.setInputOutput(nodeI, i, output-1);
 								}
 							}
 						}
@@ -321,10 +344,9 @@ public class ModuleMutator {
 			int adressOfInput = output[i][0]-indiv.getInputAmount();
 			if(adressOfInput>=0){
 				//node references another node
-				NodeECGP refNode = indiv.getNodes().get(adressOfInput);
-				if(refNode.getNodeType()!=0){
+				if(nodesOfIndiv.getNodeType(adressOfInput)!=0){
 					//referenced Node uses a module
-					if(refNode.getFunctionNr()==module.getIdentifier()){
+					if(nodesOfIndiv.getFunctionNr(adressOfInput)==module.getIdentifier()){
 						//module is referenced by the referenced node
 						if(output[i][1]>=outputToRemove){
 							//decrement the input so that the deleted output is not referenced
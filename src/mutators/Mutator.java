@@ -1,12 +1,11 @@
 package mutators;
 
-import java.util.ArrayList;
 import java.util.concurrent.ThreadLocalRandom;
 
+import cartesianNetwork.Genome;
 import cartesianNetwork.Individual;
 import cartesianNetwork.Module;
 import cartesianNetwork.ModuleList;
-import cartesianNetwork.NodeECGP;
 import helperClasses.Functions;
 
 /**
@@ -50,7 +49,8 @@ public class Mutator {
 		ModuleMutator.moduleMutation(offspring, modulePointMutation_probability, addOrRemoveInput_probability,
 				addOrRemoveOutput_probability);
 
-		deleteUnusedModules(offspring);
+		// delete Modules that are used by no node
+		offspring.getModuleList().deleteUnusedModules();
 
 		offspring.calculateGenotypeSize();
 	}
@@ -71,31 +71,22 @@ public class Mutator {
 				// OutputGeneHas To Change
 				int outputToChange = offspring.getGenotypeSize() - geneToChange;
 				changeOutputGeneOfNode(offspring, outputToChange);
-			} else {
-				// check if Node should be changed
-				for (int n = 0; n < offspring.getNodes().size() && geneToChange >= 0; n++) {
-					NodeECGP node = offspring.getNodes().get(n);
-
-					int sizeOfNode = 1 + node.getInput().size();
-
-					geneToChange -= sizeOfNode;
-
-					if (geneToChange < 0) {
-						// change Node
-						int nodeGeneToChange = sizeOfNode + geneToChange;
-						// functionGene
-						if (nodeGeneToChange == 0) {
-							// nodeGeneToChange
-							changeFunctionGeneOfNode(offspring, node, n);
-						} else {
-							// input Genes
-							// decrement nodeGeneToChange
-							// so that range: 0-inputAmount of Node
-							nodeGeneToChange--;
-							changeInputGeneOfNode(offspring, n, nodeGeneToChange);
-						}
-
-					}
+			} else if (geneToChange < offspring.getGenome().size() + offspring.getGenome().getNrOfInputGenes()) {
+				// (the gene after the last gene of the Nodes belongs to no Node and to no Output: nothing is changed)
+				// check which Node should be changed
+				Genome nodes = offspring.getGenome();
+				int n = nodes.getNodeOfGene(geneToChange);
+				int nodeGeneToChange = geneToChange - nodes.getFirstGeneOfNode(n);
+				// functionGene
+				if (nodeGeneToChange == 0) {
+					// nodeGeneToChange
+					changeFunctionGeneOfNode(offspring, n);
+				} else {
+					// input Genes
+					// decrement nodeGeneToChange
+					// so that range: 0-inputAmount of Node
+					nodeGeneToChange--;
+					changeInputGeneOfNode(offspring, n, nodeGeneToChange);
 				}
 			}
 		}
@@ -104,24 +95,25 @@ public class Mutator {
 	/**
 	 * mutates the given Funtion-Gene
 	 * @param indiv The Individual the Gene belongs to
-	 * @param node The Node the function-Gene belongs to
 	 * @param positionOfNode The position of the Node in the genotype
 	 * @throws Exception if something unexpected happens
 	 */
-	private static void changeFunctionGeneOfNode(Individual indiv, NodeECGP node, int positionOfNode) throws Exception {
+	private static void changeFunctionGeneOfNode(Individual indiv, int positionOfNode) throws Exception {
 		int functionSet = indiv.getFunctionSet();
 		ModuleList moduleList = indiv.getModuleList();
-		ArrayList<NodeECGP> nOdes = indiv.getNodes();
+		Genome nOdes = indiv.getGenome();
 		int inputAmount = indiv.getInputAmount();
-		if (node.getNodeType() == 1) {
+		if (nOdes.getNodeType(positionOfNode) == 1) {
 			// Function Genes of Nodes with type 1 cannot be mutated
 			return;
 		}
+		int oldFunction = nOdes.getFunctionNr(positionOfNode);
+		int oldNodeType = nOdes.getNodeType(positionOfNode);
 
 		int nrOfOldOutputs = 1;
 		int nrOfNewOutputs = 0;
-		if (node.getNodeType() == 2) {
-			Module refModule = indiv.getModuleList().getModuleWithIdentifier(node.getFunctionNr());
+		if (oldNodeType == 2) {
+			Module refModule = indiv.getModuleList().getModuleWithIdentifier(oldFunction);
 			nrOfOldOutputs = refModule.getNrOfOutputs();
 		}
 
@@ -130,37 +122,27 @@ public class Mutator {
 				Functions.getNrFunctions(functionSet) + moduleList.getNrOfModules() + 1);
 		if (randomFunction <= Functions.getNrFunctions(functionSet)) {
 			// change Function to another type 0 Function
-			if (node.getNodeType() == 0) {
-				node.getFunction()[0] = randomFunction;
+			if (oldNodeType == 0) {
+				indiv.setFunctionOfNode(positionOfNode, randomFunction, 0);
 			} else {// node referenced a Module before
-				node.getFunction()[0] = randomFunction;
-				node.getFunction()[1] = 0;
+				indiv.setFunctionOfNode(positionOfNode, randomFunction, 0);
 				// shorten old Input to only 2 Inputs
-				ArrayList<int[]> newInput = new ArrayList<>();
-				newInput.add(node.getInput().get(0));
-				newInput.add(node.getInput().get(1));
-				node.setInput(newInput);
+				indiv.setNrOfInputs(positionOfNode, 2);
 			}
 			nrOfNewOutputs = 1;
 		} else {
 			// change Function to a type 2 Module Function
 			Module randomModule = moduleList.getModuleList()
 					.get(randomFunction - Functions.getNrFunctions(functionSet) - 1);
-			node.getFunction()[0] = randomModule.getIdentifier();
-			node.getFunction()[1] = 2;
+			indiv.setFunctionOfNode(positionOfNode, randomModule.getIdentifier(), 2);
 			// change input of node
-			ArrayList<int[]> newInput = new ArrayList<>();
-			// copy old Input from Node
-			for (int j = 0; j < node.getInput().size() && j < randomModule.getNrOfInputs(); j++) {
-				int[] array = new int[2];
-				array[0] = node.getInput().get(j)[0];
-				array[1] = node.getInput().get(j)[1];
-				newInput.add(array);
+			// keep old Input of the Node
+			if (nOdes.getNrOfInputs(positionOfNode) > randomModule.getNrOfInputs()) {
+				indiv.setNrOfInputs(positionOfNode, randomModule.getNrOfInputs());
 			}
-			node.setInput(newInput);
-			if (newInput.size() < randomModule.getNrOfInputs()) {
+			if (nOdes.getNrOfInputs(positionOfNode) < randomModule.getNrOfInputs()) {
 				// assign remaining input random
-				for (int j = node.getInput().size(); j < randomModule.getNrOfInputs(); j++) {
+				for (int j = nOdes.getNrOfInputs(positionOfNode); j < randomModule.getNrOfInputs(); j++) {
 					// generate random Input
 					int randomNodeToGetInputFrom;
 					if(indiv.getLevelsBack()<0){
@@ -177,43 +159,45 @@ public class Mutator {
 							randomNodeToGetInputFrom = indiv.getInputAmount() + positionOfNode - randomNodeToGetInputFrom - 1;
 						}
 					}
-					int[] array = new int[2];
-					array[0] = randomNodeToGetInputFrom;
+					int outputOfInput;
 					if (randomNodeToGetInputFrom < inputAmount) {
-						array[1] = 0;
+						outputOfInput = 0;
 					} else {
-						NodeECGP inputNode = nOdes.get(randomNodeToGetInputFrom - inputAmount);
-						if (inputNode.getNodeType() == 0) {
+						int inputNode = randomNodeToGetInputFrom - inputAmount;
+						if (nOdes.getNodeType(inputNode) == 0) {
 							// input is simple
-							array[1] = 0;
+							outputOfInput = 0;
 						} else {
 							// input is a module
-							Module refModule = moduleList.getModuleWithIdentifier(inputNode.getFunctionNr());
-							array[1] = ThreadLocalRandom.current().nextInt(0, refModule.getNrOfOutputs());
+							Module refModule = moduleList.getModuleWithIdentifier(nOdes.getFunctionNr(inputNode));
+							outputOfInput = ThreadLocalRandom.current().nextInt(0, refModule.getNrOfOutputs());
 						}
 					}
-					newInput.add(array);
+					indiv.addInput(positionOfNode, randomNodeToGetInputFrom, outputOfInput);
 				}
 			}
-			if (node.getInput().size() != randomModule.getNrOfInputs()) {
+			if (nOdes.getNrOfInputs(positionOfNode) != randomModule.getNrOfInputs()) {
 				throw new Exception("Darf net!");
 			}
-			node.setInput(newInput);
 			nrOfNewOutputs = randomModule.getNrOfOutputs();
 		}
+		if (nOdes.getFunctionNr(positionOfNode) != oldFunction || nOdes.getNodeType(positionOfNode) != oldNodeType) {
+			indiv.markNodeChanged(positionOfNode);
+		}
 		if (nrOfNewOutputs < nrOfOldOutputs) {
 			// later nodes may reference Outputs
 			// that are not present anymore!
-			for (int i = positionOfNode + 1; i < indiv.getNodes().size(); i++) {
+			for (int i = positionOfNode + 1; i < nOdes.size(); i++) {
 				// Check if node references current Node
-				for (int[] input : indiv.getNodes().get(i).getInput()) {
-					if (input[0] == positionOfNode + indiv.getInputAmount()) {
+				for (int j = 0; j < nOdes.getNrOfInputs(i); j++) {
+					if (nOdes.getInputAddress(i, j) == positionOfNode + indiv.getInputAmount()) {
 						// Node references current node!
 						// check if it references output that doesn't exist
 						// anymore
-						if (input[1] >= nrOfNewOutputs) {
+						if (nOdes.getInputOutput(i, j) >= nrOfNewOutputs) {
 							// assign random other output of same node
-							input[1] = ThreadLocalRandom.current().nextInt(0, nrOfNewOutputs);
+							nOdes.setInputOutput(i, j, ThreadLocalRandom.current().nextInt(0, nrOfNewOutputs));
+							indiv.markNodeChanged(i);
 						}
 					}
 				}
@@ -228,6 +212,7 @@ public class Mutator {
 					if (output[i][1] >= nrOfNewOutputs) {
 						// assign random other output of same node
 						output[i][1] = ThreadLocalRandom.current().nextInt(0, nrOfNewOutputs);
+						indiv.markOutputChanged();
 					}
 				}
 			}
@@ -241,7 +226,7 @@ public class Mutator {
 	 * @param inputToChange The Number of the input in the Node that should be mutated
 	 */
 	private static void changeInputGeneOfNode(Individual indiv, int positionOfNode, int inputToChange) {
-		NodeECGP node = indiv.getNodes().get(positionOfNode);
+		Genome nodes = indiv.getGenome();
 
 		// generate random Input
 		int randomAddress;
@@ -258,27 +243,30 @@ public class Mutator {
 				randomAddress = indiv.getInputAmount() + positionOfNode - randomAddress - 1;
 			}
 		}
-		ArrayList<int[]> inputOfNode = node.getInput();
+		int[] oldInput = { nodes.getInputAddress(positionOfNode, inputToChange),
+				nodes.getInputOutput(positionOfNode, inputToChange) };
 
 		if (randomAddress < indiv.getInputAmount()) {
 			// referenced address is an input
-			inputOfNode.get(inputToChange)[0] = randomAddress;
-			inputOfNode.get(inputToChange)[1] = 0;
-		} else if (indiv.getNodes().get(randomAddress - indiv.getInputAmount()).getNodeType() == 0) {
+			indiv.setInput(positionOfNode, inputToChange, randomAddress, 0);
+		} else if (nodes.getNodeType(randomAddress - indiv.getInputAmount()) == 0) {
 			// referenced node is a node of type 0
 			// (only 1 output)
-			inputOfNode.get(inputToChange)[0] = randomAddress;
-			inputOfNode.get(inputToChange)[1] = 0;
+			indiv.setInput(positionOfNode, inputToChange, randomAddress, 0);
 		} else {
 			// referenced Node has multiple outputs
 			// (is a module)
-			inputOfNode.get(inputToChange)[0] = randomAddress;
 			// getNrOfOutputs
-			NodeECGP refNode = indiv.getNodes().get(randomAddress - indiv.getInputAmount());
-			Module referencedModule = indiv.getModuleList().getModuleWithIdentifier(refNode.getFunctionNr());
+			int refNode = randomAddress - indiv.getInputAmount();
+			Module referencedModule = indiv.getModuleList().getModuleWithIdentifier(nodes.getFunctionNr(refNode));
 			int nrOfOuputs = referencedModule.getNrOfOutputs();
 			// assign input to random output of module
-			inputOfNode.get(inputToChange)[1] = ThreadLocalRandom.current().nextInt(0, nrOfOuputs);
+			indiv.setInput(positionOfNode, inputToChange, randomAddress,
+					ThreadLocalRandom.current().nextInt(0, nrOfOuputs));
+		}
+		if (oldInput[0] != nodes.getInputAddress(positionOfNode, inputToChange)
+				|| oldInput[1] != nodes.getInputOutput(positionOfNode, inputToChange)) {
+			indiv.markNodeChanged(positionOfNode);
 		}
 	}
 
@@ -289,66 +277,34 @@ public class Mutator {
 	 */
 	private static void changeOutputGeneOfNode(Individual indiv, int outputGeneToChange) {
 		int[][] output = indiv.getOutput();
+		int[] oldOutput = output[outputGeneToChange].clone();
+		Genome nodes = indiv.getGenome();
 		int randOutput;
 		if (indiv.getLevelsBack() < 0) {
-			randOutput = ThreadLocalRandom.current().nextInt(0, indiv.getInputAmount() + indiv.getNodes().size());
+			randOutput = ThreadLocalRandom.current().nextInt(0, indiv.getInputAmount() + nodes.size());
 		} else {
 			int currentlevelsBackMax = indiv.getLevelsBack();
-			if (currentlevelsBackMax >= indiv.getNodes().size()) {
-				currentlevelsBackMax = indiv.getNodes().size();
+			if (currentlevelsBackMax >= nodes.size()) {
+				currentlevelsBackMax = nodes.size();
 			}
 			randOutput = ThreadLocalRandom.current().nextInt(0, indiv.getInputAmount() + currentlevelsBackMax);
 			if (randOutput >= indiv.getInputAmount()) {
 				randOutput -= indiv.getInputAmount();
-				randOutput = indiv.getInputAmount() + indiv.getNodes().size() - randOutput - 1;
+				randOutput = indiv.getInputAmount() + nodes.size() - randOutput - 1;
 			}
 		}
 		if (randOutput < indiv.getInputAmount()) {
-			output[outputGeneToChange][0] = randOutput;
-			output[outputGeneToChange][1] = 0;
-		} else if (indiv.getNodes().get(randOutput - indiv.getInputAmount()).getNodeType() == 0) {
-			output[outputGeneToChange][0] = randOutput;
-			output[outputGeneToChange][1] = 0;
+			indiv.setOutputGene(outputGeneToChange, randOutput, 0);
+		} else if (nodes.getNodeType(randOutput - indiv.getInputAmount()) == 0) {
+			indiv.setOutputGene(outputGeneToChange, randOutput, 0);
 		} else {
-			output[outputGeneToChange][0] = randOutput;
 			Module refModule = indiv.getModuleList()
-					.getModuleWithIdentifier(indiv.getNodes().get(randOutput - indiv.getInputAmount()).getFunctionNr());
-			output[outputGeneToChange][1] = ThreadLocalRandom.current().nextInt(0, refModule.getNrOfOutputs());
-		}
-	}
-
-	/**
-	 * Deletes all unused Modules in the Individual
-	 * @param indiv The Indiviudal that should be checked
-	 */
-	private static void deleteUnusedModules(Individual indiv) {
-		// delete Modules only if they are used by no node
-
-		// save UsageNr of Modules per Identifier
-		ArrayList<int[]> identifiersAndUsage = new ArrayList<>();
-
-		for (Module mod : indiv.getModuleList().getModuleList()) {
-			int[] ar = new int[] { mod.getIdentifier(), 0 };
-			identifiersAndUsage.add(ar);
+					.getModuleWithIdentifier(nodes.getFunctionNr(randOutput - indiv.getInputAmount()));
+			indiv.setOutputGene(outputGeneToChange, randOutput,
+					ThreadLocalRandom.current().nextInt(0, refModule.getNrOfOutputs()));
 		}
-		for (int n = 0; n < indiv.getNodes().size(); n++) {
-			NodeECGP node = indiv.getNodes().get(n);
-			if (node.getNodeType() != 0) {
-				// nodes with primtive functions are not important
-				int identifier = node.getFunctionNr();
-				// increase usage in list
-				for (int[] usage : identifiersAndUsage) {
-					if (usage[0] == identifier) {
-						usage[1]++;
-					}
-				}
-
-			}
-		}
-		for (int[] usage : identifiersAndUsage) {
-			if (usage[1] == 0) {
-				indiv.getModuleList().deleteModuleWithIdentifier(usage[0]);
-			}
+		if (oldOutput[0] != output[outputGeneToChange][0] || oldOutput[1] != output[outputGeneToChange][1]) {
+			indiv.markOutputChanged();
 		}
 	}
 
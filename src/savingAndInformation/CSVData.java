@@ -0,0 +1,56 @@
+package savingAndInformation;
+
+/**
+ * The content of a CSV-File with one classified sample per line
+ * (first value = classification, the other values = Inputs)
+ * stored in primitive arrays
+ */
+public class CSVData {
+
+	// number of lines (samples)
+	private final int nrOfRows;
+	// number of Inputs per line (without the classification)
+	private final int inputAmount;
+	// values[r * inputAmount + i] = Input i of line r
+	private final int[] values;
+	// classification of every line
+	private final int[] classifications;
+
+	CSVData(int nrOfRows, int inputAmount, int[] values, int[] classifications) {
+		this.nrOfRows = nrOfRows;
+		this.inputAmount = inputAmount;
+		this.values = values;
+		this.classifications = classifications;
+	}
+
+	public int getNrOfRows() {
+		return nrOfRows;
+	}
+
+	public int getInputAmount() {
+		return inputAmount;
+	}
+
+	/**
+	 * @return All Inputs line by line (values[r * inputAmount + i] = Input i of line r)
+	 */
+	public int[] getValues() {
+		return values;
+	}
+
+	/**
+	 * @return The classification of every line
+	 */
+	public int[] getClassifications() {
+		return classifications;
+	}
+
+	/**
+	 * @param row The number of the line
+	 * @param input The Index of the Input
+	 * @return The Input of the line
+	 */
+	public int getValue(int row, int input) {
+		return values[row * inputAmount + input];
+	}
+}
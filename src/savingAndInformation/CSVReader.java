@@ -1,9 +1,16 @@
 package savingAndInformation;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import helperClasses.Digit;
 import helperClasses.InputWithClassification;
@@ -18,6 +25,12 @@ import helperClasses.InputWithClassification;
  *
  */
 public class CSVReader {  
+
+	// number of parts per thread the File is split into
+	static final int CHUNKS_PER_THREAD = 4;
+	// minimal size of one part (in bytes)
+	static final int MIN_CHUNK_SIZE = 1 << 16;
+
 	/**
      * Reads the MNIST-Learn-Set
      * @param path Where the Set is saved
@@ -48,34 +61,22 @@ public class CSVReader {
     	if(test){
     		csvFile = path+"mnist_test.csv";
     	}
-        String line = "";
-        // use comma as separator
-        String cvsSplitBy = ",";
-        String[] seperatedString;
         ArrayList<InputWithClassification> digits = new ArrayList<>();
 
-        try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) {
+        try {
+        	CSVData data = readCSVFile(csvFile);
+        	int size = (int) Math.round(Math.sqrt(data.getInputAmount()));
+        	if (size * size != data.getInputAmount()) {
+        		throw new IOException("the pictures in " + csvFile + " are not square");
+        	}
         	//per Line one Digit
-            while ((line = br.readLine()) != null) {
-                seperatedString = line.split(cvsSplitBy);
-                int column=0;
-                int row=0;
-                int[][] pic = new int[28][28];
-                for(int i = 1; i<seperatedString.length; i++){
-                	pic[row][column] = Integer.parseInt(seperatedString[i]);
-                		
-                	column++;
-                	if(column==28){
-                		column=0;
-                		row++;
-                	}
-                }
-                int classification = Integer.parseInt(seperatedString[0]);
-                Digit digit = new Digit(classification,pic);
-                digits.add(digit);
-                //System.out.println("Ein Digit hinzugefgt."+digitnr);
-            }
-
+        	for (int r = 0; r < data.getNrOfRows(); r++) {
+        		int[][] pic = new int[size][size];
+        		for (int row = 0; row < size; row++) {
+        			System.arraycopy(data.getValues(), r * data.getInputAmount() + row * size, pic[row], 0, size);
+        		}
+        		digits.add(new Digit(data.getClassifications()[r], pic));
+        	}
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -83,4 +84,233 @@ public class CSVReader {
         return digits;
     }
 
-}
\ No newline at end of file
+    /**
+     * Reads a CSV-File with one classified sample per line
+     * (first value = classification, the other values = Inputs, all values are integers)
+     * every line needs the same number of values, a header line is skipped
+     *
+     * The file is mapped into memory and split into parts at line ends,
+     * the parts are parsed in parallel (ForkJoinPool) directly into the arrays of the result
+     * @param csvFile The path of the File
+     * @return The content of the File
+     * @throws IOException if the File cannot be read or has a wrong format
+     */
+    static public CSVData readCSVFile(String csvFile) throws IOException {
+    	try (FileChannel channel = FileChannel.open(Paths.get(csvFile), StandardOpenOption.READ)) {
+    		if (channel.size() > Integer.MAX_VALUE) {
+    			throw new IOException(csvFile + " is too big");
+    		}
+    		ByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    		return parse(file);
+    	}
+    }
+
+    /**
+     * parses the content of a CSV-File
+     * @param file The content of the File (from 0 to limit)
+     * @return The content of the File
+     * @throws IOException if the content has a wrong format
+     */
+    static CSVData parse(ByteBuffer file) throws IOException {
+    	int size = file.limit();
+    	int start = skipHeader(file);
+    	int inputAmount = countValues(file, start) - 1;
+    	if (inputAmount < 0) {
+    		// no lines
+    		return new CSVData(0, 0, new int[0], new int[0]);
+    	}
+
+    	// split the file into parts that end after a line
+    	int nrOfChunks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD,
+    			(size - start) / MIN_CHUNK_SIZE));
+    	int[] chunkStart = new int[nrOfChunks + 1];
+    	chunkStart[0] = start;
+    	for (int c = 1; c < nrOfChunks; c++) {
+    		int position = Math.max(chunkStart[c - 1], start + (int) ((long) (size - start) * c / nrOfChunks));
+    		while (position < size && file.get(position - 1) != '\n') {
+    			position++;
+    		}
+    		chunkStart[c] = position;
+    	}
+    	chunkStart[nrOfChunks] = size;
+
+    	// count the lines of every part
+    	ArrayList<Callable<Integer>> counters = new ArrayList<>();
+    	for (int c = 0; c < nrOfChunks; c++) {
+    		int from = chunkStart[c];
+    		int to = chunkStart[c + 1];
+    		counters.add(() -> countLines(file, from, to));
+    	}
+    	int[] firstLine = new int[nrOfChunks + 1];
+    	List<Future<Integer>> lines = ForkJoinPool.commonPool().invokeAll(counters);
+    	for (int c = 0; c < nrOfChunks; c++) {
+    		firstLine[c + 1] = firstLine[c] + getResult(lines.get(c));
+    	}
+
+    	// parse every part into its lines of the arrays
+    	int nrOfRows = firstLine[nrOfChunks];
+    	int[] values = new int[nrOfRows * inputAmount];
+    	int[] classifications = new int[nrOfRows];
+    	ArrayList<Callable<Integer>> parsers = new ArrayList<>();
+    	for (int c = 0; c < nrOfChunks; c++) {
+    		int from = chunkStart[c];
+    		int to = chunkStart[c + 1];
+    		int row = firstLine[c];
+    		parsers.add(() -> parseLines(file, from, to, row, inputAmount, values, classifications));
+    	}
+    	for (Future<Integer> parsed : ForkJoinPool.commonPool().invokeAll(parsers)) {
+    		getResult(parsed);
+    	}
+    	return new CSVData(nrOfRows, inputAmount, values, classifications);
+    }
+
+    /**
+     * @return the result of the finished Task (IOExceptions of the Task are thrown again)
+     */
+    private static int getResult(Future<Integer> task) throws IOException {
+    	try {
+    		return task.get();
+    	} catch (ExecutionException e) {
+    		// the ForkJoinPool wraps checked exceptions into a RuntimeException
+    		Throwable cause = e.getCause();
+    		while (!(cause instanceof IOException) && cause.getCause() != null) {
+    			cause = cause.getCause();
+    		}
+    		if (cause instanceof IOException) {
+    			throw (IOException) cause;
+    		}
+    		throw new IOException(e.getCause());
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    		throw new IOException(e);
+    	}
+    }
+
+    /**
+     * @return the position after the header line (0 if the first line starts with a number)
+     */
+    private static int skipHeader(ByteBuffer file) {
+    	int position = 0;
+    	while (position < file.limit() && isSpace(file.get(position))) {
+    		position++;
+    	}
+    	if (position == file.limit() || isDigit(file.get(position)) || file.get(position) == '-') {
+    		return 0;
+    	}
+    	while (position < file.limit() && file.get(position) != '\n') {
+    		position++;
+    	}
+    	return Math.min(position + 1, file.limit());
+    }
+
+    /**
+     * @return the number of values in the first not empty line after start (0 if there is none)
+     */
+    private static int countValues(ByteBuffer file, int start) {
+    	int values = 0;
+    	for (int position = start; position < file.limit(); position++) {
+    		byte b = file.get(position);
+    		if (b == '\n') {
+    			if (values > 0) {
+    				break;
+    			}
+    		} else if (b == ',') {
+    			values++;
+    		} else if (!isSpace(b) && values == 0) {
+    			values = 1;
+    		}
+    	}
+    	return values;
+    }
+
+    /**
+     * @return the number of not empty lines in [from, to)
+     */
+    private static int countLines(ByteBuffer file, int from, int to) {
+    	int lines = 0;
+    	boolean content = false;
+    	for (int position = from; position < to; position++) {
+    		byte b = file.get(position);
+    		if (b == '\n') {
+    			if (content) {
+    				lines++;
+    			}
+    			content = false;
+    		} else if (!isSpace(b)) {
+    			content = true;
+    		}
+    	}
+    	return content ? lines + 1 : lines;
+    }
+
+    /**
+     * parses the not empty lines in [from, to)
+     * @param row The number of the first line
+     * @return The number of parsed lines
+     * @throws IOException if a line has a wrong number of values or contains something else than integers
+     */
+    private static int parseLines(ByteBuffer file, int from, int to, int row, int inputAmount, int[] values,
+    		int[] classifications) throws IOException {
+    	int firstRow = row;
+    	int position = from;
+    	while (position < to) {
+    		// skip empty lines
+    		byte b = file.get(position);
+    		if (isSpace(b) || b == '\n') {
+    			position++;
+    			continue;
+    		}
+    		int field = 0;
+    		while (true) {
+    			// parse one value
+    			while (position < to && isSpace(file.get(position))) {
+    				position++;
+    			}
+    			boolean negative = position < to && file.get(position) == '-';
+    			if (negative) {
+    				position++;
+    			}
+    			int value = 0;
+    			int digits = 0;
+    			while (position < to && isDigit(b = file.get(position))) {
+    				value = value * 10 + (b - '0');
+    				digits++;
+    				position++;
+    			}
+    			while (position < to && isSpace(file.get(position))) {
+    				position++;
+    			}
+    			if (digits == 0 || field > inputAmount) {
+    				throw new IOException("line " + (row + 1) + " has a wrong format (" + (inputAmount + 1)
+    						+ " integers per line expected)");
+    			}
+    			if (field == 0) {
+    				classifications[row] = negative ? -value : value;
+    			} else {
+    				values[row * inputAmount + field - 1] = negative ? -value : value;
+    			}
+    			field++;
+    			if (position < to && file.get(position) == ',') {
+    				position++;
+    			} else {
+    				break;
+    			}
+    		}
+    		if (field != inputAmount + 1 || (position < to && file.get(position) != '\n')) {
+    			throw new IOException("line " + (row + 1) + " has a wrong format (" + (inputAmount + 1)
+    					+ " integers per line expected)");
+    		}
+    		row++;
+    	}
+    	return row - firstRow;
+    }
+
+    private static boolean isDigit(byte b) {
+    	return b >= '0' && b <= '9';
+    }
+
+    private static boolean isSpace(byte b) {
+    	return b == ' ' || b == '\t' || b == '\r';
+    }
+
+}
@@ -0,0 +1,229 @@
+package savingAndInformation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import helperClasses.DataSet;
+
+/**
+ * Binary cache of the preprocessed MNIST-Data
+ *
+ * The first run reads the IDX-Files (or the CSV-File if there are no IDX-Files),
+ * preprocesses every picture and saves the packed DataSet in a binary file next to them.
+ * The rows are written into the file while the pictures are preprocessed,
+ * so the DataSet is never kept in the heap as a whole.
+ * Later runs map the rows of this file into memory (FileChannel.map, one window per block of rows),
+ * so the DataSet reads its values directly from the file without parsing or copying.
+ * The file is created again if the read file has been changed.
+ *
+ * File format (little endian):
+ * header (HEADER_SIZE bytes): MAGIC, VERSION, nrOfSamples, inputAmount, bitsPerValue,
+ * downscale, threshold, (long) length and (long) lastModified of the read file
+ * then the rows and the classifications (there are no columns, the DataSet reads them from the rows)
+ */
+public class DataSetCache {
+
+	// "ECGD"
+	static final int MAGIC = 0x44474345;
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 48;
+
+	/**
+	 * Reads the preprocessed MNIST-Learn-Set
+	 * @param path Where the Set is saved
+	 * @param downscale How often the pictures are reduced to a quarter (Digit.makeSmaller)
+	 * @param threshold The threshold for Digit.makeBinary (-1 if the pictures should not be binary)
+	 * @return The preprocessed pictures
+	 * @throws IOException if the MNIST-Files or the cache cannot be read
+	 */
+	public static DataSet getLearnSet(String path, int downscale, int threshold) throws IOException {
+		return getDataSet(path, false, downscale, threshold);
+	}
+
+	/**
+	 * Reads the preprocessed MNIST-Test-Set
+	 * @param path Where the Set is saved
+	 * @param downscale How often the pictures are reduced to a quarter (Digit.makeSmaller)
+	 * @param threshold The threshold for Digit.makeBinary (-1 if the pictures should not be binary)
+	 * @return The preprocessed pictures
+	 * @throws IOException if the MNIST-Files or the cache cannot be read
+	 */
+	public static DataSet getTestSet(String path, int downscale, int threshold) throws IOException {
+		return getDataSet(path, true, downscale, threshold);
+	}
+
+	/**
+	 * Reads the preprocessed MNIST-Set from the cache
+	 * (the cache is created first if it doesn't exist or is out of date)
+	 * @param path Where the Set is saved
+	 * @param test if the Test-Set should be read
+	 * @param downscale How often the pictures are reduced to a quarter (Digit.makeSmaller)
+	 * @param threshold The threshold for Digit.makeBinary (-1 if the pictures should not be binary)
+	 * @return The preprocessed pictures
+	 * @throws IOException if the MNIST-Files or the cache cannot be read
+	 */
+	public static DataSet getDataSet(String path, boolean test, int downscale, int threshold) throws IOException {
+		File idxFile = new File(IDXReader.getImageFile(path, test));
+		File sourceFile = idxFile.exists() ? idxFile : new File(path + (test ? "mnist_test.csv" : "mnist_train.csv"));
+		File cacheFile = new File(path + (test ? "mnist_test" : "mnist_train") + "_" + downscale + "_" + threshold
+				+ ".ecgpdata");
+		if (cacheFile.exists()) {
+			DataSet cached = map(cacheFile, sourceFile, downscale, threshold);
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		File tempFile = new File(cacheFile.getPath() + ".tmp");
+		try {
+			try (RandomAccessFile file = new RandomAccessFile(tempFile, "rw");
+					FileChannel channel = file.getChannel()) {
+				channel.truncate(0);
+				save(read(idxFile, sourceFile, path, test, downscale, threshold, channel), channel, sourceFile,
+						downscale, threshold);
+			}
+			Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			// read the pictures into the heap (this throws the exception again if the read file is the problem)
+			System.out.println("Could not save the data set in " + cacheFile);
+			tempFile.delete();
+			return read(idxFile, sourceFile, path, test, downscale, threshold, null).build();
+		}
+		DataSet cached = map(cacheFile, sourceFile, downscale, threshold);
+		if (cached == null) {
+			// the read file has been changed while the cache was written
+			System.out.println("Could not use the data set in " + cacheFile);
+			return read(idxFile, sourceFile, path, test, downscale, threshold, null).build();
+		}
+		return cached;
+	}
+
+	/**
+	 * reads and preprocesses the pictures of the IDX-Files or of the CSV-File
+	 * @param channel The file the rows are written to after the header (null if they should be stored in the heap)
+	 */
+	private static PicturePreprocessor read(File idxFile, File sourceFile, String path, boolean test, int downscale,
+			int threshold, FileChannel channel) throws IOException {
+		PicturePreprocessor preprocessor;
+		if (idxFile.exists()) {
+			preprocessor = IDXReader.readIDX(IDXReader.getImageFile(path, test), IDXReader.getLabelFile(path, test),
+					downscale, threshold, channel, HEADER_SIZE);
+		} else {
+			preprocessor = readCSV(sourceFile, downscale, threshold, channel);
+		}
+		if (preprocessor.getNrOfSamples() == 0) {
+			throw new IOException("No pictures could be read from " + sourceFile);
+		}
+		return preprocessor;
+	}
+
+	/**
+	 * reads the pictures of the CSV-File and preprocesses them
+	 * @param channel The file the rows are written to after the header (null if they should be stored in the heap)
+	 */
+	private static PicturePreprocessor readCSV(File csvFile, int downscale, int threshold, FileChannel channel)
+			throws IOException {
+		CSVData data = CSVReader.readCSVFile(csvFile.getPath());
+		int side = (int) Math.round(Math.sqrt(data.getInputAmount()));
+		if (side * side != data.getInputAmount()) {
+			throw new IOException("the pictures in " + csvFile + " are not square");
+		}
+		PicturePreprocessor preprocessor = new PicturePreprocessor(data.getNrOfRows(), side, downscale, threshold,
+				channel, HEADER_SIZE);
+		for (int r = 0; r < data.getNrOfRows(); r++) {
+			System.arraycopy(data.getValues(), r * data.getInputAmount(), preprocessor.getPicture(), 0,
+					data.getInputAmount());
+			preprocessor.add(r, data.getClassifications()[r]);
+		}
+		preprocessor.flush();
+		return preprocessor;
+	}
+
+	/**
+	 * writes the classifications and the header behind and in front of the rows the preprocessor has written
+	 * (into a temporary file first, so that no other run can see a half written file)
+	 */
+	private static void save(PicturePreprocessor preprocessor, FileChannel channel, File sourceFile, int downscale,
+			int threshold) throws IOException {
+		int nrOfSamples = preprocessor.getNrOfSamples();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(nrOfSamples).putInt(preprocessor.getInputAmount())
+				.putInt(preprocessor.getBitsPerValue()).putInt(downscale).putInt(threshold).putInt(0)
+				.putLong(sourceFile.length()).putLong(sourceFile.lastModified());
+		header.flip();
+		long rowsSize = (long) DataSet.getRowStride(preprocessor.getInputAmount(), preprocessor.getBitsPerValue())
+				* nrOfSamples;
+		write(channel, ByteBuffer.wrap(preprocessor.getLabels()), HEADER_SIZE + rowsSize);
+		write(channel, header, 0);
+		channel.force(false);
+	}
+
+	private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	/**
+	 * maps the rows of the binary file into memory (window by window, see DataSet.getSamplesPerWindow)
+	 * @return The DataSet (null if the file doesn't fit to the read file or the preprocessing)
+	 */
+	static DataSet map(File cacheFile, File sourceFile, int downscale, int threshold) throws IOException {
+		try (RandomAccessFile file = new RandomAccessFile(cacheFile, "r"); FileChannel channel = file.getChannel()) {
+			if (channel.size() < HEADER_SIZE) {
+				return null;
+			}
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			read(channel, header, 0);
+			if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(20) != downscale
+					|| header.getInt(24) != threshold) {
+				return null;
+			}
+			if (sourceFile.exists()
+					&& (header.getLong(32) != sourceFile.length() || header.getLong(40) != sourceFile.lastModified())) {
+				// the read file has been changed
+				return null;
+			}
+			int nrOfSamples = header.getInt(8);
+			int inputAmount = header.getInt(12);
+			int bitsPerValue = header.getInt(16);
+			if (nrOfSamples < 0 || inputAmount < 0 || (bitsPerValue != DataSet.BITS && bitsPerValue != DataSet.BYTES)) {
+				return null;
+			}
+			int rowStride = DataSet.getRowStride(inputAmount, bitsPerValue);
+			long labelsOffset = HEADER_SIZE + (long) rowStride * nrOfSamples;
+			if (channel.size() < labelsOffset + nrOfSamples) {
+				return null;
+			}
+			byte[] labels = new byte[nrOfSamples];
+			read(channel, ByteBuffer.wrap(labels), labelsOffset);
+
+			// the mappings stay valid after the channel is closed
+			int samplesPerWindow = DataSet.getSamplesPerWindow(rowStride);
+			ByteBuffer[] rowWindows = new ByteBuffer[(nrOfSamples + samplesPerWindow - 1) / samplesPerWindow];
+			for (int w = 0; w < rowWindows.length; w++) {
+				long firstSample = (long) w * samplesPerWindow;
+				int samples = (int) Math.min(samplesPerWindow, nrOfSamples - firstSample);
+				rowWindows[w] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + firstSample * rowStride,
+						(long) samples * rowStride);
+			}
+			return new DataSet(nrOfSamples, inputAmount, bitsPerValue, rowWindows, samplesPerWindow, labels);
+		}
+	}
+
+	private static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				throw new IOException("unexpected end of the file");
+			}
+			position += read;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package savingAndInformation;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+import helperClasses.DataSet;
+
+/**
+ * For reading the MNIST-Data in the original IDX-format
+ *
+ * the files can be downloaded at:
+ * http://yann.lecun.com/exdb/mnist/
+ *
+ * The files (big endian) are read picture by picture and every picture
+ * is preprocessed directly while it is read (see PicturePreprocessor),
+ * so the files are never kept in memory as a whole.
+ */
+public class IDXReader {
+
+	// unsigned bytes with 3 dimensions (number, rows, columns)
+	static final int IMAGE_MAGIC = 0x00000803;
+	// unsigned bytes with 1 dimension (number)
+	static final int LABEL_MAGIC = 0x00000801;
+
+	/**
+	 * @param path Where the Set is saved
+	 * @param test if the name of the Test-Set should be returned
+	 * @return The name of the image file of the MNIST-Set
+	 */
+	public static String getImageFile(String path, boolean test) {
+		return path + (test ? "t10k-images-idx3-ubyte" : "train-images-idx3-ubyte");
+	}
+
+	/**
+	 * @param path Where the Set is saved
+	 * @param test if the name of the Test-Set should be returned
+	 * @return The name of the label file of the MNIST-Set
+	 */
+	public static String getLabelFile(String path, boolean test) {
+		return path + (test ? "t10k-labels-idx1-ubyte" : "train-labels-idx1-ubyte");
+	}
+
+	/**
+	 * Reads the given MNIST-Set
+	 * @param path Where the Set is saved
+	 * @param test if the Test-Set should be read
+	 * @param downscale How often the pictures are reduced to a quarter (Digit.makeSmaller)
+	 * @param threshold The threshold for Digit.makeBinary (-1 if the pictures should not be binary)
+	 * @return The preprocessed pictures
+	 * @throws IOException if the files cannot be read or have a wrong format
+	 */
+	public static DataSet readIDX(String path, boolean test, int downscale, int threshold) throws IOException {
+		return readIDX(getImageFile(path, test), getLabelFile(path, test), downscale, threshold);
+	}
+
+	/**
+	 * Reads an IDX image file and the IDX label file
+	 * @param imageFile The path of the image file
+	 * @param labelFile The path of the label file
+	 * @param downscale How often the pictures are reduced to a quarter (Digit.makeSmaller)
+	 * @param threshold The threshold for Digit.makeBinary (-1 if the pictures should not be binary)
+	 * @return The preprocessed pictures
+	 * @throws IOException if the files cannot be read or have a wrong format
+	 */
+	public static DataSet readIDX(String imageFile, String labelFile, int downscale, int threshold)
+			throws IOException {
+		return readIDX(imageFile, labelFile, downscale, threshold, null, 0).build();
+	}
+
+	/**
+	 * Reads an IDX image file and the IDX label file
+	 * @param imageFile The path of the image file
+	 * @param labelFile The path of the label file
+	 * @param downscale How often the pictures are reduced to a quarter (Digit.makeSmaller)
+	 * @param threshold The threshold for Digit.makeBinary (-1 if the pictures should not be binary)
+	 * @param channel The file the rows are written to (null if the rows should be stored in the heap)
+	 * @param position The position of the first row in the file
+	 * @return The preprocessor with all pictures
+	 * @throws IOException if the files cannot be read or have a wrong format
+	 */
+	static PicturePreprocessor readIDX(String imageFile, String labelFile, int downscale, int threshold,
+			FileChannel channel, long position) throws IOException {
+		try (DataInputStream images = open(imageFile); DataInputStream labels = open(labelFile)) {
+			if (new File(imageFile).length() < 16 || images.readInt() != IMAGE_MAGIC) {
+				throw new IOException(imageFile + " is no IDX image file");
+			}
+			if (new File(labelFile).length() < 8 || labels.readInt() != LABEL_MAGIC) {
+				throw new IOException(labelFile + " is no IDX label file");
+			}
+			int nrOfSamples = images.readInt();
+			int height = images.readInt();
+			int width = images.readInt();
+			if (nrOfSamples != labels.readInt()) {
+				throw new IOException(imageFile + " and " + labelFile + " contain a different number of samples");
+			}
+			if (height != width) {
+				throw new IOException("the pictures in " + imageFile + " are not square");
+			}
+			int pictureSize = height * width;
+			if (new File(imageFile).length() < 16 + (long) nrOfSamples * pictureSize
+					|| new File(labelFile).length() < 8 + (long) nrOfSamples) {
+				throw new IOException(imageFile + " or " + labelFile + " is incomplete");
+			}
+
+			PicturePreprocessor preprocessor = new PicturePreprocessor(nrOfSamples, width, downscale, threshold,
+					channel, position);
+			int[] picture = preprocessor.getPicture();
+			byte[] bytes = new byte[pictureSize];
+			for (int s = 0; s < nrOfSamples; s++) {
+				images.readFully(bytes);
+				for (int p = 0; p < pictureSize; p++) {
+					picture[p] = bytes[p] & 0xFF;
+				}
+				preprocessor.add(s, labels.readUnsignedByte());
+			}
+			preprocessor.flush();
+			return preprocessor;
+		}
+	}
+
+	/**
+	 * opens the file for reading (big endian)
+	 */
+	private static DataInputStream open(String file) throws IOException {
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+	}
+}
@@ -0,0 +1,219 @@
+package savingAndInformation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import helperClasses.DataSet;
+
+/**
+ * Preprocesses square pictures and packs them directly into the rows of a DataSet
+ *
+ * Downscaling (like Digit.makeSmaller) and thresholding (like Digit.makeBinary)
+ * are done in one pass per picture in a reused buffer,
+ * so no Digit and no int[][] is created for a sample.
+ *
+ * The rows are either stored in the heap (build creates the DataSet)
+ * or written one after another into a file (see DataSetCache),
+ * then only a small buffer of rows and the classifications are kept in the heap.
+ */
+class PicturePreprocessor {
+
+	// size of the buffer for the rows that are written into a file (in bytes)
+	static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	private final int nrOfSamples;
+	// side length of the read and of the preprocessed pictures
+	private final int side;
+	private final int smallSide;
+	// How often the pictures are reduced to a quarter
+	private final int downscale;
+	// value from which on a pixel is 1 (-1 if the pictures should not be binary)
+	private final int threshold;
+	private final int bitsPerValue;
+	private final int rowStride;
+	// the preprocessed pictures row by row (null if the rows are written into a file)
+	private final ByteBuffer rows;
+	// the file the rows are written to and the position of the first row (null if the rows are stored in the heap)
+	private final FileChannel channel;
+	private final long position;
+	// the rows that have not been written into the file yet
+	private final ByteBuffer pending;
+	// the sample of the first row in pending
+	private int firstPendingSample;
+	private final byte[] labels;
+	// the picture that is preprocessed next
+	private final int[] picture;
+
+	/**
+	 * Creates a preprocessor that stores the rows in the heap
+	 * @param nrOfSamples The number of pictures
+	 * @param side The side length of the pictures
+	 * @param downscale How often the pictures are reduced to a quarter (Digit.makeSmaller)
+	 * @param threshold The threshold for Digit.makeBinary (-1 if the pictures should not be binary)
+	 */
+	PicturePreprocessor(int nrOfSamples, int side, int downscale, int threshold) {
+		this(nrOfSamples, side, downscale, threshold, null, 0);
+	}
+
+	/**
+	 * Creates a preprocessor that writes the rows into a file
+	 * (the pictures have to be added in the order of the samples)
+	 * @param nrOfSamples The number of pictures
+	 * @param side The side length of the pictures
+	 * @param downscale How often the pictures are reduced to a quarter (Digit.makeSmaller)
+	 * @param threshold The threshold for Digit.makeBinary (-1 if the pictures should not be binary)
+	 * @param channel The file the rows are written to (null if the rows should be stored in the heap)
+	 * @param position The position of the first row in the file
+	 */
+	PicturePreprocessor(int nrOfSamples, int side, int downscale, int threshold, FileChannel channel,
+			long position) {
+		this.nrOfSamples = nrOfSamples;
+		this.side = side;
+		this.downscale = downscale;
+		this.threshold = threshold;
+		int smallSide = side;
+		for (int i = 0; i < downscale; i++) {
+			smallSide /= 2;
+		}
+		this.smallSide = smallSide;
+		this.bitsPerValue = threshold >= 0 ? DataSet.BITS : DataSet.BYTES;
+		this.rowStride = DataSet.getRowStride(smallSide * smallSide, bitsPerValue);
+		this.channel = channel;
+		this.position = position;
+		if (channel == null) {
+			if ((long) rowStride * nrOfSamples > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("the data set is too big for the heap (use DataSetCache)");
+			}
+			this.rows = ByteBuffer.allocate(rowStride * nrOfSamples);
+			this.pending = null;
+		} else {
+			this.rows = null;
+			this.pending = ByteBuffer.allocate(Math.max(rowStride, WRITE_BUFFER_SIZE / Math.max(rowStride, 1) * rowStride));
+		}
+		this.labels = new byte[nrOfSamples];
+		this.picture = new int[side * side];
+	}
+
+	/**
+	 * @return The buffer the next picture is written to (row by row, side*side values)
+	 */
+	int[] getPicture() {
+		return picture;
+	}
+
+	/**
+	 * preprocesses the picture in getPicture() and stores it as the given sample
+	 * @param sample The number of the sample
+	 * @param classification The classification of the picture
+	 * @throws IOException if the row cannot be written into the file
+	 */
+	void add(int sample, int classification) throws IOException {
+		if (classification < 0 || classification > 255) {
+			throw new IllegalArgumentException("a DataSet can only store classifications in [0,255]");
+		}
+		labels[sample] = (byte) classification;
+		// reduce the picture to a quarter in place (the result is in the first size*size values)
+		int size = side;
+		for (int d = 0; d < downscale; d++) {
+			int half = size / 2;
+			for (int i = 0; i < half; i++) {
+				for (int j = 0; j < half; j++) {
+					int upper = i * 2 * size + j * 2;
+					int lower = upper + size;
+					picture[i * half + j] = (picture[upper] + picture[lower] + picture[upper + 1]
+							+ picture[lower + 1]) / 4;
+				}
+			}
+			size = half;
+		}
+		if (channel == null) {
+			pack(rows, sample * rowStride);
+			return;
+		}
+		if (sample != firstPendingSample + pending.position() / rowStride) {
+			throw new IllegalArgumentException("the pictures have to be added in the order of the samples");
+		}
+		if (pending.remaining() < rowStride) {
+			flush();
+		}
+		pack(pending, pending.position());
+		pending.position(pending.position() + rowStride);
+	}
+
+	/**
+	 * packs the preprocessed picture into one row of the buffer
+	 */
+	private void pack(ByteBuffer buffer, int offset) {
+		if (bitsPerValue == DataSet.BITS) {
+			for (int b = 0; b < rowStride; b++) {
+				buffer.put(offset + b, (byte) 0);
+			}
+		}
+		for (int i = 0; i < smallSide * smallSide; i++) {
+			int value = picture[i];
+			if (bitsPerValue == DataSet.BITS) {
+				if (value >= threshold) {
+					buffer.put(offset + (i >>> 3), (byte) (buffer.get(offset + (i >>> 3)) | (1 << (i & 7))));
+				}
+			} else if (value < 0 || value > 255) {
+				throw new IllegalArgumentException("a DataSet can only store values in [0,255]");
+			} else {
+				buffer.put(offset + i, (byte) value);
+			}
+		}
+	}
+
+	/**
+	 * writes the added rows that are still in the buffer into the file
+	 * @throws IOException if the rows cannot be written
+	 */
+	void flush() throws IOException {
+		if (channel == null) {
+			return;
+		}
+		int writtenSamples = pending.position() / rowStride;
+		pending.flip();
+		long writePosition = position + (long) firstPendingSample * rowStride;
+		while (pending.hasRemaining()) {
+			writePosition += channel.write(pending, writePosition);
+		}
+		pending.clear();
+		firstPendingSample += writtenSamples;
+	}
+
+	/**
+	 * @return The DataSet of all added pictures (only if the rows are stored in the heap)
+	 */
+	DataSet build() {
+		if (rows == null) {
+			throw new IllegalStateException("the rows have been written into a file");
+		}
+		return DataSet.createFromRows(nrOfSamples, smallSide * smallSide, bitsPerValue, rows, labels);
+	}
+
+	int getNrOfSamples() {
+		return nrOfSamples;
+	}
+
+	/**
+	 * @return The number of values of a preprocessed picture
+	 */
+	int getInputAmount() {
+		return smallSide * smallSide;
+	}
+
+	/**
+	 * @return DataSet.BYTES or DataSet.BITS
+	 */
+	int getBitsPerValue() {
+		return bitsPerValue;
+	}
+
+	/**
+	 * @return The classification of every added picture
+	 */
+	byte[] getLabels() {
+		return labels;
+	}
+}